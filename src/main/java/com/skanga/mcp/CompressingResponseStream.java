@@ -0,0 +1,183 @@
+package com.skanga.mcp;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Response body stream that compresses large HTTP responses for clients that accept it.
+ * The first bytes are held back until either the body reaches the size threshold, in which case the
+ * headers are sent with a Content-Encoding and the rest of the body is compressed as it is written, or
+ * the body ends, in which case it is sent uncompressed with an exact Content-Length. Small responses
+ * therefore do not pay for compression, and large ones are never buffered in full.
+ */
+class CompressingResponseStream extends OutputStream {
+    static final String GZIP = "gzip";
+    static final String DEFLATE = "deflate";
+    private static final int COMPRESSION_BUFFER_SIZE = 8192;
+
+    private final HttpExchange httpExchange;
+    private final int statusCode;
+    private final String contentEncoding;
+    private final int minCompressBytes;
+    private ByteArrayOutputStream pendingBytes;
+    private OutputStream bodyStream;
+    private Deflater deflater;
+    private boolean closed;
+
+    /**
+     * Prepares the response body. Headers are only sent once the first bytes are flushed or the stream is closed,
+     * so response headers may still be set until then.
+     *
+     * @param httpExchange     The exchange to respond to
+     * @param statusCode       HTTP status of the response
+     * @param minCompressBytes Smallest body that is compressed; 0 disables compression
+     */
+    CompressingResponseStream(HttpExchange httpExchange, int statusCode, int minCompressBytes) {
+        this.httpExchange = httpExchange;
+        this.statusCode = statusCode;
+        this.minCompressBytes = minCompressBytes;
+        this.contentEncoding = minCompressBytes > 0
+                ? negotiateEncoding(httpExchange.getRequestHeaders().get("Accept-Encoding")) : null;
+        if (contentEncoding != null) {
+            httpExchange.getResponseHeaders().add("Vary", "Accept-Encoding");
+            pendingBytes = new ByteArrayOutputStream(minCompressBytes);
+        }
+    }
+
+    /**
+     * Picks the encoding to use from the Accept-Encoding request headers, preferring gzip over deflate.
+     * Encodings with a quality of 0 are refused; a wildcard accepts whichever of the two is not refused.
+     *
+     * @param acceptEncodings Values of the Accept-Encoding headers, possibly null
+     * @return "gzip", "deflate" or null for no compression
+     */
+    static String negotiateEncoding(List<String> acceptEncodings) {
+        if (acceptEncodings == null) {
+            return null;
+        }
+        boolean gzipAccepted = false;
+        boolean deflateAccepted = false;
+        boolean wildcardAccepted = false;
+        boolean gzipRefused = false;
+        boolean deflateRefused = false;
+        for (String headerValue : acceptEncodings) {
+            for (String encodingEntry : headerValue.split(",")) {
+                String[] entryParts = encodingEntry.split(";");
+                String encodingName = entryParts[0].trim().toLowerCase(Locale.ROOT);
+                boolean accepted = true;
+                for (int i = 1; i < entryParts.length; i++) {
+                    String parameter = entryParts[i].trim().toLowerCase(Locale.ROOT);
+                    if (parameter.startsWith("q=")) {
+                        try {
+                            accepted = Double.parseDouble(parameter.substring(2)) > 0;
+                        } catch (NumberFormatException e) {
+                            accepted = false;
+                        }
+                    }
+                }
+                switch (encodingName) {
+                    case GZIP, "x-gzip" -> {
+                        gzipAccepted |= accepted;
+                        gzipRefused |= !accepted;
+                    }
+                    case DEFLATE -> {
+                        deflateAccepted |= accepted;
+                        deflateRefused |= !accepted;
+                    }
+                    case "*" -> wildcardAccepted |= accepted;
+                    default -> {
+                        // Other encodings (br, zstd, identity) are not offered
+                    }
+                }
+            }
+        }
+        if (gzipAccepted || (wildcardAccepted && !gzipRefused)) {
+            return GZIP;
+        }
+        return deflateAccepted || (wildcardAccepted && !deflateRefused) ? DEFLATE : null;
+    }
+
+    @Override
+    public void write(int singleByte) throws IOException {
+        write(new byte[]{(byte) singleByte}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] byteBuffer, int byteOffset, int byteLength) throws IOException {
+        if (bodyStream == null) {
+            if (pendingBytes != null && pendingBytes.size() + byteLength < minCompressBytes) {
+                pendingBytes.write(byteBuffer, byteOffset, byteLength);
+                return;
+            }
+            startBody();
+        }
+        bodyStream.write(byteBuffer, byteOffset, byteLength);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        // Held back bytes stay pending until the threshold decides the encoding
+        if (bodyStream != null) {
+            bodyStream.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (bodyStream == null) {
+            // The whole body is below the threshold: send it uncompressed with its length
+            int bodyLength = pendingBytes == null ? 0 : pendingBytes.size();
+            httpExchange.sendResponseHeaders(statusCode, bodyLength == 0 ? -1 : bodyLength);
+            try (OutputStream responseBody = httpExchange.getResponseBody()) {
+                if (pendingBytes != null) {
+                    pendingBytes.writeTo(responseBody);
+                }
+            }
+            return;
+        }
+        try {
+            bodyStream.close();
+        } finally {
+            if (deflater != null) {
+                deflater.end();
+            }
+        }
+    }
+
+    /**
+     * @return the Content-Encoding the body is sent with, or null if it is not compressed
+     */
+    String getContentEncoding() {
+        return bodyStream != null && pendingBytes != null ? contentEncoding : null;
+    }
+
+    private void startBody() throws IOException {
+        if (pendingBytes == null) {
+            httpExchange.sendResponseHeaders(statusCode, 0);
+            bodyStream = httpExchange.getResponseBody();
+            return;
+        }
+        httpExchange.getResponseHeaders().set("Content-Encoding", contentEncoding);
+        httpExchange.sendResponseHeaders(statusCode, 0);
+        OutputStream responseBody = httpExchange.getResponseBody();
+        if (GZIP.equals(contentEncoding)) {
+            bodyStream = new GZIPOutputStream(responseBody, COMPRESSION_BUFFER_SIZE);
+        } else {
+            deflater = new Deflater();
+            bodyStream = new DeflaterOutputStream(responseBody, deflater, COMPRESSION_BUFFER_SIZE);
+        }
+        pendingBytes.writeTo(bodyStream);
+    }
+}
@@ -2,6 +2,8 @@ package com.skanga.mcp;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.skanga.mcp.metrics.LatencyHistogram;
+import com.skanga.mcp.metrics.Phase;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 
@@ -39,6 +41,24 @@ class HealthCheckHandler implements HttpHandler {
         healthResponse.put("database_version", mcpServer.databaseService.getDatabaseVersion());
         healthResponse.put("database_type", mcpServer.databaseService.getDatabaseConfig().getDatabaseType());
         healthResponse.put("connection_pool_active", mcpServer.databaseService.getActiveConnections());
+        healthResponse.put("result_cache_hit_ratio", mcpServer.databaseService.getResultCacheHitRatio());
+        healthResponse.put("schema_cache_hits", mcpServer.databaseService.getSchemaCacheHits());
+        healthResponse.put("schema_cache_misses", mcpServer.databaseService.getSchemaCacheMisses());
+
+        // Per-phase latency of SQL tool calls, in milliseconds
+        ObjectNode latencyNode = healthResponse.putObject("sql_latency_ms");
+        for (Phase phase : Phase.values()) {
+            LatencyHistogram phaseHistogram = mcpServer.getQueryMetrics().histogram(phase);
+            if (phaseHistogram.count() > 0) {
+                ObjectNode phaseNode = latencyNode.putObject(phase.metricName());
+                phaseNode.put("count", phaseHistogram.count());
+                phaseNode.put("mean", phaseHistogram.sumNanos() / 1_000_000.0 / phaseHistogram.count());
+                phaseNode.put("p50", phaseHistogram.percentileNanos(50) / 1_000_000.0);
+                phaseNode.put("p95", phaseHistogram.percentileNanos(95) / 1_000_000.0);
+                phaseNode.put("p99", phaseHistogram.percentileNanos(99) / 1_000_000.0);
+                phaseNode.put("max", phaseHistogram.maxNanos() / 1_000_000.0);
+            }
+        }
 
         String responseJson = objectMapper.writeValueAsString(healthResponse);
         httpExchange.getResponseHeaders().set("Content-Type", "application/json");
@@ -0,0 +1,172 @@
+package com.skanga.mcp;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+
+/**
+ * Case-insensitive multi-pattern matcher (Aho-Corasick automaton) used to detect instruction-like text.
+ * All patterns are found in a single pass over the original string, without lower-casing or trimming a
+ * copy of it first. Patterns must be ASCII; any other character simply resets the automaton.
+ *
+ * <p>Three kinds of pattern are supported:
+ * <ul>
+ *   <li>prefix patterns, which only match at the start of the value after leading whitespace</li>
+ *   <li>anywhere patterns, which match as a substring</li>
+ *   <li>word patterns, which must not be directly preceded or followed by a letter, digit or underscore</li>
+ * </ul>
+ */
+final class InstructionMatcher {
+    private static final int ALPHABET_SIZE = 128;
+    private static final int PREFIX = 0;
+    private static final int ANYWHERE = 1;
+    private static final int WORD = 2;
+
+    // transitions[state][char] is the next state; the automaton is complete so there are no failure links to follow
+    private final int[][] transitions;
+    // Indexes of the patterns ending in each state, including those ending in its suffix states
+    private final int[][] stateMatches;
+    private final int[] patternLengths;
+    private final int[] patternKinds;
+
+    /**
+     * @param prefixPatterns   Patterns matching only at the start of the value, ignoring leading whitespace
+     * @param anywherePatterns Patterns matching anywhere in the value
+     * @param wordPatterns     Patterns matching anywhere on word boundaries
+     */
+    InstructionMatcher(List<String> prefixPatterns, List<String> anywherePatterns, List<String> wordPatterns) {
+        List<String> allPatterns = new ArrayList<>();
+        List<Integer> allKinds = new ArrayList<>();
+        addPatterns(allPatterns, allKinds, prefixPatterns, PREFIX);
+        addPatterns(allPatterns, allKinds, anywherePatterns, ANYWHERE);
+        addPatterns(allPatterns, allKinds, wordPatterns, WORD);
+
+        patternLengths = allPatterns.stream().mapToInt(String::length).toArray();
+        patternKinds = allKinds.stream().mapToInt(Integer::intValue).toArray();
+
+        // Build the trie
+        List<int[]> stateTransitions = new ArrayList<>();
+        List<int[]> matchesByState = new ArrayList<>();
+        stateTransitions.add(newState());
+        matchesByState.add(new int[0]);
+        for (int patternIndex = 0; patternIndex < allPatterns.size(); patternIndex++) {
+            int currState = 0;
+            for (char patternChar : allPatterns.get(patternIndex).toCharArray()) {
+                int nextState = stateTransitions.get(currState)[patternChar];
+                if (nextState < 0) {
+                    nextState = stateTransitions.size();
+                    stateTransitions.add(newState());
+                    matchesByState.add(new int[0]);
+                    stateTransitions.get(currState)[patternChar] = nextState;
+                }
+                currState = nextState;
+            }
+            matchesByState.set(currState, append(matchesByState.get(currState), patternIndex));
+        }
+
+        // Breadth-first pass turning the trie into a complete automaton, merging the matches of suffix states
+        int[] failureStates = new int[stateTransitions.size()];
+        Queue<Integer> pendingStates = new ArrayDeque<>();
+        int[] rootTransitions = stateTransitions.get(0);
+        for (int inputChar = 0; inputChar < ALPHABET_SIZE; inputChar++) {
+            if (rootTransitions[inputChar] < 0) {
+                rootTransitions[inputChar] = 0;
+            } else {
+                pendingStates.add(rootTransitions[inputChar]);
+            }
+        }
+        while (!pendingStates.isEmpty()) {
+            int currState = pendingStates.remove();
+            int[] currTransitions = stateTransitions.get(currState);
+            for (int inputChar = 0; inputChar < ALPHABET_SIZE; inputChar++) {
+                int nextState = currTransitions[inputChar];
+                int fallbackState = stateTransitions.get(failureStates[currState])[inputChar];
+                if (nextState < 0) {
+                    currTransitions[inputChar] = fallbackState;
+                } else {
+                    failureStates[nextState] = fallbackState;
+                    for (int suffixMatch : matchesByState.get(fallbackState)) {
+                        matchesByState.set(nextState, append(matchesByState.get(nextState), suffixMatch));
+                    }
+                    pendingStates.add(nextState);
+                }
+            }
+        }
+
+        transitions = stateTransitions.toArray(new int[0][]);
+        stateMatches = matchesByState.toArray(new int[0][]);
+    }
+
+    /**
+     * Checks whether the value contains any of the patterns, ignoring case.
+     *
+     * @param inputValue The text to scan
+     * @return true if at least one pattern matches
+     */
+    boolean matches(String inputValue) {
+        int valueLength = inputValue.length();
+        int firstNonBlank = 0;
+        while (firstNonBlank < valueLength && inputValue.charAt(firstNonBlank) <= ' ') {
+            firstNonBlank++;
+        }
+
+        int currState = 0;
+        for (int i = firstNonBlank; i < valueLength; i++) {
+            char inputChar = Character.toLowerCase(inputValue.charAt(i));
+            currState = inputChar < ALPHABET_SIZE ? transitions[currState][inputChar] : 0;
+            for (int patternIndex : stateMatches[currState]) {
+                int matchStart = i - patternLengths[patternIndex] + 1;
+                switch (patternKinds[patternIndex]) {
+                    case PREFIX -> {
+                        if (matchStart == firstNonBlank) {
+                            return true;
+                        }
+                    }
+                    case WORD -> {
+                        if (!isWordChar(inputValue, matchStart - 1) && !isWordChar(inputValue, i + 1)) {
+                            return true;
+                        }
+                    }
+                    default -> {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void addPatterns(List<String> allPatterns, List<Integer> allKinds, List<String> patterns, int patternKind) {
+        for (String pattern : patterns) {
+            String lowerPattern = pattern.toLowerCase(Locale.ROOT);
+            if (lowerPattern.isEmpty() || !lowerPattern.chars().allMatch(patternChar -> patternChar < ALPHABET_SIZE)) {
+                throw new IllegalArgumentException("Patterns must be non-empty ASCII: " + pattern);
+            }
+            allPatterns.add(lowerPattern);
+            allKinds.add(patternKind);
+        }
+    }
+
+    private static boolean isWordChar(String inputValue, int charIndex) {
+        if (charIndex < 0 || charIndex >= inputValue.length()) {
+            return false;
+        }
+        char valueChar = inputValue.charAt(charIndex);
+        return Character.isLetterOrDigit(valueChar) || valueChar == '_';
+    }
+
+    private static int[] newState() {
+        int[] stateTransitions = new int[ALPHABET_SIZE];
+        Arrays.fill(stateTransitions, -1);
+        return stateTransitions;
+    }
+
+    private static int[] append(int[] patternIndexes, int patternIndex) {
+        int[] extendedIndexes = Arrays.copyOf(patternIndexes, patternIndexes.length + 1);
+        extendedIndexes[patternIndexes.length] = patternIndex;
+        return extendedIndexes;
+    }
+}
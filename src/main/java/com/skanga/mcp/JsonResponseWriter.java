@@ -0,0 +1,225 @@
+package com.skanga.mcp;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeType;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.fasterxml.jackson.databind.node.ValueNode;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Streams JSON-RPC responses to an output stream with a {@link JsonGenerator}.
+ * Responses are encoded straight into the stream instead of being serialized into a String and
+ * then copied into a byte array. Result text created with {@link #streamedText(CharSequence...)} is read from
+ * its builders in chunks while it is encoded, so the formatted rows are never copied into a String.
+ * Code that reads the response tree instead of writing it calls {@link #materialize(JsonNode)} first,
+ * which turns streamed text into plain {@link TextNode}s.
+ */
+final class JsonResponseWriter {
+    private static final ObjectWriter responseWriter = new ObjectMapper().writer()
+            .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    private JsonResponseWriter() {
+    }
+
+    /**
+     * Writes a response to the stream and flushes it. The stream is left open.
+     *
+     * @param responseNode The response to write
+     * @param outputStream Destination of the UTF-8 encoded JSON
+     * @return number of bytes written
+     * @throws IOException if writing fails
+     */
+    static long write(JsonNode responseNode, OutputStream outputStream) throws IOException {
+        CountingOutputStream countingStream = new CountingOutputStream(outputStream);
+        responseWriter.writeValue(countingStream, responseNode);
+        return countingStream.byteCount;
+    }
+
+    /**
+     * Wraps text so that it is read from the given character sequences, one after the other, when the response
+     * is written. The sequences must not be modified afterwards.
+     *
+     * @param textParts The text content, typically StringBuilders holding formatted results
+     * @return node to use as a string value in a response
+     */
+    static JsonNode streamedText(CharSequence... textParts) {
+        return new StreamedTextNode(textParts);
+    }
+
+    /**
+     * Replaces streamed text in a response with plain text nodes, for callers that read the tree.
+     *
+     * @param responseNode The response, may be null
+     * @return the same response, modified in place
+     */
+    static JsonNode materialize(JsonNode responseNode) {
+        if (responseNode instanceof ObjectNode objectNode) {
+            Iterator<Map.Entry<String, JsonNode>> fieldIterator = objectNode.fields();
+            while (fieldIterator.hasNext()) {
+                Map.Entry<String, JsonNode> responseField = fieldIterator.next();
+                if (responseField.getValue() instanceof StreamedTextNode streamedText) {
+                    responseField.setValue(TextNode.valueOf(streamedText.textValue()));
+                } else {
+                    materialize(responseField.getValue());
+                }
+            }
+        } else if (responseNode instanceof ArrayNode arrayNode) {
+            for (int i = 0; i < arrayNode.size(); i++) {
+                if (arrayNode.get(i) instanceof StreamedTextNode streamedText) {
+                    arrayNode.set(i, TextNode.valueOf(streamedText.textValue()));
+                } else {
+                    materialize(arrayNode.get(i));
+                }
+            }
+        }
+        return responseNode;
+    }
+
+    /**
+     * String value serialized by reading from its character sequences in chunks.
+     */
+    private static final class StreamedTextNode extends ValueNode {
+        private final CharSequence[] textParts;
+
+        private StreamedTextNode(CharSequence[] textParts) {
+            this.textParts = textParts;
+        }
+
+        @Override
+        public void serialize(JsonGenerator jsonGenerator, SerializerProvider serializerProvider) throws IOException {
+            if (jsonGenerator instanceof TokenBuffer) {
+                // Tree conversion buffers tokens and cannot take a reader
+                jsonGenerator.writeString(textValue());
+            } else {
+                int textLength = 0;
+                for (CharSequence textPart : textParts) {
+                    textLength += textPart.length();
+                }
+                jsonGenerator.writeString(new CharSequenceReader(textParts), textLength);
+            }
+        }
+
+        @Override
+        public JsonToken asToken() {
+            return JsonToken.VALUE_STRING;
+        }
+
+        @Override
+        public JsonNodeType getNodeType() {
+            return JsonNodeType.STRING;
+        }
+
+        @Override
+        public String textValue() {
+            if (textParts.length == 1) {
+                return textParts[0].toString();
+            }
+            StringBuilder textBuilder = new StringBuilder();
+            for (CharSequence textPart : textParts) {
+                textBuilder.append(textPart);
+            }
+            return textBuilder.toString();
+        }
+
+        @Override
+        public String asText() {
+            return textValue();
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other == this;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this);
+        }
+    }
+
+    /**
+     * Reader over character sequences, one after the other, that copies characters straight into the caller's
+     * buffer. A chunk never ends between the two halves of a surrogate pair within a sequence.
+     */
+    private static final class CharSequenceReader extends Reader {
+        private final CharSequence[] textParts;
+        private int partIndex;
+        private int position;
+
+        private CharSequenceReader(CharSequence[] textParts) {
+            this.textParts = textParts;
+        }
+
+        @Override
+        public int read(char[] targetBuffer, int targetOffset, int maxChars) {
+            while (partIndex < textParts.length && position >= textParts[partIndex].length()) {
+                partIndex++;
+                position = 0;
+            }
+            if (partIndex >= textParts.length) {
+                return -1;
+            }
+            CharSequence text = textParts[partIndex];
+            int endPosition = Math.min(text.length(), position + maxChars);
+            if (endPosition < text.length() && endPosition - position > 1
+                    && Character.isHighSurrogate(text.charAt(endPosition - 1))) {
+                endPosition--;
+            }
+            if (text instanceof StringBuilder textBuilder) {
+                textBuilder.getChars(position, endPosition, targetBuffer, targetOffset);
+            } else {
+                for (int i = position; i < endPosition; i++) {
+                    targetBuffer[targetOffset + i - position] = text.charAt(i);
+                }
+            }
+            int charsRead = endPosition - position;
+            position = endPosition;
+            return charsRead;
+        }
+
+        @Override
+        public void close() {
+            // Nothing to release
+        }
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long byteCount;
+
+        private CountingOutputStream(OutputStream outputStream) {
+            super(outputStream);
+        }
+
+        @Override
+        public void write(int singleByte) throws IOException {
+            out.write(singleByte);
+            byteCount++;
+        }
+
+        @Override
+        public void write(byte[] byteBuffer, int byteOffset, int byteLength) throws IOException {
+            out.write(byteBuffer, byteOffset, byteLength);
+            byteCount += byteLength;
+        }
+
+        @Override
+        public void close() throws IOException {
+            // Leave the underlying stream open for the caller
+            flush();
+        }
+    }
+}
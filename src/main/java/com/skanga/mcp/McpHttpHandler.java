@@ -3,6 +3,9 @@ package com.skanga.mcp;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.skanga.mcp.db.ResultHold;
+import com.skanga.mcp.metrics.Phase;
+import com.skanga.mcp.metrics.PhaseTimer;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import org.slf4j.Logger;
@@ -12,17 +15,33 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * HTTP handler for MCP requests
  */
 class McpHttpHandler implements HttpHandler {
+    // Streamable HTTP session header; the server assigns it on initialize and clients echo it
+    static final String SESSION_HEADER = "Mcp-Session-Id";
+    private static final AtomicLong exchangeCounter = new AtomicLong();
+
     private final McpServer mcpServer;
+    private final int compressionMinBytes;
     private static final ObjectMapper objectMapper = new ObjectMapper();
     private static final Logger logger = LoggerFactory.getLogger(McpServer.class);
 
     public McpHttpHandler(McpServer mcpServer) {
+        this(mcpServer, 0);
+    }
+
+    /**
+     * @param mcpServer           Server handling the requests
+     * @param compressionMinBytes Smallest response compressed for clients accepting gzip or deflate, 0 for none
+     */
+    public McpHttpHandler(McpServer mcpServer, int compressionMinBytes) {
         this.mcpServer = mcpServer;
+        this.compressionMinBytes = compressionMinBytes;
     }
 
     @Override
@@ -38,28 +57,48 @@ class McpHttpHandler implements HttpHandler {
             return;
         }
 
-        try {
+        PhaseTimer phaseTimer = new PhaseTimer();
+        // The memory of the query results is released once the response built from them has been sent
+        try (var ignored = phaseTimer.bind(); ResultHold resultHold = new ResultHold();
+             var ignoredHold = resultHold.bind()) {
             // Read request body
             String requestBody = readRequestBody(httpExchange);
             logger.debug("Received HTTP request: {}", requestBody);
 
             // Parse and handle the MCP request
             JsonNode requestNode = objectMapper.readTree(requestBody);
-            JsonNode responseNode = mcpServer.handleRequest(requestNode);
+            JsonNode responseNode = mcpServer.processRequest(requestNode, sessionKeyOf(httpExchange, requestNode));
 
             // Send response (but only if not a notification)
-            sendHttpResponse(httpExchange, responseNode);
+            long responseBytes = sendHttpResponse(httpExchange, responseNode);
+            mcpServer.getQueryMetrics().record(phaseTimer, responseBytes);
         } catch (Exception e) {
             logger.error("Error handling HTTP request", e);
             sendHttpError(httpExchange, 500, "Internal server error: " + e.getMessage());
         }
     }
 
+    /**
+     * Determines the session a request belongs to, which scopes its id for cancellation. Requests carry the
+     * session id assigned on initialize; an initialize without one is assigned a new session. Requests
+     * without a session get a key of their own, so they can never be cancelled by another client's
+     * notification for the same id.
+     */
+    private static String sessionKeyOf(HttpExchange httpExchange, JsonNode requestNode) {
+        String sessionId = httpExchange.getRequestHeaders().getFirst(SESSION_HEADER);
+        if (sessionId == null && "initialize".equals(requestNode.path("method").asText())) {
+            sessionId = UUID.randomUUID().toString();
+            httpExchange.getResponseHeaders().set(SESSION_HEADER, sessionId);
+        }
+        return sessionId != null ? "session:" + sessionId : "exchange:" + exchangeCounter.incrementAndGet();
+    }
+
     // Set CORS headers (useful for testing with browser clients)
     private void setCorsHeaders(HttpExchange httpExchange) {
         httpExchange.getResponseHeaders().set("Access-Control-Allow-Origin", "*");
         httpExchange.getResponseHeaders().set("Access-Control-Allow-Methods", "POST, OPTIONS");
-        httpExchange.getResponseHeaders().set("Access-Control-Allow-Headers", "Content-Type");
+        httpExchange.getResponseHeaders().set("Access-Control-Allow-Headers", "Content-Type, " + SESSION_HEADER);
+        httpExchange.getResponseHeaders().set("Access-Control-Expose-Headers", SESSION_HEADER);
     }
 
     // Handle preflight OPTIONS request
@@ -72,23 +111,35 @@ class McpHttpHandler implements HttpHandler {
         return false;
     }
 
-    // Send response (but only if not a notification)
-    private void sendHttpResponse(HttpExchange httpExchange, JsonNode responseNode) throws IOException {
+    // Send response (but only if not a notification), returning the number of body bytes written or -1
+    private long sendHttpResponse(HttpExchange httpExchange, JsonNode responseNode) throws IOException {
         if (responseNode != null) {
-            String responseJson = objectMapper.writeValueAsString(responseNode);
-            logger.debug("Sending HTTP response: {}", responseJson);
+            if (logger.isDebugEnabled()) {
+                logger.debug("Sending HTTP response: {}", responseNode);
+            }
 
+            // Stream the response with chunked encoding instead of serializing it into a byte array first,
+            // compressing it on the fly when it is large and the client accepts gzip or deflate
+            long phaseStart = System.nanoTime();
             httpExchange.getResponseHeaders().set("Content-Type", "application/json");
-            byte[] responseBytes = responseJson.getBytes();
-            httpExchange.sendResponseHeaders(200, responseBytes.length);
 
-            try (OutputStream outputStream = httpExchange.getResponseBody()) {
-                outputStream.write(responseBytes);
+            long responseBytes;
+            CompressingResponseStream responseStream = new CompressingResponseStream(httpExchange, 200, compressionMinBytes);
+            try (OutputStream outputStream = responseStream) {
+                responseBytes = JsonResponseWriter.write(responseNode, outputStream);
+                PhaseTimer.record(Phase.SERIALIZE, phaseStart);
+                phaseStart = System.nanoTime();
+            }
+            PhaseTimer.record(Phase.WRITE, phaseStart);
+            if (logger.isDebugEnabled() && responseStream.getContentEncoding() != null) {
+                logger.debug("Sent {} byte response with {} encoding", responseBytes, responseStream.getContentEncoding());
             }
+            return responseBytes;
         } else {
             // Notification - send empty 204 response
             httpExchange.sendResponseHeaders(204, 0);
             httpExchange.getResponseBody().close();
+            return -1;
         }
     }
 
@@ -0,0 +1,203 @@
+package com.skanga.mcp;
+
+import com.skanga.mcp.db.DatabaseService;
+import com.skanga.mcp.metrics.Histogram;
+import com.skanga.mcp.metrics.LatencyHistogram;
+import com.skanga.mcp.metrics.Phase;
+import com.skanga.mcp.metrics.QueryMetrics;
+import com.skanga.mcp.metrics.RequestMetrics;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryUsage;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Metrics handler exposing request, tool, SQL latency, connection pool and JVM metrics
+ * in the Prometheus text exposition format.
+ */
+class MetricsHandler implements HttpHandler {
+    private static final Logger logger = LoggerFactory.getLogger(MetricsHandler.class);
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final McpServer mcpServer;
+
+    public MetricsHandler(McpServer mcpServer) {
+        this.mcpServer = mcpServer;
+    }
+
+    @Override
+    public void handle(HttpExchange httpExchange) throws IOException {
+        if (!"GET".equals(httpExchange.getRequestMethod())) {
+            httpExchange.sendResponseHeaders(405, -1);
+            httpExchange.close();
+            return;
+        }
+
+        byte[] responseBytes = renderMetrics().getBytes(StandardCharsets.UTF_8);
+        httpExchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+        httpExchange.sendResponseHeaders(200, responseBytes.length);
+        try (OutputStream outputStream = httpExchange.getResponseBody()) {
+            outputStream.write(responseBytes);
+        }
+    }
+
+    /**
+     * Renders all metrics in the Prometheus text format.
+     */
+    String renderMetrics() {
+        StringBuilder metricsText = new StringBuilder(8192);
+        appendRequestMetrics(metricsText, mcpServer.getRequestMetrics());
+        appendQueryMetrics(metricsText, mcpServer.getQueryMetrics());
+        appendDatabaseMetrics(metricsText, mcpServer.databaseService);
+        appendJvmMetrics(metricsText);
+        return metricsText.toString();
+    }
+
+    private static void appendRequestMetrics(StringBuilder metricsText, RequestMetrics requestMetrics) {
+        Map<String, LatencyHistogram> methodLatencies = new TreeMap<>(requestMetrics.methodLatencies());
+
+        appendHeader(metricsText, "dbchat_requests_total", "counter", "MCP requests handled, by method");
+        methodLatencies.forEach((methodLabel, latencyHistogram) ->
+                appendSample(metricsText, "dbchat_requests_total", label("method", methodLabel), latencyHistogram.count()));
+
+        appendHeader(metricsText, "dbchat_request_errors_total", "counter", "MCP requests answered with a JSON-RPC error, by method");
+        methodLatencies.keySet().forEach(methodLabel ->
+                appendSample(metricsText, "dbchat_request_errors_total", label("method", methodLabel),
+                        requestMetrics.methodErrors(methodLabel)));
+
+        appendHeader(metricsText, "dbchat_request_duration_seconds", "histogram", "MCP request handling time, by method");
+        methodLatencies.forEach((methodLabel, latencyHistogram) ->
+                appendHistogram(metricsText, "dbchat_request_duration_seconds", label("method", methodLabel),
+                        latencyHistogram, NANOS_PER_SECOND));
+
+        appendHeader(metricsText, "dbchat_tool_calls_total", "counter", "Tool calls, by tool");
+        new TreeMap<>(requestMetrics.toolCalls()).forEach((toolLabel, callCount) ->
+                appendSample(metricsText, "dbchat_tool_calls_total", label("tool", toolLabel), callCount));
+
+        appendHeader(metricsText, "dbchat_tool_errors_total", "counter", "Tool calls that returned an error, by tool");
+        new TreeMap<>(requestMetrics.toolErrors()).forEach((toolLabel, errorCount) ->
+                appendSample(metricsText, "dbchat_tool_errors_total", label("tool", toolLabel), errorCount));
+    }
+
+    private static void appendQueryMetrics(StringBuilder metricsText, QueryMetrics queryMetrics) {
+        appendHeader(metricsText, "dbchat_sql_phase_duration_seconds", "histogram",
+                "Time spent per phase of SQL tool calls; pool_wait is the connection acquire time");
+        for (Phase phase : Phase.values()) {
+            appendHistogram(metricsText, "dbchat_sql_phase_duration_seconds", label("phase", phase.metricName()),
+                    queryMetrics.histogram(phase), NANOS_PER_SECOND);
+        }
+
+        appendHeader(metricsText, "dbchat_sql_result_rows", "histogram", "Rows returned by SQL tool calls");
+        appendHistogram(metricsText, "dbchat_sql_result_rows", "", queryMetrics.resultRows(), 1);
+
+        appendHeader(metricsText, "dbchat_sql_response_bytes", "histogram", "Size of serialized SQL tool call responses");
+        appendHistogram(metricsText, "dbchat_sql_response_bytes", "", queryMetrics.responseBytes(), 1);
+    }
+
+    private static void appendDatabaseMetrics(StringBuilder metricsText, DatabaseService databaseService) {
+        try {
+            appendHeader(metricsText, "dbchat_pool_connections", "gauge", "Connections in the pool, by state");
+            appendSample(metricsText, "dbchat_pool_connections", label("state", "active"), databaseService.getActiveConnections());
+            appendSample(metricsText, "dbchat_pool_connections", label("state", "idle"), databaseService.getIdleConnections());
+            appendSample(metricsText, "dbchat_pool_connections", label("state", "total"), databaseService.getTotalConnections());
+
+            appendHeader(metricsText, "dbchat_pool_pending_threads", "gauge", "Threads waiting for a pooled connection");
+            appendSample(metricsText, "dbchat_pool_pending_threads", "", databaseService.getThreadsAwaitingConnection());
+        } catch (RuntimeException e) {
+            // Pool not available (e.g. shut down); report the remaining metrics anyway
+            logger.debug("Connection pool metrics unavailable: {}", e.getMessage());
+        }
+
+        appendHeader(metricsText, "dbchat_result_cache_hits_total", "counter", "Queries answered from the result cache");
+        appendSample(metricsText, "dbchat_result_cache_hits_total", "", databaseService.getResultCacheHits());
+        appendHeader(metricsText, "dbchat_result_cache_misses_total", "counter", "Cacheable queries not found in the result cache");
+        appendSample(metricsText, "dbchat_result_cache_misses_total", "", databaseService.getResultCacheMisses());
+
+        appendHeader(metricsText, "dbchat_schema_cache_hits_total", "counter", "Metadata lookups answered from the schema catalog cache");
+        appendSample(metricsText, "dbchat_schema_cache_hits_total", "", databaseService.getSchemaCacheHits());
+        appendHeader(metricsText, "dbchat_schema_cache_misses_total", "counter", "Metadata lookups that read the database catalog");
+        appendSample(metricsText, "dbchat_schema_cache_misses_total", "", databaseService.getSchemaCacheMisses());
+    }
+
+    private static void appendJvmMetrics(StringBuilder metricsText) {
+        MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+        MemoryUsage heapUsage = memoryBean.getHeapMemoryUsage();
+        MemoryUsage nonHeapUsage = memoryBean.getNonHeapMemoryUsage();
+
+        appendHeader(metricsText, "jvm_memory_bytes_used", "gauge", "Used JVM memory, by area");
+        appendSample(metricsText, "jvm_memory_bytes_used", label("area", "heap"), heapUsage.getUsed());
+        appendSample(metricsText, "jvm_memory_bytes_used", label("area", "nonheap"), nonHeapUsage.getUsed());
+        appendHeader(metricsText, "jvm_memory_bytes_committed", "gauge", "Committed JVM memory, by area");
+        appendSample(metricsText, "jvm_memory_bytes_committed", label("area", "heap"), heapUsage.getCommitted());
+        appendSample(metricsText, "jvm_memory_bytes_committed", label("area", "nonheap"), nonHeapUsage.getCommitted());
+        appendHeader(metricsText, "jvm_memory_bytes_max", "gauge", "Maximum JVM memory, by area (-1 if undefined)");
+        appendSample(metricsText, "jvm_memory_bytes_max", label("area", "heap"), heapUsage.getMax());
+        appendSample(metricsText, "jvm_memory_bytes_max", label("area", "nonheap"), nonHeapUsage.getMax());
+
+        appendHeader(metricsText, "jvm_gc_collection_seconds", "summary", "Time spent in garbage collection, by collector");
+        for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            String gcLabel = label("gc", gcBean.getName());
+            appendSample(metricsText, "jvm_gc_collection_seconds_count", gcLabel, Math.max(0, gcBean.getCollectionCount()));
+            appendSample(metricsText, "jvm_gc_collection_seconds_sum", gcLabel, Math.max(0, gcBean.getCollectionTime()) / 1000.0);
+        }
+
+        appendHeader(metricsText, "jvm_threads_current", "gauge", "Live JVM threads");
+        appendSample(metricsText, "jvm_threads_current", "", ManagementFactory.getThreadMXBean().getThreadCount());
+    }
+
+    /**
+     * Appends a histogram as cumulative buckets plus sum and count, dividing values by the given scale.
+     */
+    private static void appendHistogram(StringBuilder metricsText, String metricName, String labels,
+                                        Histogram histogram, double valueScale) {
+        long[] bucketBounds = histogram.bucketBounds();
+        long[] bucketCounts = histogram.bucketCounts();
+        String labelPrefix = labels.isEmpty() ? "" : labels + ",";
+
+        long cumulativeCount = 0;
+        for (int i = 0; i < bucketBounds.length; i++) {
+            cumulativeCount += bucketCounts[i];
+            appendSample(metricsText, metricName + "_bucket",
+                    labelPrefix + "le=\"" + formatValue(bucketBounds[i] / valueScale) + "\"", cumulativeCount);
+        }
+        cumulativeCount += bucketCounts[bucketBounds.length];
+        appendSample(metricsText, metricName + "_bucket", labelPrefix + "le=\"+Inf\"", cumulativeCount);
+        appendSample(metricsText, metricName + "_sum", labels, histogram.sum() / valueScale);
+        appendSample(metricsText, metricName + "_count", labels, cumulativeCount);
+    }
+
+    private static void appendHeader(StringBuilder metricsText, String metricName, String metricType, String helpText) {
+        metricsText.append("# HELP ").append(metricName).append(' ').append(helpText).append('\n');
+        metricsText.append("# TYPE ").append(metricName).append(' ').append(metricType).append('\n');
+    }
+
+    private static void appendSample(StringBuilder metricsText, String metricName, String labels, double sampleValue) {
+        metricsText.append(metricName);
+        if (!labels.isEmpty()) {
+            metricsText.append('{').append(labels).append('}');
+        }
+        metricsText.append(' ').append(formatValue(sampleValue)).append('\n');
+    }
+
+    private static String label(String labelName, String labelValue) {
+        String escapedValue = labelValue.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+        return labelName + "=\"" + escapedValue + "\"";
+    }
+
+    private static String formatValue(double sampleValue) {
+        if (sampleValue == Math.rint(sampleValue) && Math.abs(sampleValue) < 1e15) {
+            return Long.toString((long) sampleValue);
+        }
+        return Double.toString(sampleValue);
+    }
+}
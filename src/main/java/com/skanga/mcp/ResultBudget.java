@@ -0,0 +1,388 @@
+package com.skanga.mcp;
+
+import com.skanga.mcp.db.ColumnarRows;
+import com.skanga.mcp.db.QueryResult;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * Fits query results into a byte budget before they are rendered.
+ * When the estimated size of the rendered rows exceeds the budget, wide text cells are shortened first,
+ * down to {@link #MIN_CELL_WIDTH} bytes, choosing the widest cut-off that lets every row fit.
+ * Only when even that is not enough are trailing rows dropped.
+ *
+ * <p>Sizes are estimated in UTF-8 bytes. Text longer than the sanitizer's limit is counted at the size of the
+ * preview it is replaced by when it is sanitized. Results backed by {@link ColumnarRows} stay columnar: the
+ * fitted result is a view of the leading rows that shortens text cells as they are read.
+ */
+final class ResultBudget {
+    /** Text cells are never cut shorter than this many bytes to make a result fit */
+    static final int MIN_CELL_WIDTH = 32;
+    static final String TRUNCATION_MARKER = "...";
+
+    // Size of what the sanitizer puts around the preview of long text
+    private static final int SANITIZED_MARKER_BYTES =
+            SecurityUtils.LONG_CONTENT_PREFIX.length() + SecurityUtils.TRUNCATED_SUFFIX.length();
+    // A text cell the sanitizer keeps has at most LONG_CONTENT_LENGTH characters of at most 3 bytes each
+    private static final int MAX_TEXT_BYTES = SecurityUtils.LONG_CONTENT_LENGTH * 3;
+    private static final int NULL_LENGTH = 4;
+    // Allowance for the line naming the format above the rows
+    private static final int TITLE_LENGTH = 40;
+
+    private ResultBudget() {
+    }
+
+    /**
+     * Outcome of fitting a result into a budget.
+     *
+     * @param queryResult    The result to render, the original one if nothing was truncated
+     * @param omittedRows    Number of trailing rows dropped
+     * @param truncatedCells Number of text cells shortened
+     * @param cellWidth      Maximum UTF-8 size of a shortened cell, or 0 if no cell was shortened
+     * @param omittedBytes   Estimated size of the omitted text
+     * @param fetchStopped   True if fetching stopped at the budget, so rows after the omitted ones were never read
+     */
+    record FittedResult(QueryResult queryResult, int omittedRows, int truncatedCells, int cellWidth, long omittedBytes,
+                        boolean fetchStopped) {
+        FittedResult(QueryResult queryResult, int omittedRows, int truncatedCells, int cellWidth, long omittedBytes) {
+            this(queryResult, omittedRows, truncatedCells, cellWidth, omittedBytes, false);
+        }
+
+        /**
+         * @return true if any row or cell was omitted
+         */
+        boolean truncated() {
+            return omittedRows > 0 || truncatedCells > 0 || fetchStopped;
+        }
+    }
+
+    /**
+     * Fits a result into the budget for the given format.
+     *
+     * @param queryResult  The result to fit
+     * @param resultFormat The format the result will be rendered in
+     * @param maxBytes     Budget for the rendered rows in UTF-8 bytes; 0 or less means unlimited
+     * @return the result to render and what was omitted from it
+     */
+    static FittedResult fit(QueryResult queryResult, ResultFormat resultFormat, long maxBytes) {
+        List<List<Object>> allRows = queryResult.allRows();
+        if (maxBytes <= 0 || allRows.isEmpty()) {
+            return new FittedResult(queryResult, 0, 0, 0, 0);
+        }
+
+        ColumnarRows columnarRows = allRows instanceof ColumnarRows columnar ? columnar : null;
+        SizeEstimate sizeEstimate = new SizeEstimate(queryResult.allColumns(), resultFormat);
+        int rowCount = allRows.size();
+        for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+            sizeEstimate.addRow(allRows, columnarRows, rowIndex);
+        }
+
+        long fullSize = sizeEstimate.size(Integer.MAX_VALUE);
+        if (fullSize <= maxBytes) {
+            return new FittedResult(queryResult, 0, 0, 0, 0);
+        }
+
+        // Widest cut-off that still fits every row, found by bisection since the size grows with the width
+        int cellWidth = Math.min(MIN_CELL_WIDTH, sizeEstimate.maxTextBytes);
+        int keptRows = rowCount;
+        int truncatedCells;
+        long fittedSize;
+        if (sizeEstimate.size(cellWidth) <= maxBytes) {
+            int lowWidth = cellWidth;
+            int highWidth = sizeEstimate.maxTextBytes - 1;
+            while (lowWidth < highWidth) {
+                int midWidth = (lowWidth + highWidth + 1) / 2;
+                if (sizeEstimate.size(midWidth) <= maxBytes) {
+                    lowWidth = midWidth;
+                } else {
+                    highWidth = midWidth - 1;
+                }
+            }
+            cellWidth = lowWidth;
+            truncatedCells = sizeEstimate.cellsWiderThan(cellWidth);
+            fittedSize = sizeEstimate.size(cellWidth);
+        } else {
+            // Even the narrowest cells do not fit: keep as many leading rows as the budget allows, but at least one
+            SizeEstimate keptEstimate = new SizeEstimate(queryResult.allColumns(), resultFormat);
+            keptEstimate.addRow(allRows, columnarRows, 0);
+            keptRows = 1;
+            while (keptRows < rowCount) {
+                keptEstimate.addRow(allRows, columnarRows, keptRows);
+                if (keptEstimate.size(cellWidth) > maxBytes) {
+                    keptEstimate.removeLastRow();
+                    break;
+                }
+                keptRows++;
+            }
+            truncatedCells = keptEstimate.cellsWiderThan(cellWidth);
+            fittedSize = keptEstimate.size(cellWidth);
+        }
+        if (truncatedCells == 0) {
+            cellWidth = 0;
+        }
+
+        List<List<Object>> fittedRows = fitRows(allRows, columnarRows, keptRows, cellWidth);
+        QueryResult fittedResult = new QueryResult(queryResult.allColumns(), fittedRows, keptRows,
+                queryResult.executionTimeMs(), queryResult.memoryLimited());
+        return new FittedResult(fittedResult, rowCount - keptRows, truncatedCells, cellWidth, Math.max(0, fullSize - fittedSize));
+    }
+
+    /**
+     * Keeps the leading rows with text cells cut to the given width; columnar rows are returned as a view.
+     */
+    private static List<List<Object>> fitRows(List<List<Object>> allRows, ColumnarRows columnarRows, int keptRows,
+                                              int cellWidth) {
+        UnaryOperator<String> textCutter = cellWidth == 0 ? null
+                : cellText -> textBytes(cellText) > cellWidth ? truncate(cellText, cellWidth) : cellText;
+        if (columnarRows != null) {
+            return columnarRows.view(keptRows, textCutter);
+        }
+        if (textCutter == null) {
+            return allRows.subList(0, keptRows);
+        }
+
+        List<List<Object>> fittedRows = new ArrayList<>(keptRows);
+        for (int rowIndex = 0; rowIndex < keptRows; rowIndex++) {
+            Object[] fittedRow = allRows.get(rowIndex).toArray();
+            for (int i = 0; i < fittedRow.length; i++) {
+                if (fittedRow[i] != null && !SecurityUtils.isNonTextValue(fittedRow[i])) {
+                    String cellText = fittedRow[i].toString();
+                    String fittedText = textCutter.apply(cellText);
+                    if (fittedText != cellText) {
+                        fittedRow[i] = fittedText;
+                    }
+                }
+            }
+            fittedRows.add(Arrays.asList(fittedRow));
+        }
+        return fittedRows;
+    }
+
+    /**
+     * Running size estimate of a result. Cells that are never shortened are summed as they are added; the
+     * sizes of text cells are kept as a histogram, so the size at any cut-off width is computed without
+     * revisiting the rows.
+     */
+    private static final class SizeEstimate {
+        private final boolean padsColumns;
+        private final int[] cellOverheads;
+        // Width of every column from its header and the cells that are never shortened
+        private final int[] fixedWidths;
+        private final int[] maxTextWidths;
+        private final long[] textCellCounts = new long[MAX_TEXT_BYTES + 1];
+        private final long headerSize;
+        private long fixedSize;
+        private int rowCount;
+        private int maxTextBytes;
+        // Sizes of the last added row, so that it can be taken back
+        private final int[] lastTextBytes;
+        private final int[] lastFixedWidths;
+        private final int[] lastMaxTextWidths;
+        private long lastFixedSize;
+        private int lastMaxTextBytes;
+
+        SizeEstimate(List<String> allColumns, ResultFormat resultFormat) {
+            int columnCount = allColumns.size();
+            padsColumns = resultFormat.padsColumns();
+            cellOverheads = new int[columnCount];
+            fixedWidths = new int[columnCount];
+            maxTextWidths = new int[columnCount];
+            lastTextBytes = new int[columnCount];
+            lastFixedWidths = new int[columnCount];
+            lastMaxTextWidths = new int[columnCount];
+            // Allows for a header and a separator line
+            long headerBytes = TITLE_LENGTH;
+            for (int i = 0; i < columnCount; i++) {
+                cellOverheads[i] = resultFormat.cellOverhead(allColumns.get(i));
+                fixedWidths[i] = utf8Length(allColumns.get(i), allColumns.get(i).length());
+                headerBytes += 2L * (fixedWidths[i] + cellOverheads[i]);
+            }
+            headerSize = headerBytes;
+        }
+
+        void addRow(List<List<Object>> allRows, ColumnarRows columnarRows, int rowIndex) {
+            System.arraycopy(fixedWidths, 0, lastFixedWidths, 0, fixedWidths.length);
+            System.arraycopy(maxTextWidths, 0, lastMaxTextWidths, 0, maxTextWidths.length);
+            lastFixedSize = fixedSize;
+            lastMaxTextBytes = maxTextBytes;
+            // A closing delimiter and line break on every row
+            fixedSize += 2;
+            for (int i = 0; i < cellOverheads.length; i++) {
+                fixedSize += cellOverheads[i];
+                String cellText = shortenableText(allRows, columnarRows, rowIndex, i);
+                if (cellText != null) {
+                    int cellBytes = textBytes(cellText);
+                    textCellCounts[cellBytes]++;
+                    lastTextBytes[i] = cellBytes;
+                    maxTextWidths[i] = Math.max(maxTextWidths[i], cellBytes);
+                    maxTextBytes = Math.max(maxTextBytes, cellBytes);
+                } else {
+                    int cellBytes = measureFixedCell(allRows, columnarRows, rowIndex, i);
+                    fixedSize += cellBytes;
+                    lastTextBytes[i] = -1;
+                    fixedWidths[i] = Math.max(fixedWidths[i], cellBytes);
+                }
+            }
+            rowCount++;
+        }
+
+        /**
+         * Takes back the last added row.
+         */
+        void removeLastRow() {
+            for (int i = 0; i < lastTextBytes.length; i++) {
+                if (lastTextBytes[i] >= 0) {
+                    textCellCounts[lastTextBytes[i]]--;
+                }
+            }
+            System.arraycopy(lastFixedWidths, 0, fixedWidths, 0, fixedWidths.length);
+            System.arraycopy(lastMaxTextWidths, 0, maxTextWidths, 0, maxTextWidths.length);
+            fixedSize = lastFixedSize;
+            maxTextBytes = lastMaxTextBytes;
+            rowCount--;
+        }
+
+        /**
+         * Estimates the rendered size of the rows with text cells cut to the given width.
+         */
+        long size(int cellWidth) {
+            if (padsColumns) {
+                // Every row is as wide as the widest cell of each column, plus the header and separator lines
+                long rowWidth = 1;
+                for (int i = 0; i < cellOverheads.length; i++) {
+                    rowWidth += Math.max(fixedWidths[i], Math.min(maxTextWidths[i], cellWidth)) + cellOverheads[i];
+                }
+                return TITLE_LENGTH + rowWidth * (rowCount + 2);
+            }
+
+            long totalSize = headerSize + fixedSize;
+            int cappedWidth = Math.min(cellWidth, maxTextBytes);
+            for (int cellBytes = 0; cellBytes <= maxTextBytes; cellBytes++) {
+                totalSize += textCellCounts[cellBytes] * Math.min(cellBytes, cappedWidth);
+            }
+            return totalSize;
+        }
+
+        int cellsWiderThan(int cellWidth) {
+            long cellCount = 0;
+            for (int cellBytes = cellWidth + 1; cellBytes <= maxTextBytes; cellBytes++) {
+                cellCount += textCellCounts[cellBytes];
+            }
+            return (int) cellCount;
+        }
+    }
+
+    /**
+     * Returns the text of a cell that may be shortened, or null for SQL NULL and for numeric, boolean,
+     * date/time and UUID values.
+     */
+    private static String shortenableText(List<List<Object>> allRows, ColumnarRows columnarRows, int rowIndex,
+                                          int columnIndex) {
+        Object cellValue;
+        if (columnarRows != null) {
+            if (columnIndex >= columnarRows.columnCount() || !columnarRows.isText(columnIndex)) {
+                return null;
+            }
+            cellValue = columnarRows.getValue(rowIndex, columnIndex);
+        } else {
+            List<Object> currRow = allRows.get(rowIndex);
+            cellValue = columnIndex < currRow.size() ? currRow.get(columnIndex) : null;
+        }
+        return cellValue == null || SecurityUtils.isNonTextValue(cellValue) ? null : cellValue.toString();
+    }
+
+    private static int measureFixedCell(List<List<Object>> allRows, ColumnarRows columnarRows, int rowIndex,
+                                        int columnIndex) {
+        if (columnarRows != null) {
+            if (columnIndex >= columnarRows.columnCount()) {
+                return NULL_LENGTH;
+            }
+            // Vectors of numbers and other non-text values render as ASCII
+            int cellLength = columnarRows.getTextLength(rowIndex, columnIndex);
+            return cellLength < 0 ? NULL_LENGTH : cellLength;
+        }
+        List<Object> currRow = allRows.get(rowIndex);
+        Object cellValue = columnIndex < currRow.size() ? currRow.get(columnIndex) : null;
+        if (cellValue == null) {
+            return NULL_LENGTH;
+        }
+        String cellText = cellValue.toString();
+        return utf8Length(cellText, cellText.length());
+    }
+
+    /**
+     * UTF-8 size of a text cell as it is rendered, after the sanitizer replaced long text by its preview.
+     */
+    static int textBytes(String cellText) {
+        if (cellText.length() > SecurityUtils.LONG_CONTENT_LENGTH) {
+            return SANITIZED_MARKER_BYTES + utf8Length(cellText, SecurityUtils.LONG_CONTENT_PREVIEW_LENGTH);
+        }
+        return utf8Length(cellText, cellText.length());
+    }
+
+    /**
+     * UTF-8 size of the leading characters of a text.
+     */
+    private static int utf8Length(String text, int charCount) {
+        int byteCount = 0;
+        for (int i = 0; i < charCount; i++) {
+            int charBytes = charBytes(text, i);
+            byteCount += charBytes;
+            if (charBytes == 4) {
+                i++;
+            }
+        }
+        return byteCount;
+    }
+
+    /**
+     * UTF-8 size of the text from an index to its end.
+     */
+    static long utf8Length(CharSequence text, int startIndex) {
+        long byteCount = 0;
+        for (int i = startIndex; i < text.length(); i++) {
+            int charBytes = charBytes(text, i);
+            byteCount += charBytes;
+            if (charBytes == 4) {
+                i++;
+            }
+        }
+        return byteCount;
+    }
+
+    /**
+     * UTF-8 size of the character at an index; a surrogate pair counts 4 bytes at its high surrogate.
+     */
+    private static int charBytes(CharSequence text, int charIndex) {
+        char currChar = text.charAt(charIndex);
+        if (currChar < 0x80) {
+            return 1;
+        } else if (currChar < 0x800) {
+            return 2;
+        } else if (Character.isHighSurrogate(currChar) && charIndex + 1 < text.length()
+                && Character.isLowSurrogate(text.charAt(charIndex + 1))) {
+            return 4;
+        }
+        return 3;
+    }
+
+    /**
+     * Cuts text to at most the given UTF-8 size including the marker, without splitting a surrogate pair.
+     */
+    static String truncate(String cellText, int cellWidth) {
+        int byteBudget = Math.max(0, cellWidth - TRUNCATION_MARKER.length());
+        int keptLength = 0;
+        while (keptLength < cellText.length()) {
+            int charBytes = charBytes(cellText, keptLength);
+            if (charBytes > byteBudget) {
+                break;
+            }
+            byteBudget -= charBytes;
+            keptLength += charBytes == 4 ? 2 : 1;
+        }
+        return cellText.substring(0, keptLength) + TRUNCATION_MARKER;
+    }
+}
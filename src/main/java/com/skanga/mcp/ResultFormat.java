@@ -0,0 +1,509 @@
+package com.skanga.mcp;
+
+import com.skanga.mcp.config.ResourceManager;
+import com.skanga.mcp.db.ColumnarRows;
+import com.skanga.mcp.db.QueryResult;
+import com.skanga.mcp.db.RowHandler;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Renderings of query results selectable with the run_sql {@code format} argument.
+ * Apart from the padded ASCII table, every format is written row by row without measuring the
+ * columns first, so those formats can also be rendered while the rows are fetched with a {@link RowWriter}.
+ * Text cells are sanitized in every format; non-text columns are written as is.
+ */
+public enum ResultFormat {
+    /** Padded ASCII table, the most readable and the most verbose format */
+    TABLE("table", new TableRenderer()),
+
+    /** Comma-separated values as in RFC 4180; NULL is an empty field, an empty string is {@code ""} */
+    CSV("csv", new CsvRenderer()),
+
+    /** Tab-separated values; tabs, line breaks and backslashes are escaped and NULL is {@code \N} */
+    TSV("tsv", new TsvRenderer()),
+
+    /** One JSON object per row, keyed by column name; numbers and booleans keep their JSON types */
+    JSON_LINES("jsonl", new JsonLinesRenderer()),
+
+    /** GitHub-flavoured Markdown table without padding */
+    MARKDOWN("markdown", new MarkdownRenderer());
+
+    private final String formatName;
+    private final Renderer renderer;
+
+    ResultFormat(String formatName, Renderer renderer) {
+        this.formatName = formatName;
+        this.renderer = renderer;
+    }
+
+    /**
+     * @return the name used in the format argument and the OUTPUT_FORMAT setting
+     */
+    public String formatName() {
+        return formatName;
+    }
+
+    /**
+     * Looks up a format by name, ignoring case.
+     *
+     * @param formatName One of table, csv, tsv, jsonl or markdown
+     * @return the matching format
+     * @throws IllegalArgumentException if the name is unknown
+     */
+    public static ResultFormat fromName(String formatName) {
+        String normalizedName = formatName == null ? "" : formatName.trim().toLowerCase(Locale.ROOT);
+        for (ResultFormat resultFormat : values()) {
+            if (resultFormat.formatName.equals(normalizedName)) {
+                return resultFormat;
+            }
+        }
+        throw new IllegalArgumentException(ResourceManager.getErrorMessage("format.unsupported", formatName,
+                Arrays.stream(values()).map(ResultFormat::formatName).collect(Collectors.joining(", "))));
+    }
+
+    /**
+     * Appends the query results in this format.
+     *
+     * @param resultBuilder Builder receiving the rendered rows
+     * @param queryResult   The query result to render
+     */
+    void append(StringBuilder resultBuilder, QueryResult queryResult) {
+        renderer.append(resultBuilder, queryResult, formatName);
+    }
+
+    /**
+     * @return true if every cell is padded to the width of its column
+     */
+    boolean padsColumns() {
+        return renderer.padsColumns();
+    }
+
+    /**
+     * Creates a row handler rendering rows in this format as they are fetched.
+     *
+     * @param lobPreviewChars Characters to fetch from each LOB or long text value; 0 reads whole values
+     * @param maxBytes        Budget for the rendered rows in UTF-8 bytes; 0 or less means unlimited
+     * @return handler to pass to the query
+     * @throws UnsupportedOperationException if this format pads columns and needs every row first
+     */
+    RowWriter rowWriter(int lobPreviewChars, long maxBytes) {
+        if (!(renderer instanceof RowRenderer rowRenderer)) {
+            throw new UnsupportedOperationException(formatName + " results need every row before rendering");
+        }
+        return new RowWriter(rowRenderer, formatName, lobPreviewChars, maxBytes);
+    }
+
+    /**
+     * Estimates the characters this format writes around each cell of a column, used to fit results
+     * into a byte budget.
+     *
+     * @param columnName Name of the column
+     * @return separator and quoting characters per cell
+     */
+    int cellOverhead(String columnName) {
+        return renderer.cellOverhead(columnName);
+    }
+
+    /**
+     * Writes a whole result in one format.
+     */
+    private interface Renderer {
+        void append(StringBuilder resultBuilder, QueryResult queryResult, String formatName);
+
+        default boolean padsColumns() {
+            return false;
+        }
+
+        default int cellOverhead(String columnName) {
+            return 3;
+        }
+    }
+
+    /**
+     * Renders the padded table, which measures every column before writing the first row.
+     */
+    private static final class TableRenderer implements Renderer {
+        @Override
+        public void append(StringBuilder resultBuilder, QueryResult queryResult, String formatName) {
+            McpServer.appendResultsAsTable(resultBuilder, queryResult);
+        }
+
+        @Override
+        public boolean padsColumns() {
+            return true;
+        }
+    }
+
+    /**
+     * Renders a result row by row without measuring the columns first, preceded by a line marking the
+     * rows as untrusted. Subclasses write the header, each cell and the end of each row.
+     */
+    private abstract static class RowRenderer implements Renderer {
+        @Override
+        public final void append(StringBuilder resultBuilder, QueryResult queryResult, String formatName) {
+            if (queryResult.isEmpty()) {
+                resultBuilder.append("No data");
+                return;
+            }
+
+            List<String> allColumns = queryResult.allColumns();
+            List<List<Object>> allRows = queryResult.allRows();
+            appendTitle(resultBuilder, allColumns, formatName);
+            for (int rowIndex = 0; rowIndex < allRows.size(); rowIndex++) {
+                appendRow(resultBuilder, allColumns, allRows, rowIndex);
+            }
+        }
+
+        final void appendTitle(StringBuilder resultBuilder, List<String> allColumns, String formatName) {
+            resultBuilder.append(formatName.toUpperCase(Locale.ROOT)).append(" DATA (UNTRUSTED CONTENT)\n");
+            appendHeader(resultBuilder, allColumns);
+        }
+
+        final void appendRow(StringBuilder resultBuilder, List<String> allColumns, List<List<Object>> allRows,
+                             int rowIndex) {
+            int columnCount = allColumns.size();
+            ColumnarRows columnarRows = allRows instanceof ColumnarRows columnar ? columnar : null;
+            List<Object> currRow = columnarRows == null ? allRows.get(rowIndex) : null;
+            int rowSize = columnarRows == null ? currRow.size() : columnarRows.columnCount();
+            for (int i = 0; i < columnCount; i++) {
+                Object columnValue = i >= rowSize ? null
+                        : columnarRows == null ? currRow.get(i) : columnarRows.getValue(rowIndex, i);
+                appendCell(resultBuilder, i, allColumns.get(i), sanitizeCell(columnValue, columnarRows, i));
+            }
+            appendRowEnd(resultBuilder, columnCount);
+        }
+
+        void appendHeader(StringBuilder resultBuilder, List<String> columnNames) {
+            // Formats that name the columns in every row have no header
+        }
+
+        abstract void appendCell(StringBuilder resultBuilder, int columnIndex, String columnName, Object cellValue);
+
+        void appendRowEnd(StringBuilder resultBuilder, int columnCount) {
+            resultBuilder.append('\n');
+        }
+    }
+
+    /**
+     * Renders rows in a row-by-row format while they are fetched, so a query streamed through
+     * {@link com.skanga.mcp.db.DatabaseService#executeSql(String, int, List, RowHandler)} is never collected
+     * in full. Each row is measured in UTF-8 bytes as it is written: the first row that would take the rendered
+     * rows over the budget, and every row after it, is written with its text cells cut to
+     * {@link ResultBudget#MIN_CELL_WIDTH} bytes, and once even a cut row does not fit, that row is dropped and
+     * fetching stops. The first row is always kept. Values are read through a small {@link ColumnarRows} batch,
+     * so they are converted and previewed exactly as in a collected result.
+     */
+    static final class RowWriter implements RowHandler {
+        private static final int BATCH_ROWS = 64;
+
+        private final RowRenderer rowRenderer;
+        private final String formatName;
+        private final int lobPreviewChars;
+        private final long maxBytes;
+        private final StringBuilder renderedRows = new StringBuilder();
+        private List<String> columnNames;
+        // Valid while the result set is open, which is as long as rows arrive
+        private ResultSetMetaData metaData;
+        private ColumnarRows.Builder batchCollector;
+        private int batchRows;
+        private UnaryOperator<String> textCutter;
+        private long renderedBytes;
+        private int writtenRows;
+        private int truncatedCells;
+        private long omittedBytes;
+        private boolean budgetReached;
+
+        private RowWriter(RowRenderer rowRenderer, String formatName, int lobPreviewChars, long maxBytes) {
+            this.rowRenderer = rowRenderer;
+            this.formatName = formatName;
+            this.lobPreviewChars = lobPreviewChars;
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public void onColumns(List<String> columnNames, ResultSetMetaData metaData) throws SQLException {
+            this.columnNames = columnNames;
+            this.metaData = metaData;
+            rowRenderer.appendTitle(renderedRows, columnNames, formatName);
+            renderedBytes = ResultBudget.utf8Length(renderedRows, 0);
+            startBatch();
+        }
+
+        @Override
+        public boolean onRow(ResultSet resultSet) throws SQLException {
+            if (batchRows == BATCH_ROWS) {
+                startBatch();
+            }
+            batchCollector.onRow(resultSet);
+            int rowIndex = batchRows++;
+            ColumnarRows fetchedRows = batchCollector.build();
+            int rowStart = renderedRows.length();
+            if (textCutter == null) {
+                rowRenderer.appendRow(renderedRows, columnNames, fetchedRows, rowIndex);
+                long rowBytes = ResultBudget.utf8Length(renderedRows, rowStart);
+                if (maxBytes <= 0 || renderedBytes + rowBytes <= maxBytes) {
+                    renderedBytes += rowBytes;
+                    writtenRows++;
+                    return true;
+                }
+                // From here on text cells are cut, as the budget cannot hold rows at full width
+                renderedRows.setLength(rowStart);
+                textCutter = cellText -> ResultBudget.textBytes(cellText) > ResultBudget.MIN_CELL_WIDTH
+                        ? ResultBudget.truncate(cellText, ResultBudget.MIN_CELL_WIDTH) : cellText;
+            }
+
+            int cutCells = 0;
+            long cutBytes = 0;
+            for (int i = 0; i < fetchedRows.columnCount(); i++) {
+                Object cellValue = fetchedRows.isText(i) ? fetchedRows.getValue(rowIndex, i) : null;
+                int cellBytes = cellValue == null ? 0 : ResultBudget.textBytes(cellValue.toString());
+                if (cellBytes > ResultBudget.MIN_CELL_WIDTH) {
+                    cutCells++;
+                    cutBytes += cellBytes - ResultBudget.MIN_CELL_WIDTH;
+                }
+            }
+            rowRenderer.appendRow(renderedRows, columnNames, fetchedRows.view(rowIndex + 1, textCutter), rowIndex);
+            long rowBytes = ResultBudget.utf8Length(renderedRows, rowStart);
+            if (renderedBytes + rowBytes > maxBytes && writtenRows > 0) {
+                renderedRows.setLength(rowStart);
+                omittedBytes += rowBytes + cutBytes;
+                budgetReached = true;
+                return false;
+            }
+            renderedBytes += rowBytes;
+            writtenRows++;
+            truncatedCells += cutCells;
+            omittedBytes += cutBytes;
+            return true;
+        }
+
+        @Override
+        public long retainedBytes() {
+            long batchBytes = batchCollector == null ? 0 : batchCollector.estimatedBytes();
+            return 2L * renderedRows.length() + batchBytes;
+        }
+
+        /**
+         * @return true once column metadata has been received, i.e. the statement produced a result set
+         */
+        boolean isStarted() {
+            return columnNames != null;
+        }
+
+        /**
+         * @return the title, header and rows written so far; not to be modified
+         */
+        CharSequence renderedRows() {
+            return renderedRows;
+        }
+
+        /**
+         * Describes what the budget left out of the rendered rows.
+         *
+         * @param streamedResult The result returned by the query, counting every row handed to this writer
+         * @return the omitted rows and cells; fetchStopped tells that further rows were never fetched
+         */
+        ResultBudget.FittedResult fittedResult(QueryResult streamedResult) {
+            return new ResultBudget.FittedResult(streamedResult, streamedResult.rowCount() - writtenRows,
+                    truncatedCells, truncatedCells > 0 ? ResultBudget.MIN_CELL_WIDTH : 0, omittedBytes, budgetReached);
+        }
+
+        private void startBatch() throws SQLException {
+            // A fresh batch per few rows keeps only the rows being rendered in memory
+            batchCollector = new ColumnarRows.Builder(lobPreviewChars);
+            batchCollector.onColumns(columnNames, metaData);
+            batchRows = 0;
+        }
+    }
+
+    private static final class CsvRenderer extends RowRenderer {
+        @Override
+        void appendHeader(StringBuilder resultBuilder, List<String> columnNames) {
+            for (int i = 0; i < columnNames.size(); i++) {
+                if (i > 0) resultBuilder.append(',');
+                appendCsvField(resultBuilder, columnNames.get(i));
+            }
+            resultBuilder.append('\n');
+        }
+
+        @Override
+        void appendCell(StringBuilder resultBuilder, int columnIndex, String columnName, Object cellValue) {
+            if (columnIndex > 0) resultBuilder.append(',');
+            if (cellValue != null) {
+                appendCsvField(resultBuilder, cellValue.toString());
+            }
+        }
+    }
+
+    private static final class TsvRenderer extends RowRenderer {
+        @Override
+        void appendHeader(StringBuilder resultBuilder, List<String> columnNames) {
+            for (int i = 0; i < columnNames.size(); i++) {
+                if (i > 0) resultBuilder.append('\t');
+                appendTsvField(resultBuilder, columnNames.get(i));
+            }
+            resultBuilder.append('\n');
+        }
+
+        @Override
+        void appendCell(StringBuilder resultBuilder, int columnIndex, String columnName, Object cellValue) {
+            if (columnIndex > 0) resultBuilder.append('\t');
+            if (cellValue == null) {
+                resultBuilder.append("\\N");
+            } else {
+                appendTsvField(resultBuilder, cellValue.toString());
+            }
+        }
+    }
+
+    private static final class JsonLinesRenderer extends RowRenderer {
+        @Override
+        void appendCell(StringBuilder resultBuilder, int columnIndex, String columnName, Object cellValue) {
+            resultBuilder.append(columnIndex == 0 ? '{' : ',');
+            appendJsonString(resultBuilder, columnName);
+            resultBuilder.append(':');
+            if (cellValue == null) {
+                resultBuilder.append("null");
+            } else if (cellValue instanceof Boolean || isFiniteNumber(cellValue)) {
+                resultBuilder.append(cellValue);
+            } else {
+                appendJsonString(resultBuilder, cellValue.toString());
+            }
+        }
+
+        @Override
+        public int cellOverhead(String columnName) {
+            // Quoted key, colon, separator and the quotes of a string value
+            return columnName.length() + 6;
+        }
+
+        @Override
+        void appendRowEnd(StringBuilder resultBuilder, int columnCount) {
+            resultBuilder.append(columnCount == 0 ? "{}\n" : "}\n");
+        }
+    }
+
+    private static final class MarkdownRenderer extends RowRenderer {
+        @Override
+        void appendHeader(StringBuilder resultBuilder, List<String> columnNames) {
+            for (String columnName : columnNames) {
+                resultBuilder.append("| ");
+                appendMarkdownCell(resultBuilder, columnName);
+                resultBuilder.append(' ');
+            }
+            resultBuilder.append("|\n");
+            resultBuilder.append("|---".repeat(columnNames.size())).append("|\n");
+        }
+
+        @Override
+        void appendCell(StringBuilder resultBuilder, int columnIndex, String columnName, Object cellValue) {
+            resultBuilder.append("| ");
+            appendMarkdownCell(resultBuilder, cellValue == null ? "NULL" : cellValue.toString());
+            resultBuilder.append(' ');
+        }
+
+        @Override
+        void appendRowEnd(StringBuilder resultBuilder, int columnCount) {
+            resultBuilder.append("|\n");
+        }
+    }
+
+    /**
+     * Returns the value to write for a cell: null for SQL NULL, the value itself for non-text
+     * values and the sanitized text for everything else.
+     */
+    private static Object sanitizeCell(Object columnValue, ColumnarRows columnarRows, int columnIndex) {
+        if (columnValue == null) {
+            return null;
+        }
+        boolean textValue = columnarRows != null && columnIndex < columnarRows.columnCount()
+                ? columnarRows.isText(columnIndex) : !SecurityUtils.isNonTextValue(columnValue);
+        return textValue ? SecurityUtils.sanitizeValue(columnValue) : columnValue;
+    }
+
+    private static boolean isFiniteNumber(Object cellValue) {
+        if (cellValue instanceof Double doubleValue) {
+            return Double.isFinite(doubleValue);
+        }
+        if (cellValue instanceof Float floatValue) {
+            return Float.isFinite(floatValue);
+        }
+        return cellValue instanceof Number;
+    }
+
+    private static void appendCsvField(StringBuilder resultBuilder, String fieldValue) {
+        boolean needsQuotes = fieldValue.isEmpty();
+        for (int i = 0; i < fieldValue.length() && !needsQuotes; i++) {
+            char fieldChar = fieldValue.charAt(i);
+            needsQuotes = fieldChar == ',' || fieldChar == '"' || fieldChar == '\n' || fieldChar == '\r';
+        }
+        if (!needsQuotes) {
+            resultBuilder.append(fieldValue);
+            return;
+        }
+        resultBuilder.append('"');
+        for (int i = 0; i < fieldValue.length(); i++) {
+            char fieldChar = fieldValue.charAt(i);
+            if (fieldChar == '"') {
+                resultBuilder.append('"');
+            }
+            resultBuilder.append(fieldChar);
+        }
+        resultBuilder.append('"');
+    }
+
+    private static void appendTsvField(StringBuilder resultBuilder, String fieldValue) {
+        for (int i = 0; i < fieldValue.length(); i++) {
+            char fieldChar = fieldValue.charAt(i);
+            switch (fieldChar) {
+                case '\t' -> resultBuilder.append("\\t");
+                case '\n' -> resultBuilder.append("\\n");
+                case '\r' -> resultBuilder.append("\\r");
+                case '\\' -> resultBuilder.append("\\\\");
+                default -> resultBuilder.append(fieldChar);
+            }
+        }
+    }
+
+    private static void appendMarkdownCell(StringBuilder resultBuilder, String cellText) {
+        for (int i = 0; i < cellText.length(); i++) {
+            char cellChar = cellText.charAt(i);
+            switch (cellChar) {
+                case '|' -> resultBuilder.append("\\|");
+                case '\n' -> resultBuilder.append("<br>");
+                case '\r' -> { }
+                default -> resultBuilder.append(cellChar);
+            }
+        }
+    }
+
+    private static void appendJsonString(StringBuilder resultBuilder, String stringValue) {
+        resultBuilder.append('"');
+        for (int i = 0; i < stringValue.length(); i++) {
+            char stringChar = stringValue.charAt(i);
+            switch (stringChar) {
+                case '"' -> resultBuilder.append("\\\"");
+                case '\\' -> resultBuilder.append("\\\\");
+                case '\n' -> resultBuilder.append("\\n");
+                case '\r' -> resultBuilder.append("\\r");
+                case '\t' -> resultBuilder.append("\\t");
+                default -> {
+                    if (stringChar < 0x20) {
+                        resultBuilder.append(String.format("\\u%04x", (int) stringChar));
+                    } else {
+                        resultBuilder.append(stringChar);
+                    }
+                }
+            }
+        }
+        resultBuilder.append('"');
+    }
+}
@@ -1,6 +1,9 @@
 package com.skanga.mcp;
 
-import java.util.regex.Pattern;
+import java.time.temporal.TemporalAccessor;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
 
 /**
  * Utility class for security-related operations including content sanitization and validation.
@@ -9,9 +12,19 @@ import java.util.regex.Pattern;
  */
 public final class SecurityUtils {
     
-    // Pre-compiled regex patterns for performance
-    // Optimized: Removed leading/trailing .* to prevent backtracking, uses word boundaries for precision
-    private static final Pattern INSTRUCTION_PATTERN = Pattern.compile("\\b(?:act as|pretend to be|you are now)\\b");
+    // Instruction-like patterns, matched case-insensitively in one pass over each value
+    private static final InstructionMatcher INSTRUCTION_MATCHER = new InstructionMatcher(
+            List.of("ignore", "forget", "system:", "assistant:", "user:"),
+            List.of("</instructions>", "<instructions>", "prompt:", "execute", "run the following",
+                    "new instructions", "override", "jailbreak", "roleplay"),
+            List.of("act as", "pretend to be", "you are now"));
+
+    // Text longer than this is replaced by the prefix and a preview of its leading characters
+    static final int LONG_CONTENT_LENGTH = 500;
+    static final int LONG_CONTENT_PREVIEW_LENGTH = 200;
+    static final String LONG_CONTENT_PREFIX = "[LONG CONTENT]: ";
+    // Appended by truncateString to a shortened string
+    static final String TRUNCATED_SUFFIX = "...";
     
     private SecurityUtils() {
         // Utility class - prevent instantiation
@@ -20,6 +33,7 @@ public final class SecurityUtils {
     /**
      * Sanitizes individual values to prevent injection and mark potentially dangerous content.
      * Detects instruction-like patterns and excessively long content that might hide malicious instructions.
+     * Numbers, booleans, dates, times and UUIDs cannot carry instructions and are not scanned.
      *
      * @param inputValue The value to sanitize (can be null)
      * @return Sanitized string with security markers if suspicious content is detected
@@ -31,41 +45,32 @@ public final class SecurityUtils {
 
         String stringValue = inputValue.toString();
 
-        // Detect and mark potentially dangerous content
-        String lowerValue = stringValue.toLowerCase().trim();
-
-        // Check for instruction-like patterns (optimized for performance)
-        boolean containsInstructions =
-                lowerValue.startsWith("ignore") ||
-                lowerValue.startsWith("forget") ||
-                lowerValue.startsWith("system:") ||
-                lowerValue.startsWith("assistant:") ||
-                lowerValue.startsWith("user:") ||
-                lowerValue.contains("</instructions>") ||
-                lowerValue.contains("<instructions>") ||
-                lowerValue.contains("prompt:") ||
-                lowerValue.contains("execute") ||
-                lowerValue.contains("run the following") ||
-                lowerValue.contains("new instructions") ||
-                lowerValue.contains("override") ||
-                lowerValue.contains("jailbreak") ||
-                lowerValue.contains("roleplay") ||
-                INSTRUCTION_PATTERN.matcher(lowerValue).find(); // Optimized regex usage
-
         // Mark suspicious content
-        if (containsInstructions) {
+        if (!isNonTextValue(inputValue) && INSTRUCTION_MATCHER.matches(stringValue)) {
             return "[FLAGGED CONTENT]: " + truncateString(stringValue, 100);
         }
 
         // Check for excessively long content that might hide instructions
-        if (stringValue.length() > 500) {
-            return "[LONG CONTENT]: " + truncateString(stringValue, 200);
+        if (stringValue.length() > LONG_CONTENT_LENGTH) {
+            return LONG_CONTENT_PREFIX + truncateString(stringValue, LONG_CONTENT_PREVIEW_LENGTH);
         }
 
         // Return original for normal content
         return stringValue;
     }
 
+    /**
+     * Checks whether a value is of a type whose text form cannot contain instructions:
+     * a number, boolean, date, time or UUID.
+     *
+     * @param inputValue The value to check (can be null)
+     * @return true if the value never needs to be scanned
+     */
+    public static boolean isNonTextValue(Object inputValue) {
+        return inputValue instanceof Number || inputValue instanceof Boolean || inputValue instanceof Date ||
+                inputValue instanceof TemporalAccessor || inputValue instanceof UUID;
+    }
+
     /**
      * Sanitizes database identifiers like table names, column names, index names, etc.
      * that might contain malicious content.
@@ -108,6 +113,6 @@ public final class SecurityUtils {
         if (inputString == null || inputString.length() <= maxLength) {
             return inputString;
         }
-        return inputString.substring(0, maxLength) + "...";
+        return inputString.substring(0, maxLength) + TRUNCATED_SUFFIX;
     }
 }
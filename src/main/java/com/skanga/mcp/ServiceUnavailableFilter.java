@@ -0,0 +1,58 @@
+package com.skanga.mcp;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Filter answering 503 Service Unavailable to exchanges the HTTP executor had no capacity for.
+ * Such an exchange runs on the server's dispatcher thread (see {@link McpServer.ServiceUnavailablePolicy}),
+ * so no handler may run for it: even a health check waits for a database connection, which would stop
+ * the dispatcher from accepting connections. The filter is installed on every context.
+ */
+class ServiceUnavailableFilter extends Filter {
+    private static final Logger logger = LoggerFactory.getLogger(ServiceUnavailableFilter.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Override
+    public void doFilter(HttpExchange httpExchange, Chain filterChain) throws IOException {
+        if (!McpServer.ServiceUnavailablePolicy.isRejected()) {
+            filterChain.doFilter(httpExchange);
+            return;
+        }
+
+        // All workers busy and the queue full: answer without touching the database
+        logger.warn("Rejecting HTTP request to {}: all worker threads busy and the request queue is full",
+                httpExchange.getRequestURI().getPath());
+        ObjectNode errorResponse = objectMapper.createObjectNode();
+        errorResponse.put("jsonrpc", "2.0");
+        errorResponse.putNull("id");
+        ObjectNode errorNode = errorResponse.putObject("error");
+        errorNode.put("code", -32603);
+        errorNode.put("message", "Server busy, retry later");
+        byte[] responseBytes = objectMapper.writeValueAsString(errorResponse).getBytes(StandardCharsets.UTF_8);
+
+        try {
+            httpExchange.getResponseHeaders().set("Content-Type", "application/json");
+            httpExchange.getResponseHeaders().set("Retry-After", "1");
+            httpExchange.sendResponseHeaders(503, responseBytes.length);
+            try (OutputStream outputStream = httpExchange.getResponseBody()) {
+                outputStream.write(responseBytes);
+            }
+        } finally {
+            httpExchange.close();
+        }
+    }
+
+    @Override
+    public String description() {
+        return "Answers 503 Service Unavailable when the HTTP executor is saturated";
+    }
+}
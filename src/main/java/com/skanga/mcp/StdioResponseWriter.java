@@ -0,0 +1,114 @@
+package com.skanga.mcp;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.skanga.mcp.db.ResultHold;
+import com.skanga.mcp.metrics.Phase;
+import com.skanga.mcp.metrics.PhaseTimer;
+import com.skanga.mcp.metrics.QueryMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Writes stdio responses from a single thread so that responses of requests processed concurrently
+ * never interleave on stdout. Responses are written in completion order; clients match them by id.
+ * Each response is streamed onto the output as one line of JSON, without building it as a String first.
+ */
+class StdioResponseWriter implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(StdioResponseWriter.class);
+    private static final PendingResponse END_OF_OUTPUT = new PendingResponse(null, null, null);
+
+    private final OutputStream outputStream;
+    private final QueryMetrics queryMetrics;
+    private final BlockingQueue<PendingResponse> pendingResponses = new LinkedBlockingQueue<>();
+    private final Thread writerThread;
+
+    private record PendingResponse(JsonNode responseNode, PhaseTimer phaseTimer, ResultHold resultHold) {
+    }
+
+    /**
+     * @param outputStream Destination of the responses, one JSON document per line
+     * @param queryMetrics Metrics receiving the timings of each written response
+     */
+    StdioResponseWriter(OutputStream outputStream, QueryMetrics queryMetrics) {
+        this.outputStream = outputStream;
+        this.queryMetrics = queryMetrics;
+        this.writerThread = new Thread(this::writeResponses, "dbchat-stdio-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Queues a response for writing.
+     *
+     * @param responseNode The response
+     * @param phaseTimer   Timings of the request, completed with the write time and recorded once written; may be null
+     * @param resultHold   Memory of the query results the response was built from, released once written; may be null
+     */
+    void send(JsonNode responseNode, PhaseTimer phaseTimer, ResultHold resultHold) {
+        pendingResponses.add(new PendingResponse(responseNode, phaseTimer, resultHold));
+    }
+
+    /**
+     * Queues a response for writing without recording timings.
+     */
+    void send(JsonNode responseNode) {
+        send(responseNode, null, null);
+    }
+
+    /**
+     * Writes all responses queued so far and stops the writer thread.
+     */
+    @Override
+    public void close() {
+        pendingResponses.add(END_OF_OUTPUT);
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeResponses() {
+        try {
+            while (true) {
+                PendingResponse pendingResponse = pendingResponses.take();
+                if (pendingResponse == END_OF_OUTPUT) {
+                    return;
+                }
+
+                writeResponse(pendingResponse);
+            }
+        } catch (InterruptedException e) {
+            logger.warn("Stdio writer interrupted, {} responses not written", pendingResponses.size());
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeResponse(PendingResponse pendingResponse) {
+        try {
+            long phaseStart = System.nanoTime();
+            long responseBytes = JsonResponseWriter.write(pendingResponse.responseNode(), outputStream);
+            long serializeEnd = System.nanoTime();
+            outputStream.write('\n');
+            outputStream.flush();
+
+            PhaseTimer phaseTimer = pendingResponse.phaseTimer();
+            if (phaseTimer != null) {
+                phaseTimer.add(Phase.SERIALIZE, serializeEnd - phaseStart);
+                phaseTimer.add(Phase.WRITE, System.nanoTime() - serializeEnd);
+                queryMetrics.record(phaseTimer, responseBytes + 1);
+            }
+        } catch (IOException e) {
+            logger.error("Failed to write response for request {}", pendingResponse.responseNode().path("id"), e);
+        } finally {
+            if (pendingResponse.resultHold() != null) {
+                pendingResponse.resultHold().close();
+            }
+        }
+    }
+}
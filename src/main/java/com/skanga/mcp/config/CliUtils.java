@@ -178,6 +178,8 @@ public class CliUtils {
         System.out.println("  -m, --http_mode=<true|false>   Run in HTTP mode (default: false, uses stdio)");
         System.out.println("  -b, --bind_address=<address>   HTTP bind address (default: localhost)");
         System.out.println("  -p, --http_port=<port>         HTTP port number (default: 8080)");
+        System.out.println("      --http_threads=<num>       HTTP worker threads (default: 0 = 2 x max_connections)");
+        System.out.println("      --http_queue_size=<num>    HTTP requests queued while all threads are busy, then 503 (default: 100)");
         System.out.println();
         System.out.println("DATABASE CONFIGURATION:");
         System.out.println("  -u, --db_url=<url>             Database JDBC URL (default: jdbc:h2:mem:test)");
@@ -197,6 +199,23 @@ public class CliUtils {
         System.out.println("  -s, --select_only=<true|false>     Allow only SELECT queries (default: true)");
         System.out.println("  -M, --max_sql=<chars>              Max SQL query length (default: 10000)");
         System.out.println("  -r, --max_rows_limit=<num>         Max rows returned (default: 10000)");
+        System.out.println("      --fetch_size=<rows>            Rows per driver fetch when streaming (default: 0 = auto)");
+        System.out.println("      --statement_cache_size=<num>   Driver prepared statement cache size (default: 64, 0 = off)");
+        System.out.println("      --result_cache=<auto|on|off>   Cache identical query results (default: auto = when select_only)");
+        System.out.println("      --result_cache_ttl_seconds=<sec>  Cached result lifetime (default: 60)");
+        System.out.println("      --result_cache_max_mb=<mb>     Result cache memory bound (default: 32)");
+        System.out.println("      --max_open_cursors=<num>       Result cursors held open for fetch_rows (default: 4)");
+        System.out.println("      --cursor_idle_timeout_seconds=<sec>  Idle time before a cursor is closed (default: 300)");
+        System.out.println("      --output_format=<format>       Result format: table, csv, tsv, jsonl, markdown (default: table)");
+        System.out.println("      --max_result_bytes=<num>       Byte budget for rendered results, 0 = unlimited (default: 1048576)");
+        System.out.println("      --lob_preview_chars=<num>      Characters read from LOB and long text columns, 0 = all (default: 1000)");
+        System.out.println("      --query_memory_mb=<num>        Memory budget per query result in MB, 0 = unlimited (default: 64)");
+        System.out.println("      --total_query_memory_mb=<num>  Memory budget shared by concurrent queries in MB, 0 = unlimited (default: 256)");
+        System.out.println("      --http_compression_min_bytes=<num> Compress HTTP responses from this size, 0 = off (default: 1024)");
+        System.out.println("      --schema_cache_ttl_seconds=<num>   Reload cached schema metadata after this many seconds, 0 = off (default: 300)");
+        System.out.println("      --metadata_parallelism=<num>       Connections used to read table metadata in parallel, 0 = sequential (default: 4)");
+        System.out.println("      --exact_row_count_timeout_seconds=<num> Also count table rows exactly, within this many seconds, 0 = off (default: 0)");
+        System.out.println("      --resource_page_size=<num>         Resources per resources/list page, 0 = no paging (default: 500)");
         System.out.println();
         System.out.println("EXAMPLES:");
         System.out.println("  # Different argument formats (all equivalent):");
@@ -397,6 +416,25 @@ public class CliUtils {
         String idleTimeoutMs = getConfigValue("IDLE_TIMEOUT_MS", "600000", cliArgs, fileConfig);
         String maxLifetimeMs = getConfigValue("MAX_LIFETIME_MS", "1800000", cliArgs, fileConfig);
         String leakDetectionThresholdMs = getConfigValue("LEAK_DETECTION_THRESHOLD_MS", "20000", cliArgs, fileConfig);
+        String fetchSize = getConfigValue("FETCH_SIZE", "0", cliArgs, fileConfig);
+        String statementCacheSize = getConfigValue("STATEMENT_CACHE_SIZE", "64", cliArgs, fileConfig);
+        String resultCacheMode = getConfigValue("RESULT_CACHE", "auto", cliArgs, fileConfig);
+        String resultCacheTtlSeconds = getConfigValue("RESULT_CACHE_TTL_SECONDS", "60", cliArgs, fileConfig);
+        String resultCacheMaxMb = getConfigValue("RESULT_CACHE_MAX_MB", "32", cliArgs, fileConfig);
+        String maxOpenCursors = getConfigValue("MAX_OPEN_CURSORS", "4", cliArgs, fileConfig);
+        String cursorIdleTimeoutSeconds = getConfigValue("CURSOR_IDLE_TIMEOUT_SECONDS", "300", cliArgs, fileConfig);
+        String httpThreads = getConfigValue("HTTP_THREADS", "0", cliArgs, fileConfig);
+        String httpQueueSize = getConfigValue("HTTP_QUEUE_SIZE", "100", cliArgs, fileConfig);
+        String outputFormat = getConfigValue("OUTPUT_FORMAT", "table", cliArgs, fileConfig);
+        String maxResultBytes = getConfigValue("MAX_RESULT_BYTES", "1048576", cliArgs, fileConfig);
+        String lobPreviewChars = getConfigValue("LOB_PREVIEW_CHARS", "1000", cliArgs, fileConfig);
+        String queryMemoryMb = getConfigValue("QUERY_MEMORY_MB", "64", cliArgs, fileConfig);
+        String totalQueryMemoryMb = getConfigValue("TOTAL_QUERY_MEMORY_MB", "256", cliArgs, fileConfig);
+        String httpCompressionMinBytes = getConfigValue("HTTP_COMPRESSION_MIN_BYTES", "1024", cliArgs, fileConfig);
+        String schemaCacheTtlSeconds = getConfigValue("SCHEMA_CACHE_TTL_SECONDS", "300", cliArgs, fileConfig);
+        String metadataParallelism = getConfigValue("METADATA_PARALLELISM", "4", cliArgs, fileConfig);
+        String exactRowCountTimeoutSeconds = getConfigValue("EXACT_ROW_COUNT_TIMEOUT_SECONDS", "0", cliArgs, fileConfig);
+        String resourcePageSize = getConfigValue("RESOURCE_PAGE_SIZE", "500", cliArgs, fileConfig);
 
         try {
             return new ConfigParams(dbUrl, dbUser, dbPassword, dbDriver,
@@ -408,7 +446,26 @@ public class CliUtils {
                     parseIntegerConfig("MAX_ROWS_LIMIT", maxRowsLimit),
                     parseIntegerConfig("IDLE_TIMEOUT_MS", idleTimeoutMs),
                     parseIntegerConfig("MAX_LIFETIME_MS", maxLifetimeMs),
-                    parseIntegerConfig("LEAK_DETECTION_THRESHOLD_MS", leakDetectionThresholdMs));
+                    parseIntegerConfig("LEAK_DETECTION_THRESHOLD_MS", leakDetectionThresholdMs),
+                    parseIntegerConfig("FETCH_SIZE", fetchSize),
+                    parseIntegerConfig("STATEMENT_CACHE_SIZE", statementCacheSize),
+                    resultCacheMode,
+                    parseIntegerConfig("RESULT_CACHE_TTL_SECONDS", resultCacheTtlSeconds),
+                    parseIntegerConfig("RESULT_CACHE_MAX_MB", resultCacheMaxMb),
+                    parseIntegerConfig("MAX_OPEN_CURSORS", maxOpenCursors),
+                    parseIntegerConfig("CURSOR_IDLE_TIMEOUT_SECONDS", cursorIdleTimeoutSeconds),
+                    parseIntegerConfig("HTTP_THREADS", httpThreads),
+                    parseIntegerConfig("HTTP_QUEUE_SIZE", httpQueueSize),
+                    outputFormat,
+                    parseIntegerConfig("MAX_RESULT_BYTES", maxResultBytes),
+                    parseIntegerConfig("LOB_PREVIEW_CHARS", lobPreviewChars),
+                    parseIntegerConfig("QUERY_MEMORY_MB", queryMemoryMb),
+                    parseIntegerConfig("TOTAL_QUERY_MEMORY_MB", totalQueryMemoryMb),
+                    parseIntegerConfig("HTTP_COMPRESSION_MIN_BYTES", httpCompressionMinBytes),
+                    parseIntegerConfig("SCHEMA_CACHE_TTL_SECONDS", schemaCacheTtlSeconds),
+                    parseIntegerConfig("METADATA_PARALLELISM", metadataParallelism),
+                    parseIntegerConfig("EXACT_ROW_COUNT_TIMEOUT_SECONDS", exactRowCountTimeoutSeconds),
+                    parseIntegerConfig("RESOURCE_PAGE_SIZE", resourcePageSize));
         } catch (IllegalArgumentException e) {
             // Re-throw with additional context about configuration loading
             throw new IllegalArgumentException(
@@ -1,5 +1,9 @@
 package com.skanga.mcp.config;
 
+import com.skanga.mcp.ResultFormat;
+
+import java.util.Set;
+
 /**
  * Database configuration holder that encapsulates all database connection and operational parameters.
  * This record provides immutable configuration with validation and utility methods for database operations.
@@ -17,6 +21,25 @@ package com.skanga.mcp.config;
  * @param idleTimeoutMs Timeout in milliseconds before idle connections are closed
  * @param maxLifetimeMs Maximum lifetime in milliseconds for connections in the pool
  * @param leakDetectionThresholdMs Threshold in milliseconds for detecting connection leaks
+ * @param fetchSize Number of rows fetched per driver round-trip when streaming results (0 = driver-appropriate default)
+ * @param statementCacheSize Size of the JDBC driver's prepared statement cache per connection (0 = disabled)
+ * @param resultCacheMode When to cache query results: "auto" (only when selectOnly is on), "on" or "off"
+ * @param resultCacheTtlSeconds Seconds a cached query result stays valid (0 = result cache disabled)
+ * @param resultCacheMaxMb Upper bound in megabytes for the estimated size of all cached query results
+ * @param maxOpenCursors Maximum result cursors held open for paging with fetch_rows, at most half of maxConnections (0 = cursors disabled)
+ * @param cursorIdleTimeoutSeconds Seconds an unused result cursor stays open before it is closed automatically
+ * @param httpThreads Worker threads handling HTTP requests (0 = twice maxConnections, at least 4)
+ * @param httpQueueSize HTTP requests queued when all worker threads are busy; beyond it requests get 503 Service Unavailable
+ * @param outputFormat Default rendering of query results, the name of a {@link ResultFormat}
+ * @param maxResultBytes Budget in bytes for the rendered rows of one result; wider results are truncated (0 = unlimited)
+ * @param lobPreviewChars Characters read from each CLOB, long text or binary value; longer values are cut at fetch time (0 = read whole values)
+ * @param queryMemoryMb Estimated heap in megabytes one query result may occupy while it is fetched; fetching stops early beyond it (0 = unlimited)
+ * @param totalQueryMemoryMb Estimated heap in megabytes all query results held at the same time may occupy, from the first fetched row until the response is written or a cached result is evicted (0 = unlimited)
+ * @param httpCompressionMinBytes Smallest HTTP response body in bytes that is compressed for clients accepting gzip or deflate (0 = compression disabled)
+ * @param schemaCacheTtlSeconds Seconds the cached schema catalog is used before it is reloaded (0 = schema cache disabled)
+ * @param metadataParallelism Maximum number of pooled connections used at once to read table metadata in parallel (0 = sequential)
+ * @param exactRowCountTimeoutSeconds Seconds an exact COUNT(*) may run when describing a table (0 = only report the statistics-based estimate)
+ * @param resourcePageSize Number of database resources returned per resources/list page (0 = list all resources in one response, as does a disabled schema cache)
  */
 public record ConfigParams(
         String dbUrl,
@@ -31,8 +54,36 @@ public record ConfigParams(
         int maxRowsLimit,
         int idleTimeoutMs,
         int maxLifetimeMs,
-        int leakDetectionThresholdMs
+        int leakDetectionThresholdMs,
+        int fetchSize,
+        int statementCacheSize,
+        String resultCacheMode,
+        int resultCacheTtlSeconds,
+        int resultCacheMaxMb,
+        int maxOpenCursors,
+        int cursorIdleTimeoutSeconds,
+        int httpThreads,
+        int httpQueueSize,
+        String outputFormat,
+        int maxResultBytes,
+        int lobPreviewChars,
+        int queryMemoryMb,
+        int totalQueryMemoryMb,
+        int httpCompressionMinBytes,
+        int schemaCacheTtlSeconds,
+        int metadataParallelism,
+        int exactRowCountTimeoutSeconds,
+        int resourcePageSize
 ) {
+    /** Default fetch size used when streaming query results and no explicit value is configured */
+    public static final int DEFAULT_FETCH_SIZE = 500;
+
+    /** Default size of the driver's prepared statement cache per connection */
+    public static final int DEFAULT_STATEMENT_CACHE_SIZE = 64;
+
+    /** Result cache modes accepted by {@code resultCacheMode} */
+    public static final Set<String> RESULT_CACHE_MODES = Set.of("auto", "on", "off");
+
     // Compact constructor with validation
     public ConfigParams {
         if (dbUrl == null || dbUrl.trim().isEmpty()) {
@@ -80,12 +131,156 @@ public record ConfigParams(
         if (leakDetectionThresholdMs < 0) {
             throw new IllegalArgumentException("Leak detection threshold cannot be negative, got: " + leakDetectionThresholdMs);
         }
+        if (fetchSize < 0) {
+            throw new IllegalArgumentException("Fetch size cannot be negative, got: " + fetchSize);
+        }
+        if (fetchSize > 100000) {
+            throw new IllegalArgumentException("Fetch size too high (max 100000), got: " + fetchSize);
+        }
+        if (statementCacheSize < 0) {
+            throw new IllegalArgumentException("Statement cache size cannot be negative, got: " + statementCacheSize);
+        }
+        if (statementCacheSize > 10000) {
+            throw new IllegalArgumentException("Statement cache size too high (max 10000), got: " + statementCacheSize);
+        }
+        resultCacheMode = resultCacheMode == null || resultCacheMode.isBlank() ? "auto" : resultCacheMode.trim().toLowerCase();
+        if (!RESULT_CACHE_MODES.contains(resultCacheMode)) {
+            throw new IllegalArgumentException("Result cache mode must be one of auto, on, off, got: " + resultCacheMode);
+        }
+        if (resultCacheTtlSeconds < 0) {
+            throw new IllegalArgumentException("Result cache TTL cannot be negative, got: " + resultCacheTtlSeconds);
+        }
+        if (resultCacheTtlSeconds > 86400) { // 1 day max
+            throw new IllegalArgumentException("Result cache TTL too high (max 86400s), got: " + resultCacheTtlSeconds);
+        }
+        if (resultCacheMaxMb < 0) {
+            throw new IllegalArgumentException("Result cache size cannot be negative, got: " + resultCacheMaxMb);
+        }
+        if (resultCacheMaxMb > 4096) {
+            throw new IllegalArgumentException("Result cache size too high (max 4096MB), got: " + resultCacheMaxMb);
+        }
+        if (maxOpenCursors < 0) {
+            throw new IllegalArgumentException("Max open cursors cannot be negative, got: " + maxOpenCursors);
+        }
+        // Every open cursor holds a database connection on top of the pool, so cap them at half of it
+        maxOpenCursors = Math.min(maxOpenCursors, maxConnections / 2);
+        if (cursorIdleTimeoutSeconds <= 0) {
+            throw new IllegalArgumentException("Cursor idle timeout must be positive, got: " + cursorIdleTimeoutSeconds);
+        }
+        if (cursorIdleTimeoutSeconds > 3600) { // 1 hour max
+            throw new IllegalArgumentException("Cursor idle timeout too high (max 3600s), got: " + cursorIdleTimeoutSeconds);
+        }
+        if (httpThreads < 0) {
+            throw new IllegalArgumentException("HTTP threads cannot be negative, got: " + httpThreads);
+        }
+        if (httpThreads > 1000) {
+            throw new IllegalArgumentException("HTTP threads too high (max 1000), got: " + httpThreads);
+        }
+        if (httpQueueSize < 0) {
+            throw new IllegalArgumentException("HTTP queue size cannot be negative, got: " + httpQueueSize);
+        }
+        if (httpQueueSize > 100000) {
+            throw new IllegalArgumentException("HTTP queue size too high (max 100000), got: " + httpQueueSize);
+        }
+        outputFormat = outputFormat == null || outputFormat.isBlank()
+                ? ResultFormat.TABLE.formatName() : ResultFormat.fromName(outputFormat).formatName();
+        if (maxResultBytes < 0) {
+            throw new IllegalArgumentException("Max result bytes cannot be negative, got: " + maxResultBytes);
+        }
+        if (lobPreviewChars < 0) {
+            throw new IllegalArgumentException("LOB preview chars cannot be negative, got: " + lobPreviewChars);
+        }
+        if (queryMemoryMb < 0) {
+            throw new IllegalArgumentException("Query memory budget cannot be negative, got: " + queryMemoryMb);
+        }
+        if (queryMemoryMb > 16384) {
+            throw new IllegalArgumentException("Query memory budget too high (max 16384MB), got: " + queryMemoryMb);
+        }
+        if (totalQueryMemoryMb < 0) {
+            throw new IllegalArgumentException("Total query memory budget cannot be negative, got: " + totalQueryMemoryMb);
+        }
+        if (totalQueryMemoryMb > 65536) {
+            throw new IllegalArgumentException("Total query memory budget too high (max 65536MB), got: " + totalQueryMemoryMb);
+        }
+        if (httpCompressionMinBytes < 0) {
+            throw new IllegalArgumentException("HTTP compression threshold cannot be negative, got: " + httpCompressionMinBytes);
+        }
+        if (schemaCacheTtlSeconds < 0) {
+            throw new IllegalArgumentException("Schema cache TTL cannot be negative, got: " + schemaCacheTtlSeconds);
+        }
+        if (schemaCacheTtlSeconds > 86400) { // 1 day max
+            throw new IllegalArgumentException("Schema cache TTL too high (max 86400s), got: " + schemaCacheTtlSeconds);
+        }
+        if (metadataParallelism < 0) {
+            throw new IllegalArgumentException("Metadata parallelism cannot be negative, got: " + metadataParallelism);
+        }
+        if (metadataParallelism > 32) {
+            throw new IllegalArgumentException("Metadata parallelism too high (max 32), got: " + metadataParallelism);
+        }
+        if (exactRowCountTimeoutSeconds < 0) {
+            throw new IllegalArgumentException("Exact row count timeout cannot be negative, got: " + exactRowCountTimeoutSeconds);
+        }
+        if (exactRowCountTimeoutSeconds > 60) {
+            throw new IllegalArgumentException("Exact row count timeout too high (max 60s), got: " + exactRowCountTimeoutSeconds);
+        }
+        if (resourcePageSize < 0) {
+            throw new IllegalArgumentException("Resource page size cannot be negative, got: " + resourcePageSize);
+        }
+        if (resourcePageSize > 100000) {
+            throw new IllegalArgumentException("Resource page size too high (max 100000), got: " + resourcePageSize);
+        }
         // Logical validation: max lifetime should be longer than idle timeout if both are positive
         if (maxLifetimeMs > 0 && idleTimeoutMs > 0 && maxLifetimeMs <= idleTimeoutMs) {
             throw new IllegalArgumentException("Max lifetime (" + maxLifetimeMs + "ms) must be greater than idle timeout (" + idleTimeoutMs + "ms)");
         }
     }
 
+    /**
+     * Creates a configuration with the core connection and query settings.
+     * Tuning parameters added in later versions use their recommended defaults.
+     *
+     * @param dbUrl The JDBC database URL
+     * @param dbUser The database username
+     * @param dbPass The database password
+     * @param dbDriver The JDBC driver class name
+     * @param maxConnections Maximum number of connections in the connection pool
+     * @param connectionTimeoutMs Timeout in milliseconds for obtaining a connection from the pool
+     * @param queryTimeoutSeconds Timeout in seconds for individual SQL query execution
+     * @param selectOnly Whether to restrict operations to SELECT queries only
+     * @param maxSqlLength Maximum allowed length for SQL queries
+     * @param maxRowsLimit Maximum number of rows that can be returned from a query
+     * @param idleTimeoutMs Timeout in milliseconds before idle connections are closed
+     * @param maxLifetimeMs Maximum lifetime in milliseconds for connections in the pool
+     * @param leakDetectionThresholdMs Threshold in milliseconds for detecting connection leaks
+     * @throws IllegalArgumentException if any parameter is invalid
+     */
+    public ConfigParams(String dbUrl, String dbUser, String dbPass, String dbDriver,
+                        int maxConnections, int connectionTimeoutMs, int queryTimeoutSeconds,
+                        boolean selectOnly, int maxSqlLength, int maxRowsLimit,
+                        int idleTimeoutMs, int maxLifetimeMs, int leakDetectionThresholdMs) {
+        this(dbUrl, dbUser, dbPass, dbDriver, maxConnections, connectionTimeoutMs, queryTimeoutSeconds,
+                selectOnly, maxSqlLength, maxRowsLimit, idleTimeoutMs, maxLifetimeMs, leakDetectionThresholdMs,
+                0,                            // fetchSize (driver-appropriate default)
+                DEFAULT_STATEMENT_CACHE_SIZE, // statementCacheSize
+                "auto",                       // resultCacheMode (only when selectOnly)
+                60,                           // resultCacheTtlSeconds
+                32,                           // resultCacheMaxMb
+                4,                            // maxOpenCursors
+                300,                          // cursorIdleTimeoutSeconds (5 minutes)
+                0,                            // httpThreads (auto)
+                100,                          // httpQueueSize
+                "table",                      // outputFormat
+                1048576,                      // maxResultBytes (1 MB)
+                1000,                         // lobPreviewChars
+                64,                           // queryMemoryMb
+                256,                          // totalQueryMemoryMb
+                1024,                         // httpCompressionMinBytes
+                300,                          // schemaCacheTtlSeconds
+                4,                            // metadataParallelism
+                0,                            // exactRowCountTimeoutSeconds
+                500);                         // resourcePageSize
+    }
+
     /**
      * Creates a default configuration with recommended settings for most use cases.
      * Uses conservative security settings with selectOnly=true and reasonable timeouts.
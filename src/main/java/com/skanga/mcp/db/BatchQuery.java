@@ -0,0 +1,21 @@
+package com.skanga.mcp.db;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One statement of a batch executed by {@link DatabaseService#executeSqlBatch(List, int)}.
+ *
+ * @param sql The SQL text (may contain ? placeholders)
+ * @param params Parameters to bind, or null
+ */
+public record BatchQuery(String sql, List<Object> params) {
+    public BatchQuery {
+        if (sql == null) {
+            throw new IllegalArgumentException("SQL cannot be null");
+        }
+        // Copied without List.copyOf since SQL NULL parameters are allowed
+        params = params == null ? null : Collections.unmodifiableList(new ArrayList<>(params));
+    }
+}
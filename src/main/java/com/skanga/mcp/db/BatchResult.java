@@ -0,0 +1,22 @@
+package com.skanga.mcp.db;
+
+import java.sql.SQLException;
+
+/**
+ * Outcome of one statement in a batch: either its result or the error it failed with.
+ *
+ * @param queryResult The result, or null if the statement failed
+ * @param error The failure, or null if the statement succeeded
+ * @param elapsedMs Wall-clock time spent on the statement including waiting for a connection
+ */
+public record BatchResult(QueryResult queryResult, SQLException error, long elapsedMs) {
+    public BatchResult {
+        if ((queryResult == null) == (error == null)) {
+            throw new IllegalArgumentException("Exactly one of queryResult and error must be set");
+        }
+    }
+
+    public boolean succeeded() {
+        return error == null;
+    }
+}
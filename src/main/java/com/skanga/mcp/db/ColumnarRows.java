@@ -0,0 +1,692 @@
+package com.skanga.mcp.db;
+
+import com.skanga.mcp.SecurityUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.UnaryOperator;
+
+/**
+ * Column-oriented storage for query rows.
+ * INTEGER, BIGINT and DOUBLE columns are kept in primitive arrays with a null bitmap and
+ * character columns are dictionary encoded, so a wide numeric result holds one array per column
+ * instead of one boxed object per cell. Everything else falls back to the value returned by
+ * {@link ResultSet#getObject(int)}.
+ *
+ * <p>The class is a read-only {@code List<List<Object>>} so it can be used anywhere the row
+ * oriented {@link QueryResult#allRows()} is expected. Rows are lightweight views; cell values are
+ * the same types {@code getObject} would have produced.
+ *
+ * <p>Each column also records whether it can contain free text. Numeric, boolean, date/time and UUID
+ * columns are marked as non-text from the result metadata, and an object column is switched back to
+ * text as soon as the driver hands out a value of any other type, so callers can safely skip
+ * scanning non-text columns for injected instructions.
+ *
+ * <p>When built with a LOB preview limit, CLOB, long text and binary columns are streamed with
+ * {@link ResultSet#getCharacterStream(int)} and {@link ResultSet#getBinaryStream(int)} and only the first
+ * characters of each value are fetched, followed by {@link #PREVIEW_MARKER} if the value was longer.
+ * Binary values are returned as a hex string starting with {@code 0x}.
+ */
+public final class ColumnarRows extends AbstractList<List<Object>> {
+    /** Appended to LOB and long text values cut at the preview limit */
+    public static final String PREVIEW_MARKER = "... [truncated]";
+
+    private final Column[] columns;
+    private final int rowCount;
+    // Applied to the text of every text cell read through a view, null to read cells as stored
+    private final UnaryOperator<String> textView;
+
+    private ColumnarRows(Column[] columns, int rowCount) {
+        this(columns, rowCount, null);
+    }
+
+    private ColumnarRows(Column[] columns, int rowCount, UnaryOperator<String> textView) {
+        this.columns = columns;
+        this.rowCount = rowCount;
+        this.textView = textView;
+    }
+
+    /**
+     * Returns a view of the leading rows whose text cells are passed through a function, for example to
+     * shorten them. The view shares the column storage and keeps the text flags of every column; numeric,
+     * boolean, date/time and UUID values are never passed to the function.
+     *
+     * @param rowLimit Number of leading rows to keep
+     * @param textView Function mapping the text of a cell to the text the view returns, null to keep the text
+     * @return the view
+     */
+    public ColumnarRows view(int rowLimit, UnaryOperator<String> textView) {
+        UnaryOperator<String> combinedView = textView;
+        if (this.textView != null) {
+            combinedView = textView == null ? this.textView : cellText -> textView.apply(this.textView.apply(cellText));
+        }
+        return new ColumnarRows(columns, Math.min(rowCount, Math.max(0, rowLimit)), combinedView);
+    }
+
+    @Override
+    public List<Object> get(int rowIndex) {
+        if (rowIndex < 0 || rowIndex >= rowCount) {
+            throw new IndexOutOfBoundsException("Row index " + rowIndex + " out of range 0.." + rowCount);
+        }
+        return new RowView(rowIndex);
+    }
+
+    @Override
+    public int size() {
+        return rowCount;
+    }
+
+    /**
+     * @return the number of columns stored
+     */
+    public int columnCount() {
+        return columns.length;
+    }
+
+    /**
+     * Returns a single cell value, boxing primitive columns on demand.
+     *
+     * @param rowIndex    Zero-based row index
+     * @param columnIndex Zero-based column index
+     * @return the cell value, or null for SQL NULL
+     */
+    public Object getValue(int rowIndex, int columnIndex) {
+        Object cellValue = columns[columnIndex].get(rowIndex);
+        return isViewedText(columnIndex, cellValue) ? textView.apply(cellValue.toString()) : cellValue;
+    }
+
+    /**
+     * Returns the text form of a cell without boxing primitive columns.
+     *
+     * @param rowIndex    Zero-based row index
+     * @param columnIndex Zero-based column index
+     * @return the value as text, or null for SQL NULL
+     */
+    public String getString(int rowIndex, int columnIndex) {
+        if (textView != null && columns[columnIndex].text) {
+            Object cellValue = columns[columnIndex].get(rowIndex);
+            if (isViewedText(columnIndex, cellValue)) {
+                return textView.apply(cellValue.toString());
+            }
+        }
+        return columns[columnIndex].getString(rowIndex);
+    }
+
+    /**
+     * Checks whether a column is stored in a primitive numeric vector.
+     *
+     * @param columnIndex Zero-based column index
+     * @return true for INTEGER, BIGINT and DOUBLE vectors
+     */
+    public boolean isNumeric(int columnIndex) {
+        return columns[columnIndex] instanceof IntColumn
+                || columns[columnIndex] instanceof LongColumn
+                || columns[columnIndex] instanceof DoubleColumn;
+    }
+
+    /**
+     * Checks whether a column is stored in an INTEGER or BIGINT vector, whose cells can be measured
+     * with {@link #getTextLength(int, int)} and written with {@link #appendTo(StringBuilder, int, int)}
+     * without creating a String.
+     *
+     * @param columnIndex Zero-based column index
+     * @return true for INTEGER and BIGINT vectors
+     */
+    public boolean isIntegral(int columnIndex) {
+        return columns[columnIndex] instanceof IntColumn || columns[columnIndex] instanceof LongColumn;
+    }
+
+    /**
+     * Checks whether a column may contain free text and therefore has to be sanitized.
+     *
+     * @param columnIndex Zero-based column index
+     * @return false only for numeric, boolean, date/time and UUID columns whose values all have such types
+     */
+    public boolean isText(int columnIndex) {
+        return columns[columnIndex].text;
+    }
+
+    /**
+     * Returns the length of a cell's text form.
+     *
+     * @param rowIndex    Zero-based row index
+     * @param columnIndex Zero-based column index
+     * @return the number of characters {@link #getString(int, int)} would return, or -1 for SQL NULL
+     */
+    public int getTextLength(int rowIndex, int columnIndex) {
+        if (textView != null && columns[columnIndex].text) {
+            String cellText = getString(rowIndex, columnIndex);
+            return cellText == null ? -1 : cellText.length();
+        }
+        return columns[columnIndex].textLength(rowIndex);
+    }
+
+    /**
+     * Appends the text form of a cell.
+     *
+     * @param textBuilder Builder to append to
+     * @param rowIndex    Zero-based row index
+     * @param columnIndex Zero-based column index
+     * @return false if the cell is SQL NULL, in which case nothing is appended
+     */
+    public boolean appendTo(StringBuilder textBuilder, int rowIndex, int columnIndex) {
+        if (textView != null && columns[columnIndex].text) {
+            String cellText = getString(rowIndex, columnIndex);
+            if (cellText == null) {
+                return false;
+            }
+            textBuilder.append(cellText);
+            return true;
+        }
+        return columns[columnIndex].appendTo(textBuilder, rowIndex);
+    }
+
+    private boolean isViewedText(int columnIndex, Object cellValue) {
+        return textView != null && cellValue != null && columns[columnIndex].text
+                && !SecurityUtils.isNonTextValue(cellValue);
+    }
+
+    private final class RowView extends AbstractList<Object> {
+        private final int rowIndex;
+
+        private RowView(int rowIndex) {
+            this.rowIndex = rowIndex;
+        }
+
+        @Override
+        public Object get(int columnIndex) {
+            return getValue(rowIndex, columnIndex);
+        }
+
+        @Override
+        public int size() {
+            return columns.length;
+        }
+    }
+
+    /**
+     * Row handler that reads a result set into column vectors chosen from the result metadata.
+     * Call {@link #build()} once the query has finished to obtain the rows.
+     */
+    public static final class Builder implements RowHandler {
+        private final int lobPreviewChars;
+        private Column[] columns = new Column[0];
+        private int rowCount;
+        private boolean started;
+
+        /**
+         * Creates a builder that reads every value in full.
+         */
+        public Builder() {
+            this(0);
+        }
+
+        /**
+         * @param lobPreviewChars Characters to fetch from each LOB or long text value; 0 reads whole values
+         */
+        public Builder(int lobPreviewChars) {
+            this.lobPreviewChars = lobPreviewChars;
+        }
+
+        @Override
+        public void onColumns(List<String> columnNames, ResultSetMetaData metaData) throws SQLException {
+            columns = new Column[columnNames.size()];
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = createColumn(metaData, i + 1, lobPreviewChars);
+            }
+            started = true;
+        }
+
+        @Override
+        public boolean onRow(ResultSet resultSet) throws SQLException {
+            for (int i = 0; i < columns.length; i++) {
+                columns[i].read(resultSet, i + 1, rowCount);
+            }
+            rowCount++;
+            return true;
+        }
+
+        /**
+         * @return true once column metadata has been received, i.e. the statement produced a result set
+         */
+        public boolean isStarted() {
+            return started;
+        }
+
+        /**
+         * Estimates the heap taken by the rows collected so far, for memory budgeting.
+         * Values shared through a column dictionary are counted once.
+         *
+         * @return estimated size in bytes
+         */
+        public long estimatedBytes() {
+            long sizeBytes = 0;
+            for (Column column : columns) {
+                sizeBytes += column.retainedBytes;
+            }
+            return sizeBytes;
+        }
+
+        @Override
+        public long retainedBytes() {
+            return estimatedBytes();
+        }
+
+        /**
+         * @return the collected rows
+         */
+        public ColumnarRows build() {
+            return new ColumnarRows(columns, rowCount);
+        }
+
+        /**
+         * Picks a storage vector for a column. The JDBC type selects the candidate and the
+         * reported Java class confirms it, so drivers that map e.g. unsigned INT to Long keep
+         * returning exactly what getObject would. With a preview limit, LOB, long text and
+         * binary columns are streamed instead so that only the preview is fetched.
+         */
+        private static Column createColumn(ResultSetMetaData metaData, int column, int lobPreviewChars) throws SQLException {
+            int sqlType = metaData.getColumnType(column);
+            String className = metaData.getColumnClassName(column);
+            if (lobPreviewChars > 0) {
+                Column previewColumn = createPreviewColumn(metaData, column, sqlType, className, lobPreviewChars);
+                if (previewColumn != null) {
+                    return previewColumn;
+                }
+            }
+
+            Column storageColumn = switch (sqlType) {
+                case Types.INTEGER -> Integer.class.getName().equals(className)
+                        ? new IntColumn() : new ObjectColumn();
+                case Types.BIGINT -> Long.class.getName().equals(className)
+                        ? new LongColumn() : new ObjectColumn();
+                case Types.DOUBLE, Types.FLOAT -> Double.class.getName().equals(className)
+                        ? new DoubleColumn() : new ObjectColumn();
+                case Types.CHAR, Types.VARCHAR, Types.NCHAR, Types.NVARCHAR -> String.class.getName().equals(className)
+                        ? new StringColumn() : new ObjectColumn();
+                default -> new ObjectColumn();
+            };
+            storageColumn.text = storageColumn instanceof StringColumn || !isNonTextType(sqlType, className);
+            return storageColumn;
+        }
+
+        /**
+         * Picks a streaming column for LOB and long text columns, or returns null for all other columns.
+         * Character columns count as long when their declared size exceeds the preview; binary columns
+         * only when the driver maps them to byte arrays, since some map UUIDs to BINARY.
+         */
+        private static Column createPreviewColumn(ResultSetMetaData metaData, int column, int sqlType,
+                                                  String className, int lobPreviewChars) throws SQLException {
+            return switch (sqlType) {
+                case Types.CLOB, Types.NCLOB, Types.LONGVARCHAR, Types.LONGNVARCHAR -> new StringColumn(lobPreviewChars);
+                case Types.CHAR, Types.VARCHAR, Types.NCHAR, Types.NVARCHAR ->
+                        metaData.getPrecision(column) > lobPreviewChars ? new StringColumn(lobPreviewChars) : null;
+                case Types.BLOB -> new BinaryColumn(lobPreviewChars);
+                case Types.BINARY, Types.VARBINARY, Types.LONGVARBINARY ->
+                        byte[].class.getName().equals(className) ? new BinaryColumn(lobPreviewChars) : null;
+                default -> null;
+            };
+        }
+
+        private static boolean isNonTextType(int sqlType, String className) {
+            return switch (sqlType) {
+                case Types.TINYINT, Types.SMALLINT, Types.INTEGER, Types.BIGINT, Types.REAL, Types.FLOAT,
+                     Types.DOUBLE, Types.NUMERIC, Types.DECIMAL, Types.BOOLEAN, Types.DATE, Types.TIME,
+                     Types.TIMESTAMP, Types.TIME_WITH_TIMEZONE, Types.TIMESTAMP_WITH_TIMEZONE -> true;
+                default -> UUID.class.getName().equals(className);
+            };
+        }
+    }
+
+    private abstract static class Column {
+        static final int INITIAL_CAPACITY = 16;
+
+        final BitSet nulls = new BitSet();
+        boolean text = true;
+        // Estimated heap held by the values read so far
+        long retainedBytes;
+
+        abstract void read(ResultSet resultSet, int column, int rowIndex) throws SQLException;
+
+        abstract Object get(int rowIndex);
+
+        abstract String getString(int rowIndex);
+
+        int textLength(int rowIndex) {
+            String value = getString(rowIndex);
+            return value == null ? -1 : value.length();
+        }
+
+        boolean appendTo(StringBuilder textBuilder, int rowIndex) {
+            String value = getString(rowIndex);
+            if (value == null) {
+                return false;
+            }
+            textBuilder.append(value);
+            return true;
+        }
+
+        /**
+         * Rough heap footprint of a boxed value and the reference to it.
+         */
+        static long estimateValueBytes(Object value) {
+            if (value == null) {
+                return 8;
+            }
+            if (value instanceof CharSequence text) {
+                return 48 + 2L * text.length();
+            }
+            if (value instanceof byte[] bytes) {
+                return 24 + bytes.length;
+            }
+            return 32;
+        }
+
+        static int grow(int currentLength, int rowIndex) {
+            return Math.max(currentLength * 2, rowIndex + 1);
+        }
+
+        /**
+         * Number of characters in the decimal form of a value, including the minus sign.
+         */
+        static int decimalLength(long value) {
+            if (value == Long.MIN_VALUE) {
+                return 20;
+            }
+            int length = value < 0 ? 2 : 1;
+            long remaining = Math.abs(value);
+            while (remaining >= 10) {
+                remaining /= 10;
+                length++;
+            }
+            return length;
+        }
+    }
+
+    private static final class IntColumn extends Column {
+        private int[] values = new int[INITIAL_CAPACITY];
+
+        @Override
+        void read(ResultSet resultSet, int column, int rowIndex) throws SQLException {
+            if (rowIndex >= values.length) {
+                values = Arrays.copyOf(values, grow(values.length, rowIndex));
+            }
+            values[rowIndex] = resultSet.getInt(column);
+            retainedBytes += Integer.BYTES;
+            if (resultSet.wasNull()) {
+                nulls.set(rowIndex);
+            }
+        }
+
+        @Override
+        Object get(int rowIndex) {
+            return nulls.get(rowIndex) ? null : values[rowIndex];
+        }
+
+        @Override
+        String getString(int rowIndex) {
+            return nulls.get(rowIndex) ? null : Integer.toString(values[rowIndex]);
+        }
+
+        @Override
+        int textLength(int rowIndex) {
+            return nulls.get(rowIndex) ? -1 : decimalLength(values[rowIndex]);
+        }
+
+        @Override
+        boolean appendTo(StringBuilder textBuilder, int rowIndex) {
+            if (nulls.get(rowIndex)) {
+                return false;
+            }
+            textBuilder.append(values[rowIndex]);
+            return true;
+        }
+    }
+
+    private static final class LongColumn extends Column {
+        private long[] values = new long[INITIAL_CAPACITY];
+
+        @Override
+        void read(ResultSet resultSet, int column, int rowIndex) throws SQLException {
+            if (rowIndex >= values.length) {
+                values = Arrays.copyOf(values, grow(values.length, rowIndex));
+            }
+            values[rowIndex] = resultSet.getLong(column);
+            retainedBytes += Long.BYTES;
+            if (resultSet.wasNull()) {
+                nulls.set(rowIndex);
+            }
+        }
+
+        @Override
+        Object get(int rowIndex) {
+            return nulls.get(rowIndex) ? null : values[rowIndex];
+        }
+
+        @Override
+        String getString(int rowIndex) {
+            return nulls.get(rowIndex) ? null : Long.toString(values[rowIndex]);
+        }
+
+        @Override
+        int textLength(int rowIndex) {
+            return nulls.get(rowIndex) ? -1 : decimalLength(values[rowIndex]);
+        }
+
+        @Override
+        boolean appendTo(StringBuilder textBuilder, int rowIndex) {
+            if (nulls.get(rowIndex)) {
+                return false;
+            }
+            textBuilder.append(values[rowIndex]);
+            return true;
+        }
+    }
+
+    private static final class DoubleColumn extends Column {
+        private double[] values = new double[INITIAL_CAPACITY];
+
+        @Override
+        void read(ResultSet resultSet, int column, int rowIndex) throws SQLException {
+            if (rowIndex >= values.length) {
+                values = Arrays.copyOf(values, grow(values.length, rowIndex));
+            }
+            values[rowIndex] = resultSet.getDouble(column);
+            retainedBytes += Double.BYTES;
+            if (resultSet.wasNull()) {
+                nulls.set(rowIndex);
+            }
+        }
+
+        @Override
+        Object get(int rowIndex) {
+            return nulls.get(rowIndex) ? null : values[rowIndex];
+        }
+
+        @Override
+        String getString(int rowIndex) {
+            return nulls.get(rowIndex) ? null : Double.toString(values[rowIndex]);
+        }
+    }
+
+    /**
+     * Dictionary-encoded text column: repeated strings are stored once and rows hold an index.
+     * Only the first {@link #MAX_DICTIONARY_LOOKUP} distinct values are deduplicated so that
+     * high-cardinality columns do not pay for a large hash map.
+     */
+    private static final class StringColumn extends Column {
+        private static final int MAX_DICTIONARY_LOOKUP = 1024;
+
+        private final Map<String, Integer> dictionaryIndex = new HashMap<>();
+        private final List<String> dictionary = new ArrayList<>();
+        private final int previewChars;
+        private char[] previewBuffer;
+        private int[] codes = new int[INITIAL_CAPACITY];
+
+        private StringColumn() {
+            this(0);
+        }
+
+        /**
+         * @param previewChars Characters to stream from each value, or 0 to read values with getString
+         */
+        private StringColumn(int previewChars) {
+            this.previewChars = previewChars;
+        }
+
+        @Override
+        void read(ResultSet resultSet, int column, int rowIndex) throws SQLException {
+            if (rowIndex >= codes.length) {
+                codes = Arrays.copyOf(codes, grow(codes.length, rowIndex));
+            }
+            String value = previewChars > 0 ? readPreview(resultSet, column) : resultSet.getString(column);
+            retainedBytes += Integer.BYTES;
+            if (value == null) {
+                nulls.set(rowIndex);
+                return;
+            }
+            Integer code = dictionaryIndex.get(value);
+            if (code == null) {
+                code = dictionary.size();
+                dictionary.add(value);
+                retainedBytes += estimateValueBytes(value);
+                if (dictionaryIndex.size() < MAX_DICTIONARY_LOOKUP) {
+                    dictionaryIndex.put(value, code);
+                }
+            }
+            codes[rowIndex] = code;
+        }
+
+        @Override
+        Object get(int rowIndex) {
+            return getString(rowIndex);
+        }
+
+        @Override
+        String getString(int rowIndex) {
+            return nulls.get(rowIndex) ? null : dictionary.get(codes[rowIndex]);
+        }
+
+        private String readPreview(ResultSet resultSet, int column) throws SQLException {
+            Reader valueReader = resultSet.getCharacterStream(column);
+            if (valueReader == null) {
+                return null;
+            }
+            if (previewBuffer == null) {
+                previewBuffer = new char[previewChars + 1];
+            }
+            // One character more than the preview tells whether the value was cut
+            int charsRead = 0;
+            try (valueReader) {
+                while (charsRead < previewBuffer.length) {
+                    int readCount = valueReader.read(previewBuffer, charsRead, previewBuffer.length - charsRead);
+                    if (readCount < 0) {
+                        break;
+                    }
+                    charsRead += readCount;
+                }
+            } catch (IOException e) {
+                throw new SQLException("Failed to read column " + column, e);
+            }
+            return charsRead > previewChars
+                    ? new String(previewBuffer, 0, previewChars) + PREVIEW_MARKER
+                    : new String(previewBuffer, 0, charsRead);
+        }
+    }
+
+    /**
+     * Binary column streamed with getBinaryStream and kept as a hex preview of its first bytes.
+     */
+    private static final class BinaryColumn extends Column {
+        private static final HexFormat HEX_FORMAT = HexFormat.of();
+
+        private final int previewBytes;
+        private byte[] previewBuffer;
+        private String[] values = new String[INITIAL_CAPACITY];
+
+        /**
+         * @param previewChars Length of the hex preview; each byte takes two characters
+         */
+        private BinaryColumn(int previewChars) {
+            this.previewBytes = Math.max(1, previewChars / 2);
+            this.text = false;
+        }
+
+        @Override
+        void read(ResultSet resultSet, int column, int rowIndex) throws SQLException {
+            if (rowIndex >= values.length) {
+                values = Arrays.copyOf(values, grow(values.length, rowIndex));
+            }
+            InputStream valueStream = resultSet.getBinaryStream(column);
+            if (valueStream == null) {
+                retainedBytes += estimateValueBytes(null);
+                return;
+            }
+            if (previewBuffer == null) {
+                previewBuffer = new byte[previewBytes + 1];
+            }
+            int bytesRead;
+            try (valueStream) {
+                bytesRead = valueStream.readNBytes(previewBuffer, 0, previewBuffer.length);
+            } catch (IOException e) {
+                throw new SQLException("Failed to read column " + column, e);
+            }
+            values[rowIndex] = "0x" + HEX_FORMAT.formatHex(previewBuffer, 0, Math.min(bytesRead, previewBytes))
+                    + (bytesRead > previewBytes ? PREVIEW_MARKER : "");
+            retainedBytes += estimateValueBytes(values[rowIndex]);
+        }
+
+        @Override
+        Object get(int rowIndex) {
+            return values[rowIndex];
+        }
+
+        @Override
+        String getString(int rowIndex) {
+            return values[rowIndex];
+        }
+    }
+
+    private static final class ObjectColumn extends Column {
+        private Object[] values = new Object[INITIAL_CAPACITY];
+
+        @Override
+        void read(ResultSet resultSet, int column, int rowIndex) throws SQLException {
+            if (rowIndex >= values.length) {
+                values = Arrays.copyOf(values, grow(values.length, rowIndex));
+            }
+            Object value = resultSet.getObject(column);
+            values[rowIndex] = value;
+            retainedBytes += estimateValueBytes(value);
+            if (!text && value != null && !SecurityUtils.isNonTextValue(value)) {
+                // The driver returned something other than the metadata promised, e.g. SQLite text in a DATE column
+                text = true;
+            }
+        }
+
+        @Override
+        Object get(int rowIndex) {
+            return values[rowIndex];
+        }
+
+        @Override
+        String getString(int rowIndex) {
+            Object value = values[rowIndex];
+            return value == null ? null : value.toString();
+        }
+    }
+}
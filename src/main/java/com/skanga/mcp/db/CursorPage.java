@@ -0,0 +1,19 @@
+package com.skanga.mcp.db;
+
+/**
+ * One page of rows read from a server-side result cursor.
+ *
+ * @param cursorId Identifier to pass to the next fetch, or null if the cursor is closed
+ * @param page The rows of this page with column names and timing
+ * @param hasMore Whether further rows can be fetched with the cursor id
+ */
+public record CursorPage(String cursorId, QueryResult page, boolean hasMore) {
+    public CursorPage {
+        if (page == null) {
+            throw new IllegalArgumentException("Page cannot be null");
+        }
+        if (hasMore && cursorId == null) {
+            throw new IllegalArgumentException("Cursor id is required when more rows are available");
+        }
+    }
+}
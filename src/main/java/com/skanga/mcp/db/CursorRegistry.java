@@ -0,0 +1,270 @@
+package com.skanga.mcp.db;
+
+import com.skanga.mcp.config.ResourceManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps query result sets open between tool calls so large results can be read page by page.
+ * Each cursor pins one connection from the cursor pool, so the number of open cursors is bounded and
+ * cursors that are not fetched from within the idle timeout are closed by a background reaper.
+ */
+class CursorRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(CursorRegistry.class);
+
+    private final int maxOpenCursors;
+    private final long idleTimeoutMillis;
+    private final int lobPreviewChars;
+    private final Semaphore cursorPermits;
+    private final Map<String, ResultCursor> openCursors = new ConcurrentHashMap<>();
+    private ScheduledExecutorService idleReaper;
+
+    /**
+     * @param maxOpenCursors     Maximum cursors open at the same time
+     * @param idleTimeoutSeconds Idle time after which a cursor is closed
+     * @param lobPreviewChars    Characters fetched from each LOB or long text value, 0 for whole values
+     */
+    CursorRegistry(int maxOpenCursors, int idleTimeoutSeconds, int lobPreviewChars) {
+        this.maxOpenCursors = maxOpenCursors;
+        this.idleTimeoutMillis = idleTimeoutSeconds * 1000L;
+        this.lobPreviewChars = lobPreviewChars;
+        this.cursorPermits = new Semaphore(Math.max(0, maxOpenCursors));
+    }
+
+    /**
+     * Reserves a cursor slot before a connection is taken for it.
+     *
+     * @throws SQLException if cursors are disabled or all slots are in use
+     */
+    void reserve() throws SQLException {
+        if (maxOpenCursors <= 0) {
+            throw new SQLException(ResourceManager.getErrorMessage("cursor.disabled"));
+        }
+        if (!cursorPermits.tryAcquire()) {
+            throw new SQLException(ResourceManager.getErrorMessage("cursor.limit.reached", maxOpenCursors));
+        }
+    }
+
+    /**
+     * Returns a slot obtained with {@link #reserve()} when the cursor could not be opened.
+     */
+    void unreserve() {
+        cursorPermits.release();
+    }
+
+    /**
+     * Registers an executed query as a cursor and reads its first page.
+     * If the result fits into the first page the cursor is closed straight away.
+     *
+     * @param resultCursor The cursor holding the open result set; its slot must already be reserved
+     * @param pageSize     Rows to return in the first page
+     * @return the first page
+     * @throws SQLException if reading the first page fails (the cursor is closed in that case)
+     */
+    CursorPage register(ResultCursor resultCursor, int pageSize) throws SQLException {
+        openCursors.put(resultCursor.cursorId, resultCursor);
+        startReaper();
+        return fetch(resultCursor.cursorId, pageSize);
+    }
+
+    /**
+     * Reads the next page from a cursor, closing the cursor once the result is exhausted.
+     *
+     * @param cursorId Identifier returned with the previous page
+     * @param pageSize Maximum rows to read
+     * @return the next page
+     * @throws IllegalArgumentException if the cursor does not exist or has expired
+     * @throws SQLException if reading fails (the cursor is closed in that case)
+     */
+    CursorPage fetch(String cursorId, int pageSize) throws SQLException {
+        ResultCursor resultCursor = openCursors.get(cursorId);
+        if (resultCursor == null) {
+            throw new IllegalArgumentException(ResourceManager.getErrorMessage("cursor.not.found", cursorId));
+        }
+
+        try {
+            QueryResult page = resultCursor.fetch(pageSize, lobPreviewChars);
+            if (resultCursor.exhausted) {
+                close(cursorId);
+                return new CursorPage(null, page, false);
+            }
+            return new CursorPage(cursorId, page, true);
+        } catch (SQLException | RuntimeException e) {
+            close(cursorId);
+            throw e;
+        }
+    }
+
+    /**
+     * Closes a cursor and releases its connection. Unknown ids are ignored.
+     *
+     * @param cursorId Identifier of the cursor
+     * @return true if a cursor was closed
+     */
+    boolean close(String cursorId) {
+        ResultCursor resultCursor = openCursors.remove(cursorId);
+        if (resultCursor == null) {
+            return false;
+        }
+        resultCursor.close();
+        cursorPermits.release();
+        return true;
+    }
+
+    /**
+     * @return number of cursors currently open
+     */
+    int size() {
+        return openCursors.size();
+    }
+
+    /**
+     * Closes every cursor and stops the idle reaper.
+     */
+    synchronized void closeAll() {
+        for (String cursorId : List.copyOf(openCursors.keySet())) {
+            close(cursorId);
+        }
+        if (idleReaper != null) {
+            idleReaper.shutdownNow();
+            idleReaper = null;
+        }
+    }
+
+    private synchronized void startReaper() {
+        if (idleReaper != null) {
+            return;
+        }
+        idleReaper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread reaperThread = new Thread(runnable, "dbchat-cursor-reaper");
+            reaperThread.setDaemon(true);
+            return reaperThread;
+        });
+        long checkInterval = Math.max(1000, Math.min(idleTimeoutMillis / 2, 30000));
+        idleReaper.scheduleWithFixedDelay(this::closeIdleCursors, checkInterval, checkInterval, TimeUnit.MILLISECONDS);
+    }
+
+    private void closeIdleCursors() {
+        for (ResultCursor resultCursor : List.copyOf(openCursors.values())) {
+            // Skip cursors being fetched from without waiting for them; the check is repeated under the lock
+            if (resultCursor.busy) {
+                continue;
+            }
+            synchronized (resultCursor) {
+                if (System.currentTimeMillis() - resultCursor.lastAccess > idleTimeoutMillis) {
+                    logger.info("Closing idle cursor {}", resultCursor.cursorId);
+                    close(resultCursor.cursorId);
+                }
+            }
+        }
+    }
+
+    /**
+     * An open result set together with the statement and connection it belongs to.
+     */
+    static final class ResultCursor {
+        private final String cursorId = UUID.randomUUID().toString();
+        private final Connection dbConn;
+        private final PreparedStatement prepStmt;
+        private final ResultSet resultSet;
+        private final List<String> resultColumns;
+        private final boolean cursorTransaction;
+        private volatile long lastAccess = System.currentTimeMillis();
+        private volatile boolean busy;
+        private boolean pendingRow;
+        private boolean exhausted;
+        private boolean closed;
+
+        /**
+         * @param dbConn            Connection dedicated to this cursor until it is closed
+         * @param prepStmt          The executed statement
+         * @param resultSet         Its open result set
+         * @param resultColumns     Column names of the result
+         * @param cursorTransaction Whether auto-commit was switched off for the cursor and must be restored
+         */
+        ResultCursor(Connection dbConn, PreparedStatement prepStmt, ResultSet resultSet,
+                     List<String> resultColumns, boolean cursorTransaction) {
+            this.dbConn = dbConn;
+            this.prepStmt = prepStmt;
+            this.resultSet = resultSet;
+            this.resultColumns = resultColumns;
+            this.cursorTransaction = cursorTransaction;
+        }
+
+        private synchronized QueryResult fetch(int pageSize, int lobPreviewChars) throws SQLException {
+            if (closed) {
+                // Closed by the idle reaper after the registry lookup
+                throw new IllegalArgumentException(ResourceManager.getErrorMessage("cursor.not.found", cursorId));
+            }
+            busy = true;
+            try {
+                long startTime = System.currentTimeMillis();
+                ColumnarRows.Builder rowCollector = new ColumnarRows.Builder(lobPreviewChars);
+                rowCollector.onColumns(resultColumns, resultSet.getMetaData());
+
+                int rowCount = 0;
+                while (rowCount < pageSize) {
+                    if (!pendingRow && !resultSet.next()) {
+                        exhausted = true;
+                        break;
+                    }
+                    pendingRow = false;
+                    rowCollector.onRow(resultSet);
+                    rowCount++;
+                }
+
+                // Look one row ahead so the caller knows whether another fetch is worthwhile
+                if (!exhausted) {
+                    pendingRow = resultSet.next();
+                    exhausted = !pendingRow;
+                }
+
+                return new QueryResult(resultColumns, rowCollector.build(), rowCount,
+                        System.currentTimeMillis() - startTime);
+            } finally {
+                lastAccess = System.currentTimeMillis();
+                busy = false;
+            }
+        }
+
+        /**
+         * Closes the result set and releases the connection. Synchronized with {@link #fetch} so a cursor
+         * is never closed while a page is being read from it.
+         */
+        private synchronized void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                resultSet.close();
+                prepStmt.close();
+                if (cursorTransaction) {
+                    dbConn.rollback();
+                    dbConn.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                logger.debug("Error closing cursor {}: {}", cursorId, e.getMessage());
+            } finally {
+                try {
+                    dbConn.close();
+                } catch (SQLException e) {
+                    logger.warn("Failed to release cursor connection: {}", e.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.skanga.mcp.db;
+
+import com.skanga.mcp.config.ResourceManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of statements currently executing on behalf of a client request.
+ * The thread running a request binds the request key with {@link #track(String)}; every statement
+ * executed on that thread while the scope is open is registered under the key, so that a later
+ * {@link #cancel(String)} from another thread can call {@link Statement#cancel()} on it.
+ */
+public class InFlightQueries {
+    private static final Logger logger = LoggerFactory.getLogger(InFlightQueries.class);
+
+    private final ThreadLocal<String> currentRequest = new ThreadLocal<>();
+    private final Set<String> trackedRequests = ConcurrentHashMap.newKeySet();
+    private final Map<String, Set<Statement>> runningStatements = new ConcurrentHashMap<>();
+    private final Set<String> cancelledRequests = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Scope binding a request key to the current thread. Closing it unbinds the key.
+     */
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * Binds a request key to the current thread until the returned scope is closed.
+     *
+     * @param requestKey Identifier of the client request (e.g. the JSON-RPC id)
+     * @return scope to close when the request has finished
+     */
+    public Scope track(String requestKey) {
+        currentRequest.set(requestKey);
+        trackedRequests.add(requestKey);
+        return () -> {
+            currentRequest.remove();
+            trackedRequests.remove(requestKey);
+            runningStatements.remove(requestKey);
+            cancelledRequests.remove(requestKey);
+        };
+    }
+
+    /**
+     * @return the request key bound to the current thread, or null
+     */
+    String currentRequest() {
+        return currentRequest.get();
+    }
+
+    /**
+     * Binds a request that is already tracked on another thread to the current thread, so statements run
+     * by helper threads can be cancelled with the request. Closing the scope only unbinds this thread.
+     *
+     * @param requestKey Identifier of the client request, may be null
+     * @return scope to close when the helper thread has finished its part of the request
+     */
+    Scope join(String requestKey) {
+        if (requestKey == null) {
+            return () -> { };
+        }
+        currentRequest.set(requestKey);
+        return currentRequest::remove;
+    }
+
+    /**
+     * Cancels every statement running for the request. Statements registered later under the same
+     * key are rejected until the request's scope is closed. A key that is not tracked is ignored, so a
+     * late cancellation cannot reject a later request that reuses the id.
+     *
+     * @param requestKey Identifier of the client request
+     * @return true if at least one running statement was cancelled
+     */
+    public boolean cancel(String requestKey) {
+        if (!trackedRequests.contains(requestKey)) {
+            return false;
+        }
+        cancelledRequests.add(requestKey);
+        if (!trackedRequests.contains(requestKey)) {
+            // The request finished meanwhile and its scope may not have seen the cancellation
+            cancelledRequests.remove(requestKey);
+            return false;
+        }
+        Set<Statement> statements = runningStatements.get(requestKey);
+        if (statements == null) {
+            return false;
+        }
+
+        boolean anyCancelled = false;
+        for (Statement statement : statements) {
+            try {
+                statement.cancel();
+                anyCancelled = true;
+            } catch (SQLException e) {
+                logger.warn("Failed to cancel statement for request {}: {}", requestKey, e.getMessage());
+            }
+        }
+        return anyCancelled;
+    }
+
+    /**
+     * @return number of statements currently registered
+     */
+    public int size() {
+        return runningStatements.values().stream().mapToInt(Set::size).sum();
+    }
+
+    /**
+     * Registers a statement under the request bound to the current thread, if any.
+     *
+     * @throws SQLException if the request has already been cancelled
+     */
+    void register(Statement statement) throws SQLException {
+        String requestKey = currentRequest.get();
+        if (requestKey == null) {
+            return;
+        }
+        // Added before checking for a cancellation, so a cancel() running concurrently either sees the
+        // statement or has already marked the request when it is checked
+        Set<Statement> statements =
+                runningStatements.computeIfAbsent(requestKey, ignored -> ConcurrentHashMap.newKeySet());
+        statements.add(statement);
+        if (cancelledRequests.contains(requestKey)) {
+            statements.remove(statement);
+            throw new SQLException(ResourceManager.getErrorMessage("query.cancelled", requestKey), "57014");
+        }
+    }
+
+    /**
+     * Checks that the request bound to the current thread, if any, has not been cancelled. Used before work
+     * that runs no statement of its own, such as a metadata read, so a cancellation also stops it from starting.
+     *
+     * @throws SQLException if the request has already been cancelled
+     */
+    void checkNotCancelled() throws SQLException {
+        String requestKey = currentRequest.get();
+        if (requestKey != null && cancelledRequests.contains(requestKey)) {
+            throw new SQLException(ResourceManager.getErrorMessage("query.cancelled", requestKey), "57014");
+        }
+    }
+
+    /**
+     * Removes a statement registered by {@link #register(Statement)}.
+     */
+    void unregister(Statement statement) {
+        String requestKey = currentRequest.get();
+        if (requestKey == null) {
+            return;
+        }
+        Set<Statement> statements = runningStatements.get(requestKey);
+        if (statements != null) {
+            statements.remove(statement);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.skanga.mcp.db;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounds the estimated heap taken by query results while their rows are fetched.
+ * Each query opens a {@link Reservation} and reports the estimated size of the rows it holds after every row;
+ * once the size exceeds the per-query budget, or the share of the global budget it can obtain, the query
+ * stops fetching and returns the rows read so far. Global reservations are taken in chunks so that
+ * concurrent queries do not contend on every row, and are returned when the reservation is closed: once the
+ * response built from the result has been written (see {@link ResultHold}), or when a cached result is evicted.
+ */
+class MemoryBudget {
+    static final long RESERVATION_CHUNK_BYTES = 256 * 1024L;
+
+    private final long maxQueryBytes;
+    private final long maxTotalBytes;
+    private final AtomicLong reservedBytes = new AtomicLong();
+
+    /**
+     * @param maxQueryBytes Budget for a single result, 0 for unlimited
+     * @param maxTotalBytes Budget for all results being fetched at the same time, 0 for unlimited
+     */
+    MemoryBudget(long maxQueryBytes, long maxTotalBytes) {
+        this.maxQueryBytes = maxQueryBytes;
+        this.maxTotalBytes = maxTotalBytes;
+    }
+
+    /**
+     * Starts tracking the memory of one query.
+     *
+     * @return reservation to report the size of the fetched rows to; must be closed when fetching ends
+     */
+    Reservation open() {
+        return new Reservation();
+    }
+
+    /**
+     * @return bytes currently reserved from the global budget
+     */
+    long getReservedBytes() {
+        return reservedBytes.get();
+    }
+
+    /**
+     * Memory held by one query. Not thread-safe; used by the thread fetching the rows, then handed to the
+     * {@link ResultHold} or cache entry that closes it.
+     */
+    final class Reservation implements AutoCloseable {
+        private long grantedBytes;
+        private boolean limitReached;
+
+        private Reservation() {
+        }
+
+        /**
+         * Wraps a row handler so that fetching stops after the first row that takes what the handler keeps
+         * over the budget. That row is kept, so a result always has at least one row.
+         *
+         * @param rowHandler Handler whose {@link RowHandler#retainedBytes()} is checked after each row
+         * @return row handler to pass to the query
+         */
+        RowHandler track(RowHandler rowHandler) {
+            return new RowHandler() {
+                @Override
+                public void onColumns(List<String> columnNames, ResultSetMetaData metaData) throws SQLException {
+                    rowHandler.onColumns(columnNames, metaData);
+                }
+
+                @Override
+                public boolean onRow(ResultSet resultSet) throws SQLException {
+                    if (!rowHandler.onRow(resultSet)) {
+                        return false;
+                    }
+                    if (fits(rowHandler.retainedBytes())) {
+                        return true;
+                    }
+                    limitReached = true;
+                    return false;
+                }
+            };
+        }
+
+        /**
+         * @return true if a row handler from {@link #track(RowHandler)} stopped fetching early
+         */
+        boolean isLimitReached() {
+            return limitReached;
+        }
+
+        /**
+         * Checks whether rows of the given estimated size fit the budgets, reserving more of the global
+         * budget if needed.
+         *
+         * @param retainedBytes Estimated size of all rows fetched so far
+         * @return false if fetching should stop
+         */
+        boolean fits(long retainedBytes) {
+            if (maxQueryBytes > 0 && retainedBytes > maxQueryBytes) {
+                return false;
+            }
+            if (maxTotalBytes <= 0 || retainedBytes <= grantedBytes) {
+                return true;
+            }
+
+            long neededBytes = retainedBytes - grantedBytes;
+            while (true) {
+                long currentBytes = reservedBytes.get();
+                long requestBytes = Math.max(neededBytes, RESERVATION_CHUNK_BYTES);
+                if (currentBytes + requestBytes > maxTotalBytes) {
+                    // Near the limit take only what is needed
+                    requestBytes = neededBytes;
+                    if (currentBytes + requestBytes > maxTotalBytes) {
+                        return false;
+                    }
+                }
+                if (reservedBytes.compareAndSet(currentBytes, currentBytes + requestBytes)) {
+                    grantedBytes += requestBytes;
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * Returns the reserved memory to the global budget.
+         */
+        @Override
+        public void close() {
+            reservedBytes.addAndGet(-grantedBytes);
+            grantedBytes = 0;
+        }
+    }
+}
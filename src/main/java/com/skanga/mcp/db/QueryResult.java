@@ -8,10 +8,13 @@ import java.util.List;
  *
  * @param allColumns List of column names in the order they appear in the result set
  * @param allRows List of data rows, where each row is a list of column values
+ *                (query results are backed by {@link ColumnarRows})
  * @param rowCount The number of rows returned (may differ from allRows.size() if limited)
  * @param executionTimeMs Time taken to execute the query in milliseconds
+ * @param memoryLimited true if fetching stopped before maxRows because the memory budget was reached
  */
-public record QueryResult(List<String> allColumns, List<List<Object>> allRows, int rowCount, long executionTimeMs) {
+public record QueryResult(List<String> allColumns, List<List<Object>> allRows, int rowCount, long executionTimeMs,
+                          boolean memoryLimited) {
     public QueryResult {
         if (allColumns == null) {
             throw new IllegalArgumentException("Columns cannot be null");
@@ -27,6 +30,13 @@ public record QueryResult(List<String> allColumns, List<List<Object>> allRows, i
         }
     }
 
+    /**
+     * Creates a result that was fetched completely, up to the row limit.
+     */
+    public QueryResult(List<String> allColumns, List<List<Object>> allRows, int rowCount, long executionTimeMs) {
+        this(allColumns, allRows, rowCount, executionTimeMs, false);
+    }
+
     /**
      * Checks if the query result contains no data rows.
      *
@@ -0,0 +1,17 @@
+package com.skanga.mcp.db;
+
+import java.util.List;
+
+/**
+ * One page of the database resource listing.
+ *
+ * @param resources The resources of this page, in listing order
+ * @param nextCursor Cursor to request the next page with, or null if this is the last page
+ */
+public record ResourcePage(List<DatabaseResource> resources, String nextCursor) {
+    public ResourcePage {
+        if (resources == null) {
+            throw new IllegalArgumentException("Resources cannot be null");
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.skanga.mcp.db;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Size-bounded, time-limited cache of query results keyed by normalized SQL, bound parameters and row limit.
+ * Entries are evicted least-recently-used first once the estimated size of all cached results exceeds
+ * the byte budget, expire after the configured TTL, and are invalidated when a write statement touches
+ * a table they mention.
+ *
+ * <p>A cached result keeps the memory budget reservation taken while its rows were fetched, so cached rows
+ * count against TOTAL_QUERY_MEMORY_MB until they are evicted.
+ *
+ * <p>Every invalidation starts a new generation. A query reads {@link #generation()} before it executes and
+ * passes it to {@link #put}, so a result read before a concurrent write was invalidated is never stored.
+ *
+ * <p>All methods are synchronized; lookups are cheap compared to the queries they replace. The size of a result
+ * is measured while its rows are collected and passed to {@link #put}, so no result is walked under the lock.
+ */
+class ResultCache {
+    private final long ttlMillis;
+    private final long maxBytes;
+    private final LinkedHashMap<CacheKey, CacheEntry> cacheEntries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+    private long generation;
+    private long hitCount;
+    private long missCount;
+
+    /**
+     * @param ttlSeconds How long an entry stays valid
+     * @param maxBytes   Upper bound for the estimated size of all cached results
+     */
+    ResultCache(int ttlSeconds, long maxBytes) {
+        this.ttlMillis = ttlSeconds * 1000L;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Builds the cache key for an execution.
+     *
+     * @param sqlQuery  The SQL text
+     * @param maxRows   The row limit
+     * @param paramList Bound parameters, may be null
+     * @return a key that is equal for executions that must return the same result
+     */
+    static CacheKey keyFor(String sqlQuery, int maxRows, List<Object> paramList) {
+        List<Object> params = paramList == null ? List.of() : Collections.unmodifiableList(new ArrayList<>(paramList));
+        return new CacheKey(normalizeSql(sqlQuery), maxRows, params);
+    }
+
+    /**
+     * Returns a cached result if present and not expired.
+     */
+    synchronized QueryResult get(CacheKey cacheKey) {
+        CacheEntry cacheEntry = cacheEntries.get(cacheKey);
+        if (cacheEntry != null && System.currentTimeMillis() - cacheEntry.createdAt() <= ttlMillis) {
+            hitCount++;
+            return cacheEntry.queryResult();
+        }
+        if (cacheEntry != null) {
+            removeEntry(cacheKey);
+        }
+        missCount++;
+        return null;
+    }
+
+    /**
+     * Returns the current invalidation generation, to be read before executing a query whose result is cached.
+     */
+    synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * Stores a result, evicting least recently used entries until the byte budget is respected.
+     * Results larger than a quarter of the budget are not cached at all, nor are results of a query that
+     * started before the latest invalidation.
+     *
+     * @param cacheKey          The key of the execution
+     * @param queryResult       The result to cache
+     * @param queryGeneration   The generation read before the query was executed
+     * @param entryBytes        Estimated heap taken by the result, as measured while its rows were collected
+     * @param memoryReservation The memory budget reservation of the result, closed when the entry is removed;
+     *                          may be null
+     * @return true if the result was stored, in which case the cache owns the reservation
+     */
+    synchronized boolean put(CacheKey cacheKey, QueryResult queryResult, long queryGeneration, long entryBytes,
+                             MemoryBudget.Reservation memoryReservation) {
+        if (queryGeneration != generation || entryBytes > maxBytes / 4) {
+            return false;
+        }
+
+        removeEntry(cacheKey);
+        cacheEntries.put(cacheKey, new CacheEntry(queryResult, wordsOf(cacheKey.sql()),
+                System.currentTimeMillis(), entryBytes, memoryReservation));
+        totalBytes += entryBytes;
+
+        Iterator<Map.Entry<CacheKey, CacheEntry>> entryIterator = cacheEntries.entrySet().iterator();
+        while (totalBytes > maxBytes && entryIterator.hasNext()) {
+            evict(entryIterator.next().getValue());
+            entryIterator.remove();
+        }
+        return true;
+    }
+
+    /**
+     * Drops cached results that may be affected by a write statement. When the written table cannot be
+     * determined (procedure calls, unusual syntax) the whole cache is cleared.
+     *
+     * @param writeSql The non-query SQL that was executed
+     */
+    synchronized void invalidate(String writeSql) {
+        generation++;
+        if (cacheEntries.isEmpty()) {
+            return;
+        }
+
+        // Compare on unqualified, unquoted table names; over-invalidating is harmless
+        Set<String> tableNames = SqlClassifier.writeTargets(writeSql);
+        if (tableNames.isEmpty()) {
+            clear();
+            return;
+        }
+
+        Iterator<CacheEntry> entryIterator = cacheEntries.values().iterator();
+        while (entryIterator.hasNext()) {
+            CacheEntry cacheEntry = entryIterator.next();
+            if (!Collections.disjoint(cacheEntry.words(), tableNames)) {
+                evict(cacheEntry);
+                entryIterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Removes every cached result.
+     */
+    synchronized void clear() {
+        generation++;
+        cacheEntries.values().forEach(this::evict);
+        cacheEntries.clear();
+    }
+
+    synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    synchronized long getMissCount() {
+        return missCount;
+    }
+
+    synchronized long getSizeBytes() {
+        return totalBytes;
+    }
+
+    private void removeEntry(CacheKey cacheKey) {
+        CacheEntry removedEntry = cacheEntries.remove(cacheKey);
+        if (removedEntry != null) {
+            evict(removedEntry);
+        }
+    }
+
+    /**
+     * Accounts for an entry leaving the cache and returns its memory to the budget.
+     */
+    private void evict(CacheEntry cacheEntry) {
+        totalBytes -= cacheEntry.sizeBytes();
+        if (cacheEntry.memoryReservation() != null) {
+            cacheEntry.memoryReservation().close();
+        }
+    }
+
+    /**
+     * Collapses runs of whitespace outside quoted literals and drops a trailing semicolon, so that
+     * formatting differences do not defeat the cache while literal contents stay significant.
+     * Line comments are kept with their terminating newline since it ends the comment.
+     */
+    static String normalizeSql(String sqlQuery) {
+        StringBuilder normalizedSql = new StringBuilder(sqlQuery.length());
+        char quoteChar = 0;
+        boolean inLineComment = false;
+        boolean pendingSpace = false;
+
+        for (int i = 0; i < sqlQuery.length(); i++) {
+            char currChar = sqlQuery.charAt(i);
+            if (inLineComment) {
+                normalizedSql.append(currChar);
+                inLineComment = currChar != '\n';
+            } else if (quoteChar != 0) {
+                normalizedSql.append(currChar);
+                if (currChar == quoteChar) {
+                    quoteChar = 0;
+                }
+            } else if (currChar == '-' && i + 1 < sqlQuery.length() && sqlQuery.charAt(i + 1) == '-') {
+                if (pendingSpace) {
+                    normalizedSql.append(' ');
+                    pendingSpace = false;
+                }
+                inLineComment = true;
+                normalizedSql.append(currChar);
+            } else if (Character.isWhitespace(currChar)) {
+                pendingSpace = normalizedSql.length() > 0;
+            } else {
+                if (pendingSpace) {
+                    normalizedSql.append(' ');
+                    pendingSpace = false;
+                }
+                if (currChar == '\'' || currChar == '"' || currChar == '`') {
+                    quoteChar = currChar;
+                }
+                normalizedSql.append(currChar);
+            }
+        }
+
+        int length = normalizedSql.length();
+        if (length > 0 && normalizedSql.charAt(length - 1) == ';') {
+            normalizedSql.setLength(length - 1);
+        }
+        return normalizedSql.toString();
+    }
+
+    private static Set<String> wordsOf(String sqlQuery) {
+        Set<String> sqlWords = new HashSet<>();
+        for (SqlClassifier.Token sqlToken : SqlClassifier.tokenize(sqlQuery)) {
+            sqlWords.add(sqlToken.text());
+        }
+        return sqlWords;
+    }
+
+    record CacheKey(String sql, int maxRows, List<Object> params) {
+    }
+
+    private record CacheEntry(QueryResult queryResult, Set<String> words, long createdAt, long sizeBytes,
+                              MemoryBudget.Reservation memoryReservation) {
+    }
+}
@@ -0,0 +1,73 @@
+package com.skanga.mcp.db;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Memory budget reservations of the query results of a single request. A result stays in memory after
+ * {@link DatabaseService#executeSql(String, int, List)} returns, while it is formatted and the response is
+ * serialized, and so do rows a handler passed to {@link DatabaseService#executeSql(String, int, List, RowHandler)}
+ * rendered as they were fetched, so the transport binds a hold to the thread handling the request with {@link #bind()} and closes
+ * it once the response has been written. Queries executed while a hold is bound leave their reservation to it
+ * instead of returning it to the budget; without a hold the reservation is returned as soon as the rows are
+ * fetched. A hold may be bound on several threads at once, e.g. when the query itself runs on an executor.
+ */
+public final class ResultHold implements AutoCloseable {
+    private static final ThreadLocal<ResultHold> currentHold = new ThreadLocal<>();
+
+    private final List<MemoryBudget.Reservation> heldReservations = new ArrayList<>();
+    private boolean closed;
+
+    /**
+     * Scope binding a hold to the current thread. Closing it restores the previous binding.
+     */
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * @return the hold bound to the current thread, or null
+     */
+    public static ResultHold current() {
+        return currentHold.get();
+    }
+
+    /**
+     * Binds this hold to the current thread until the returned scope is closed.
+     *
+     * @return scope to close when the thread stops working on the request
+     */
+    public Scope bind() {
+        ResultHold previousHold = currentHold.get();
+        currentHold.set(this);
+        return () -> {
+            if (previousHold == null) {
+                currentHold.remove();
+            } else {
+                currentHold.set(previousHold);
+            }
+        };
+    }
+
+    /**
+     * Keeps a reservation until the hold is closed. A reservation handed to a closed hold is returned at once.
+     */
+    synchronized void keep(MemoryBudget.Reservation memoryReservation) {
+        if (closed) {
+            memoryReservation.close();
+        } else {
+            heldReservations.add(memoryReservation);
+        }
+    }
+
+    /**
+     * Returns the memory of every result of the request to the budget.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        heldReservations.forEach(MemoryBudget.Reservation::close);
+        heldReservations.clear();
+    }
+}
@@ -0,0 +1,96 @@
+package com.skanga.mcp.db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Reads the row count of a table from the statistics the database keeps for its query planner, so that describing
+ * a table does not scan it. Estimates are only as fresh as the last ANALYZE or statistics update, and are missing
+ * for tables that were never analyzed.
+ */
+final class RowCountEstimator {
+    // Catalog lookups are cheap; a slow one is not worth waiting for
+    static final int ESTIMATE_TIMEOUT_SECONDS = 5;
+
+    private RowCountEstimator() {
+    }
+
+    /**
+     * Returns the statistics query for a database type. The table name is the first parameter and, when a schema
+     * is given, the schema name the second; without a schema the current schema is used.
+     *
+     * @param dbType     The database type
+     * @param schemaName The schema of the table, null for the current schema
+     * @return the query, or null if the database keeps no row count statistics that can be read
+     */
+    static String estimateQuery(String dbType, String schemaName) {
+        boolean hasSchema = schemaName != null;
+        return switch (dbType) {
+            case "postgresql", "redshift" -> "SELECT c.reltuples::bigint FROM pg_class c"
+                    + " JOIN pg_namespace n ON n.oid = c.relnamespace WHERE c.relname = ?"
+                    + (hasSchema ? " AND n.nspname = ?" : " AND pg_table_is_visible(c.oid)");
+            case "mysql", "mariadb" -> "SELECT TABLE_ROWS FROM information_schema.TABLES WHERE TABLE_NAME = ?"
+                    + (hasSchema ? " AND TABLE_SCHEMA = ?" : " AND TABLE_SCHEMA = DATABASE()");
+            case "sqlserver" -> "SELECT SUM(p.rows) FROM sys.partitions p"
+                    + " JOIN sys.tables t ON t.object_id = p.object_id"
+                    + " JOIN sys.schemas s ON s.schema_id = t.schema_id"
+                    + " WHERE t.name = ? AND p.index_id IN (0, 1)"
+                    + (hasSchema ? " AND s.name = ?" : " AND s.name = SCHEMA_NAME()");
+            case "oracle" -> "SELECT NUM_ROWS FROM ALL_TABLES WHERE TABLE_NAME = ?"
+                    + (hasSchema ? " AND OWNER = ?" : " AND OWNER = SYS_CONTEXT('USERENV', 'CURRENT_SCHEMA')");
+            case "h2" -> "SELECT ROW_COUNT_ESTIMATE FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = ?"
+                    + (hasSchema ? " AND TABLE_SCHEMA = ?" : " AND TABLE_SCHEMA = SCHEMA()");
+            // sqlite_stat1 only exists once ANALYZE has run; its stat column starts with the row count
+            case "sqlite" -> "SELECT stat FROM sqlite_stat1 WHERE tbl = ? ORDER BY idx IS NOT NULL LIMIT 1";
+            default -> null;
+        };
+    }
+
+    /**
+     * Reads the estimated row count of a table.
+     *
+     * @param dbConn     Connection to read the statistics with
+     * @param dbType     The database type
+     * @param schemaName The schema of the table, null for the current schema
+     * @param tableName  The table name as stored in the catalog
+     * @return the estimate, or null if the database has no statistics for the table
+     * @throws SQLException if the statistics cannot be read
+     */
+    static Long estimate(Connection dbConn, String dbType, String schemaName, String tableName) throws SQLException {
+        String estimateQuery = estimateQuery(dbType, schemaName);
+        if (estimateQuery == null) {
+            return null;
+        }
+        try (PreparedStatement preparedStatement = dbConn.prepareStatement(estimateQuery)) {
+            preparedStatement.setQueryTimeout(ESTIMATE_TIMEOUT_SECONDS);
+            preparedStatement.setString(1, tableName);
+            if (schemaName != null && !"sqlite".equals(dbType)) {
+                preparedStatement.setString(2, schemaName);
+            }
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                return resultSet.next() ? toRowCount(resultSet.getObject(1)) : null;
+            }
+        }
+    }
+
+    /**
+     * Converts a statistics value to a row count. Negative values mean the table was never analyzed.
+     */
+    static Long toRowCount(Object statisticsValue) {
+        long rowCount;
+        if (statisticsValue instanceof Number numberValue) {
+            rowCount = numberValue.longValue();
+        } else if (statisticsValue instanceof String statText && !statText.isBlank()) {
+            try {
+                rowCount = Long.parseLong(statText.trim().split("\\s+")[0]);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        } else {
+            return null;
+        }
+        return rowCount >= 0 ? rowCount : null;
+    }
+}
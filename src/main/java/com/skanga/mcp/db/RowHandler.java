@@ -0,0 +1,46 @@
+package com.skanga.mcp.db;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Callback that consumes query rows as they are fetched from the database.
+ * Used by {@link DatabaseService#executeSql(String, int, List, RowHandler)} so that callers can
+ * process or render rows without first materializing the complete result in memory.
+ *
+ * <p>The handler is invoked on the thread executing the query while the statement and connection
+ * are open. Implementations must not keep a reference to the {@link ResultSet} after returning.
+ */
+@FunctionalInterface
+public interface RowHandler {
+    /**
+     * Called once before the first row with the column names and metadata of the result set.
+     *
+     * @param columnNames Column names in result order
+     * @param metaData Result set metadata (column types, precision, etc.)
+     * @throws SQLException if the metadata cannot be read
+     */
+    default void onColumns(List<String> columnNames, ResultSetMetaData metaData) throws SQLException {
+        // Most handlers only care about rows
+    }
+
+    /**
+     * Called for each row while the result set is positioned on it.
+     *
+     * @param resultSet The result set positioned on the current row
+     * @return true to continue fetching, false to stop early
+     * @throws SQLException if a column value cannot be read
+     */
+    boolean onRow(ResultSet resultSet) throws SQLException;
+
+    /**
+     * Estimates the heap taken by what the handler keeps of the rows it has received, for memory budgeting.
+     *
+     * @return estimated size in bytes, 0 for handlers that keep nothing
+     */
+    default long retainedBytes() {
+        return 0;
+    }
+}
@@ -0,0 +1,603 @@
+package com.skanga.mcp.db;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory snapshot of the database catalog shared by resource listing, resource reads and table descriptions.
+ * The table and schema lists are loaded on first use; the columns, keys and indexes of a table are loaded the
+ * first time that table is read or described, or for a whole schema at once when the data dictionary is built.
+ * The snapshot is dropped once the TTL has passed, on request, and
+ * after DDL statements run through the service, and the next lookup loads it again.
+ *
+ * <p>Given an executor, the columns, keys and indexes of a table are read concurrently, each on its own pooled
+ * connection, so loading a table takes about as long as the slowest of those calls rather than their sum.
+ * The workers join the client request of the calling thread, so a cancelled request stops every metadata read
+ * of a describe that has not started yet, whichever thread it was queued for.
+ *
+ * <p>With a TTL of 0 nothing is retained: each lookup reads just the metadata it needs, as before caching existed.
+ * Loaded values are immutable, so concurrent readers share them without locking.
+ */
+class SchemaCatalog {
+    private static final Logger logger = LoggerFactory.getLogger(SchemaCatalog.class);
+    // Table types listed as resources
+    static final String[] TABLE_TYPES = {"TABLE", "VIEW"};
+
+    /**
+     * Source of the connections used to read metadata.
+     */
+    @FunctionalInterface
+    interface ConnectionSource {
+        Connection getConnection() throws SQLException;
+    }
+
+    /**
+     * Builds the resource listing from the catalog.
+     */
+    @FunctionalInterface
+    interface ListingBuilder {
+        List<DatabaseResource> build() throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface MetadataReader<T> {
+        T read(DatabaseMetaData metaData) throws SQLException;
+    }
+
+    record TableEntry(String schemaName, String tableName, String tableType, String remarks) {
+    }
+
+    record ColumnEntry(String columnName, String typeName, int columnSize, int decimalDigits, String isNullable,
+                       String defaultValue, String remarks) {
+    }
+
+    record PrimaryKeyEntry(String columnName, String pkName) {
+    }
+
+    record ForeignKeyEntry(String fkName, String fkColumn, String pkSchema, String pkTable, String pkColumn) {
+    }
+
+    record IndexEntry(String indexName, String columnName, boolean nonUnique, String indexType) {
+    }
+
+    /**
+     * Structure of one table, in the order the driver reported it.
+     */
+    record TableDetail(String schemaName, String tableName, List<ColumnEntry> columns,
+                       List<PrimaryKeyEntry> primaryKeys, List<ForeignKeyEntry> foreignKeys, List<IndexEntry> indexes) {
+    }
+
+    private record DetailKey(String schemaName, String tableName) {
+    }
+
+    private record SchemaKey(String schemaName) {
+    }
+
+    /**
+     * One generation of cached metadata. Lists are null until first loaded.
+     */
+    private static final class Snapshot {
+        private final long createdAt = System.currentTimeMillis();
+        private final Map<DetailKey, TableDetail> tableDetails = new ConcurrentHashMap<>();
+        private final Map<SchemaKey, Map<String, List<ColumnEntry>>> schemaColumns = new ConcurrentHashMap<>();
+        private volatile List<TableEntry> allTables;
+        private volatile List<String> allSchemas;
+        private volatile List<DatabaseResource> resourceListing;
+        private volatile boolean schemasUnsupported;
+    }
+
+    private final ConnectionSource connectionSource;
+    private final long ttlMillis;
+    private final ExecutorService metadataExecutor;
+    private final InFlightQueries inFlightQueries;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private volatile Snapshot currentSnapshot;
+
+    /**
+     * @param connectionSource Where connections for reading metadata come from
+     * @param ttlSeconds       How long loaded metadata is reused, 0 to read it on every lookup
+     */
+    SchemaCatalog(ConnectionSource connectionSource, int ttlSeconds) {
+        this(connectionSource, ttlSeconds, null, new InFlightQueries());
+    }
+
+    /**
+     * @param connectionSource Where connections for reading metadata come from
+     * @param ttlSeconds       How long loaded metadata is reused, 0 to read it on every lookup
+     * @param metadataExecutor Workers that read table metadata in parallel, null to read it sequentially;
+     *                         its size bounds the connections metadata reads take from the pool
+     * @param inFlightQueries  Registry of the client requests metadata is read for, checked for cancellation
+     */
+    SchemaCatalog(ConnectionSource connectionSource, int ttlSeconds, ExecutorService metadataExecutor,
+                  InFlightQueries inFlightQueries) {
+        this.connectionSource = connectionSource;
+        this.ttlMillis = ttlSeconds * 1000L;
+        this.metadataExecutor = metadataExecutor;
+        this.inFlightQueries = inFlightQueries;
+    }
+
+    /**
+     * @return true if loaded metadata is kept between lookups
+     */
+    boolean isEnabled() {
+        return ttlMillis > 0;
+    }
+
+    /**
+     * Lists all tables and views.
+     *
+     * @return tables in the order the driver reported them
+     * @throws SQLException if the catalog cannot be read
+     */
+    List<TableEntry> getTables() throws SQLException {
+        Snapshot snapshot = snapshot();
+        List<TableEntry> allTables = snapshot.allTables;
+        if (allTables != null) {
+            hitCount.incrementAndGet();
+            return allTables;
+        }
+        missCount.incrementAndGet();
+        allTables = readMetadata(metaData -> readTables(metaData, null, "%", TABLE_TYPES));
+        snapshot.allTables = allTables;
+        return allTables;
+    }
+
+    /**
+     * Lists the schemas of the database.
+     *
+     * @return schema names, or null if the database does not support or expose schemas
+     * @throws SQLException if a connection cannot be obtained
+     */
+    List<String> getSchemas() throws SQLException {
+        Snapshot snapshot = snapshot();
+        if (snapshot.allSchemas != null || snapshot.schemasUnsupported) {
+            hitCount.incrementAndGet();
+            return snapshot.allSchemas;
+        }
+        missCount.incrementAndGet();
+        List<String> allSchemas = readMetadata(metaData -> {
+            try (ResultSet resultSet = metaData.getSchemas()) {
+                List<String> schemaNames = new ArrayList<>();
+                while (resultSet.next()) {
+                    schemaNames.add(resultSet.getString("TABLE_SCHEM"));
+                }
+                return Collections.unmodifiableList(schemaNames);
+            } catch (SQLException e) {
+                // Some databases don't support schemas
+                logger.debug("Schemas not supported or accessible", e);
+                return null;
+            }
+        });
+        snapshot.allSchemas = allSchemas;
+        snapshot.schemasUnsupported = allSchemas == null;
+        return allSchemas;
+    }
+
+    /**
+     * Lists the tables and views of one schema.
+     *
+     * @param schemaName The schema to list
+     * @return tables of the schema in the order the driver reported them
+     * @throws SQLException if the catalog cannot be read
+     */
+    List<TableEntry> getTables(String schemaName) throws SQLException {
+        if (!isEnabled()) {
+            missCount.incrementAndGet();
+            return readMetadata(metaData -> readTables(metaData, schemaName, "%", TABLE_TYPES));
+        }
+        List<TableEntry> schemaTables = new ArrayList<>();
+        for (TableEntry tableEntry : getTables()) {
+            if (schemaName.equals(tableEntry.schemaName())) {
+                schemaTables.add(tableEntry);
+            }
+        }
+        return schemaTables;
+    }
+
+    /**
+     * Looks up a single table, in the cached table list if it has been loaded and otherwise with a query for just
+     * that table, so that one lookup does not load the whole catalog.
+     *
+     * @param schemaName The schema of the table, null to search all schemas
+     * @param tableName  The table name as stored in the catalog
+     * @param tableTypes Table types to consider, null for all types
+     * @return the first matching table, or null if there is none
+     * @throws SQLException if the catalog cannot be read
+     */
+    TableEntry findTable(String schemaName, String tableName, String[] tableTypes) throws SQLException {
+        List<TableEntry> loadedTables = isEnabled() ? snapshot().allTables : null;
+        if (loadedTables != null) {
+            for (TableEntry tableEntry : loadedTables) {
+                if (tableEntry.tableName().equals(tableName)
+                        && (schemaName == null || schemaName.equals(tableEntry.schemaName()))) {
+                    hitCount.incrementAndGet();
+                    return tableEntry;
+                }
+            }
+            // Otherwise not a table or view, or created since the snapshot was taken
+        }
+        missCount.incrementAndGet();
+        return readMetadata(metaData -> {
+            try (ResultSet resultSet = metaData.getTables(null, schemaName, tableName, tableTypes)) {
+                return resultSet.next() ? readTableEntry(resultSet) : null;
+            }
+        });
+    }
+
+    /**
+     * Returns the columns, keys and indexes of a table, loading them on first use.
+     *
+     * @param schemaName The schema of the table, null for the default search
+     * @param tableName  The table name as stored in the catalog
+     * @return the table structure, or null if no columns were found for the table
+     * @throws SQLException if the catalog cannot be read
+     */
+    TableDetail getTableDetail(String schemaName, String tableName) throws SQLException {
+        Snapshot snapshot = snapshot();
+        DetailKey detailKey = new DetailKey(schemaName, tableName);
+        TableDetail tableDetail = snapshot.tableDetails.get(detailKey);
+        // Schema harvests file tables under their own schema, so resolve a default search through the table list
+        String harvestedSchema = schemaName != null ? schemaName : loadedSchemaOf(snapshot, tableName);
+        if (tableDetail == null && schemaName == null && harvestedSchema != null) {
+            tableDetail = snapshot.tableDetails.get(new DetailKey(harvestedSchema, tableName));
+        }
+        if (tableDetail != null) {
+            hitCount.incrementAndGet();
+            return tableDetail;
+        }
+        missCount.incrementAndGet();
+        Map<String, List<ColumnEntry>> harvestedColumns = snapshot.schemaColumns.get(new SchemaKey(harvestedSchema));
+        List<ColumnEntry> knownColumns = harvestedColumns != null ? harvestedColumns.get(tableName) : null;
+        tableDetail = metadataExecutor != null
+                ? readTableDetailInParallel(schemaName, tableName, knownColumns)
+                : readMetadata(metaData -> readTableDetail(metaData, schemaName, tableName, knownColumns));
+        if (tableDetail != null && isEnabled()) {
+            snapshot.tableDetails.put(detailKey, tableDetail);
+        }
+        return tableDetail;
+    }
+
+    /**
+     * Reads the columns of every table in a schema with a single query. When metadata is kept, the keys and
+     * indexes of the schema are read in bulk as well, so later table lookups need no further round-trips;
+     * drivers that can only list keys and indexes table by table, failing or listing nothing for the whole
+     * schema, keep loading those per table on first use.
+     *
+     * @param schemaName The schema to read, null if the database does not report schemas
+     * @return columns by table name, tables in the order the driver reported them
+     * @throws SQLException if the catalog cannot be read
+     */
+    Map<String, List<ColumnEntry>> getSchemaColumns(String schemaName) throws SQLException {
+        Snapshot snapshot = snapshot();
+        SchemaKey schemaKey = new SchemaKey(schemaName);
+        Map<String, List<ColumnEntry>> columnsByTable = snapshot.schemaColumns.get(schemaKey);
+        if (columnsByTable != null) {
+            hitCount.incrementAndGet();
+            return columnsByTable;
+        }
+        missCount.incrementAndGet();
+        columnsByTable = readMetadata(metaData -> harvestSchema(metaData, snapshot, schemaName));
+        if (isEnabled()) {
+            snapshot.schemaColumns.put(schemaKey, columnsByTable);
+        }
+        return columnsByTable;
+    }
+
+    /**
+     * Returns the resource listing, building it on first use. The listing is kept with the rest of the snapshot,
+     * so pages of it stay consistent with each other until the catalog is reloaded.
+     *
+     * @param listingBuilder Builds the listing from the catalog
+     * @return the resources in listing order
+     * @throws SQLException if the listing cannot be built
+     */
+    List<DatabaseResource> getResourceListing(ListingBuilder listingBuilder) throws SQLException {
+        Snapshot snapshot = snapshot();
+        List<DatabaseResource> resourceListing = snapshot.resourceListing;
+        if (resourceListing != null) {
+            hitCount.incrementAndGet();
+            return resourceListing;
+        }
+        missCount.incrementAndGet();
+        resourceListing = List.copyOf(listingBuilder.build());
+        snapshot.resourceListing = resourceListing;
+        return resourceListing;
+    }
+
+    /**
+     * Drops all cached metadata; the next lookup reloads it.
+     */
+    void refresh() {
+        currentSnapshot = null;
+    }
+
+    /**
+     * Drops cached metadata if a statement may have changed the catalog.
+     *
+     * @param sqlStatement A statement that was executed
+     */
+    void invalidate(String sqlStatement) {
+        if (currentSnapshot != null && SqlClassifier.isDdl(sqlStatement)) {
+            logger.debug("Schema catalog dropped after DDL statement");
+            refresh();
+        }
+    }
+
+    long getHitCount() {
+        return hitCount.get();
+    }
+
+    long getMissCount() {
+        return missCount.get();
+    }
+
+    private Snapshot snapshot() {
+        if (!isEnabled()) {
+            return new Snapshot();
+        }
+        Snapshot snapshot = currentSnapshot;
+        if (snapshot == null || System.currentTimeMillis() - snapshot.createdAt > ttlMillis) {
+            synchronized (this) {
+                snapshot = currentSnapshot;
+                if (snapshot == null || System.currentTimeMillis() - snapshot.createdAt > ttlMillis) {
+                    snapshot = new Snapshot();
+                    currentSnapshot = snapshot;
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    private static String loadedSchemaOf(Snapshot snapshot, String tableName) {
+        List<TableEntry> loadedTables = snapshot.allTables;
+        if (loadedTables != null) {
+            for (TableEntry tableEntry : loadedTables) {
+                if (tableEntry.tableName().equals(tableName)) {
+                    return tableEntry.schemaName();
+                }
+            }
+        }
+        return null;
+    }
+
+    private <T> T readMetadata(MetadataReader<T> metadataReader) throws SQLException {
+        inFlightQueries.checkNotCancelled();
+        try (Connection dbConn = connectionSource.getConnection()) {
+            return metadataReader.read(dbConn.getMetaData());
+        }
+    }
+
+    /**
+     * Starts a metadata read on the executor, on behalf of the client request bound to the calling thread.
+     */
+    private <T> Future<T> submitMetadata(MetadataReader<T> metadataReader) {
+        String requestKey = inFlightQueries.currentRequest();
+        return metadataExecutor.submit(() -> {
+            try (var ignored = inFlightQueries.join(requestKey)) {
+                return readMetadata(metadataReader);
+            }
+        });
+    }
+
+    /**
+     * Waits for a metadata read started on another thread.
+     *
+     * @param pendingRead The submitted read
+     * @return the value read
+     * @throws SQLException the failure of the read, or if the wait is interrupted
+     */
+    static <T> T awaitMetadata(Future<T> pendingRead) throws SQLException {
+        try {
+            return pendingRead.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while reading database metadata", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private TableDetail readTableDetailInParallel(String schemaName, String tableName, List<ColumnEntry> knownColumns)
+            throws SQLException {
+        Future<List<PrimaryKeyEntry>> primaryKeys = submitMetadata(
+                metaData -> readPrimaryKeys(metaData, schemaName, tableName));
+        Future<List<ForeignKeyEntry>> foreignKeys = submitMetadata(
+                metaData -> readForeignKeys(metaData, schemaName, tableName));
+        Future<List<IndexEntry>> tableIndexes = submitMetadata(
+                metaData -> readIndexes(metaData, schemaName, tableName));
+        try {
+            // The calling thread reads the columns itself, so a busy executor still makes progress
+            List<ColumnEntry> tableColumns = knownColumns != null
+                    ? knownColumns : readMetadata(metaData -> readColumns(metaData, schemaName, tableName));
+            if (tableColumns.isEmpty()) {
+                return null;
+            }
+            return new TableDetail(schemaName, tableName, List.copyOf(tableColumns), awaitMetadata(primaryKeys),
+                    awaitMetadata(foreignKeys), awaitMetadata(tableIndexes));
+        } finally {
+            // Reads still queued are no longer needed; running ones finish and return their connections
+            primaryKeys.cancel(false);
+            foreignKeys.cancel(false);
+            tableIndexes.cancel(false);
+        }
+    }
+
+    private static List<TableEntry> readTables(DatabaseMetaData metaData, String schemaName, String tablePattern,
+                                               String[] tableTypes) throws SQLException {
+        List<TableEntry> allTables = new ArrayList<>();
+        try (ResultSet resultSet = metaData.getTables(null, schemaName, tablePattern, tableTypes)) {
+            while (resultSet.next()) {
+                allTables.add(readTableEntry(resultSet));
+            }
+        }
+        return Collections.unmodifiableList(allTables);
+    }
+
+    private static TableEntry readTableEntry(ResultSet resultSet) throws SQLException {
+        String tableType = resultSet.getString("TABLE_TYPE");
+        String tableName = resultSet.getString("TABLE_NAME");
+        String schemaName = resultSet.getString("TABLE_SCHEM");
+        return new TableEntry(schemaName, tableName, tableType, resultSet.getString("REMARKS"));
+    }
+
+    private Map<String, List<ColumnEntry>> harvestSchema(DatabaseMetaData metaData, Snapshot snapshot, String schemaName)
+            throws SQLException {
+        Map<String, List<ColumnEntry>> columnsByTable = new LinkedHashMap<>();
+        try (ResultSet resultSet = metaData.getColumns(null, schemaName, "%", null)) {
+            while (resultSet.next()) {
+                columnsByTable.computeIfAbsent(resultSet.getString("TABLE_NAME"), k -> new ArrayList<>())
+                        .add(readColumnEntry(resultSet));
+            }
+        }
+        columnsByTable.replaceAll((tableName, tableColumns) -> List.copyOf(tableColumns));
+        if (isEnabled() && !columnsByTable.isEmpty()) {
+            harvestKeysAndIndexes(metaData, snapshot, schemaName, columnsByTable);
+        }
+        return Collections.unmodifiableMap(columnsByTable);
+    }
+
+    private static void harvestKeysAndIndexes(DatabaseMetaData metaData, Snapshot snapshot, String schemaName,
+                                              Map<String, List<ColumnEntry>> columnsByTable) {
+        Map<String, List<PrimaryKeyEntry>> primaryKeys = new HashMap<>();
+        Map<String, List<ForeignKeyEntry>> foreignKeys = new HashMap<>();
+        Map<String, List<IndexEntry>> tableIndexes = new HashMap<>();
+        try {
+            // A null table name lists the whole schema, which the JDBC spec leaves to the driver
+            try (ResultSet resultSet = metaData.getPrimaryKeys(null, schemaName, null)) {
+                while (resultSet.next()) {
+                    primaryKeys.computeIfAbsent(resultSet.getString("TABLE_NAME"), k -> new ArrayList<>())
+                            .add(readPrimaryKeyEntry(resultSet));
+                }
+            }
+            try (ResultSet resultSet = metaData.getImportedKeys(null, schemaName, null)) {
+                while (resultSet.next()) {
+                    foreignKeys.computeIfAbsent(resultSet.getString("FKTABLE_NAME"), k -> new ArrayList<>())
+                            .add(readForeignKeyEntry(resultSet));
+                }
+            }
+            try (ResultSet resultSet = metaData.getIndexInfo(null, schemaName, null, false, false)) {
+                while (resultSet.next()) {
+                    tableIndexes.computeIfAbsent(resultSet.getString("TABLE_NAME"), k -> new ArrayList<>())
+                            .add(readIndexEntry(resultSet));
+                }
+            }
+        } catch (SQLException e) {
+            logger.debug("Keys and indexes of schema {} cannot be listed in bulk, loading them per table", schemaName, e);
+            return;
+        }
+        if (primaryKeys.isEmpty() && tableIndexes.isEmpty() && !columnsByTable.isEmpty()) {
+            // Some drivers answer a null table name with an empty result instead of an error. Storing that would
+            // serve tables without keys or indexes for the whole TTL, so the tables are loaded one by one instead.
+            logger.debug("No keys or indexes listed in bulk for schema {}, loading them per table", schemaName);
+            return;
+        }
+
+        for (Map.Entry<String, List<ColumnEntry>> tableEntry : columnsByTable.entrySet()) {
+            String tableName = tableEntry.getKey();
+            snapshot.tableDetails.putIfAbsent(new DetailKey(schemaName, tableName), new TableDetail(schemaName, tableName,
+                    tableEntry.getValue(), List.copyOf(primaryKeys.getOrDefault(tableName, List.of())),
+                    List.copyOf(foreignKeys.getOrDefault(tableName, List.of())),
+                    List.copyOf(tableIndexes.getOrDefault(tableName, List.of()))));
+        }
+    }
+
+    private static TableDetail readTableDetail(DatabaseMetaData metaData, String schemaName, String tableName,
+                                               List<ColumnEntry> knownColumns) throws SQLException {
+        List<ColumnEntry> tableColumns = knownColumns != null ? knownColumns : readColumns(metaData, schemaName, tableName);
+        if (tableColumns.isEmpty()) {
+            return null;
+        }
+        return new TableDetail(schemaName, tableName, List.copyOf(tableColumns),
+                readPrimaryKeys(metaData, schemaName, tableName), readForeignKeys(metaData, schemaName, tableName),
+                readIndexes(metaData, schemaName, tableName));
+    }
+
+    private static List<ColumnEntry> readColumns(DatabaseMetaData metaData, String schemaName, String tableName)
+            throws SQLException {
+        List<ColumnEntry> tableColumns = new ArrayList<>();
+        try (ResultSet resultSet = metaData.getColumns(null, schemaName, tableName, null)) {
+            while (resultSet.next()) {
+                tableColumns.add(readColumnEntry(resultSet));
+            }
+        }
+        return tableColumns;
+    }
+
+    private static List<PrimaryKeyEntry> readPrimaryKeys(DatabaseMetaData metaData, String schemaName, String tableName)
+            throws SQLException {
+        List<PrimaryKeyEntry> primaryKeys = new ArrayList<>();
+        try (ResultSet resultSet = metaData.getPrimaryKeys(null, schemaName, tableName)) {
+            while (resultSet.next()) {
+                primaryKeys.add(readPrimaryKeyEntry(resultSet));
+            }
+        }
+        return List.copyOf(primaryKeys);
+    }
+
+    private static List<ForeignKeyEntry> readForeignKeys(DatabaseMetaData metaData, String schemaName, String tableName)
+            throws SQLException {
+        List<ForeignKeyEntry> foreignKeys = new ArrayList<>();
+        try (ResultSet resultSet = metaData.getImportedKeys(null, schemaName, tableName)) {
+            while (resultSet.next()) {
+                foreignKeys.add(readForeignKeyEntry(resultSet));
+            }
+        }
+        return List.copyOf(foreignKeys);
+    }
+
+    private static List<IndexEntry> readIndexes(DatabaseMetaData metaData, String schemaName, String tableName)
+            throws SQLException {
+        List<IndexEntry> tableIndexes = new ArrayList<>();
+        try (ResultSet resultSet = metaData.getIndexInfo(null, schemaName, tableName, false, false)) {
+            while (resultSet.next()) {
+                tableIndexes.add(readIndexEntry(resultSet));
+            }
+        }
+        return List.copyOf(tableIndexes);
+    }
+
+    private static ColumnEntry readColumnEntry(ResultSet resultSet) throws SQLException {
+        return new ColumnEntry(resultSet.getString("COLUMN_NAME"), resultSet.getString("TYPE_NAME"),
+                resultSet.getInt("COLUMN_SIZE"), resultSet.getInt("DECIMAL_DIGITS"),
+                resultSet.getString("IS_NULLABLE"), resultSet.getString("COLUMN_DEF"),
+                resultSet.getString("REMARKS"));
+    }
+
+    private static PrimaryKeyEntry readPrimaryKeyEntry(ResultSet resultSet) throws SQLException {
+        return new PrimaryKeyEntry(resultSet.getString("COLUMN_NAME"), resultSet.getString("PK_NAME"));
+    }
+
+    private static ForeignKeyEntry readForeignKeyEntry(ResultSet resultSet) throws SQLException {
+        return new ForeignKeyEntry(resultSet.getString("FK_NAME"), resultSet.getString("FKCOLUMN_NAME"),
+                resultSet.getString("PKTABLE_SCHEM"), resultSet.getString("PKTABLE_NAME"),
+                resultSet.getString("PKCOLUMN_NAME"));
+    }
+
+    private static IndexEntry readIndexEntry(ResultSet resultSet) throws SQLException {
+        return new IndexEntry(resultSet.getString("INDEX_NAME"), resultSet.getString("COLUMN_NAME"),
+                resultSet.getBoolean("NON_UNIQUE"), resultSet.getString("TYPE"));
+    }
+}
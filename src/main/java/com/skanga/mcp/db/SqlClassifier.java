@@ -0,0 +1,255 @@
+package com.skanga.mcp.db;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Classifies SQL statements by their keywords. The statement is split into tokens with comments, string
+ * literals and dollar-quoted bodies skipped, so a keyword inside a comment or a literal, or in a column name
+ * such as {@code deleted_at}, never changes the classification.
+ */
+final class SqlClassifier {
+    // Leading keywords of statements that only read, as long as no data-modifying keyword follows
+    private static final Set<String> QUERY_KEYWORDS = Set.of("select", "with", "values", "table", "show",
+            "explain", "describe", "desc");
+    // Keywords that make a statement write: a data-modifying CTE, SELECT INTO or EXPLAIN ANALYZE of a write
+    private static final Set<String> WRITE_KEYWORDS = Set.of("insert", "update", "delete", "merge", "into");
+    // Leading keywords of queries whose result only depends on the data they read
+    private static final Set<String> CACHEABLE_KEYWORDS = Set.of("select", "with", "values", "table");
+    // Sequence functions, which return a new value on every call
+    private static final Set<String> SEQUENCE_FUNCTIONS = Set.of("nextval", "currval", "setval", "lastval");
+    private static final Set<String> DDL_KEYWORDS = Set.of("create", "alter", "drop", "rename", "comment");
+    // Keywords followed by the table a statement writes to
+    private static final Set<String> TARGET_KEYWORDS = Set.of("insert", "into", "update", "delete", "truncate", "table");
+    // Optional words between a target keyword and the table name
+    private static final Set<String> TARGET_NOISE = Set.of("into", "from", "only", "table", "if", "not", "exists",
+            "ignore");
+    // Words after FOR that make a locking read
+    private static final Set<String> LOCK_MODES = Set.of("update", "share", "no", "key");
+
+    private SqlClassifier() {
+    }
+
+    /**
+     * A word or quoted identifier of a statement, lower-cased, or a dot between the parts of a qualified name.
+     *
+     * @param text    The token text; quoted identifiers without their quotes
+     * @param keyword true for unquoted words, which are the only tokens that can be keywords
+     */
+    record Token(String text, boolean keyword) {
+        static final Token DOT = new Token(".", false);
+    }
+
+    /**
+     * Checks whether a statement only reads data and returns a result set. Data-modifying CTEs, SELECT INTO
+     * and EXPLAIN of a write are not queries; locking reads (FOR UPDATE) are.
+     *
+     * @param sqlQuery The SQL text
+     * @return true for SELECT, WITH, VALUES, TABLE, SHOW, EXPLAIN and DESCRIBE statements that do not write
+     */
+    static boolean isQuery(String sqlQuery) {
+        List<Token> sqlTokens = tokenize(sqlQuery);
+        return !sqlTokens.isEmpty() && sqlTokens.get(0).keyword()
+                && QUERY_KEYWORDS.contains(sqlTokens.get(0).text()) && !modifiesData(sqlTokens);
+    }
+
+    /**
+     * Checks whether the result of a statement may be cached: a query reading data that is neither a locking
+     * read nor calls a sequence function. SHOW, EXPLAIN and DESCRIBE are not cached since they do not read data.
+     *
+     * @param sqlQuery The SQL text
+     * @return true if equal executions return the same result until the data they read is written
+     */
+    static boolean isCacheable(String sqlQuery) {
+        List<Token> sqlTokens = tokenize(sqlQuery);
+        if (sqlTokens.isEmpty() || !sqlTokens.get(0).keyword() || !CACHEABLE_KEYWORDS.contains(sqlTokens.get(0).text())
+                || modifiesData(sqlTokens)) {
+            return false;
+        }
+        for (int i = 0; i < sqlTokens.size(); i++) {
+            Token sqlToken = sqlTokens.get(i);
+            if (sqlToken.keyword() && (SEQUENCE_FUNCTIONS.contains(sqlToken.text()) || isLockingRead(sqlTokens, i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether a statement may change the catalog.
+     *
+     * @param sqlStatement The SQL text
+     * @return true for CREATE, ALTER, DROP, RENAME and COMMENT statements
+     */
+    static boolean isDdl(String sqlStatement) {
+        List<Token> sqlTokens = tokenize(sqlStatement);
+        return !sqlTokens.isEmpty() && sqlTokens.get(0).keyword() && DDL_KEYWORDS.contains(sqlTokens.get(0).text());
+    }
+
+    /**
+     * Finds the tables a statement writes to: the targets of INSERT, UPDATE, DELETE, MERGE, TRUNCATE, SELECT INTO
+     * and table DDL, including those inside data-modifying CTEs. Names are unqualified and lower-cased.
+     *
+     * @param sqlStatement The SQL text
+     * @return the written tables; empty if none could be determined (procedure calls, other DDL)
+     */
+    static Set<String> writeTargets(String sqlStatement) {
+        List<Token> sqlTokens = tokenize(sqlStatement);
+        Set<String> tableNames = new HashSet<>();
+        for (int i = 0; i < sqlTokens.size(); i++) {
+            Token sqlToken = sqlTokens.get(i);
+            if (!sqlToken.keyword() || !TARGET_KEYWORDS.contains(sqlToken.text())
+                    || "update".equals(sqlToken.text()) && isLockingClause(sqlTokens, i)) {
+                continue;
+            }
+            int nameIndex = i + 1;
+            while (nameIndex < sqlTokens.size() && sqlTokens.get(nameIndex).keyword()
+                    && TARGET_NOISE.contains(sqlTokens.get(nameIndex).text())) {
+                nameIndex++;
+            }
+            // The last part of a qualified name is the table
+            while (nameIndex + 2 < sqlTokens.size() && sqlTokens.get(nameIndex + 1) == Token.DOT) {
+                nameIndex += 2;
+            }
+            if (nameIndex < sqlTokens.size() && sqlTokens.get(nameIndex) != Token.DOT) {
+                tableNames.add(sqlTokens.get(nameIndex).text());
+            }
+        }
+        return tableNames;
+    }
+
+    /**
+     * Splits a statement into words, quoted identifiers and the dots between qualified name parts.
+     * Line and block comments, string literals, dollar-quoted bodies, numbers and all other punctuation are dropped.
+     *
+     * @param sqlQuery The SQL text
+     * @return the tokens in statement order
+     */
+    static List<Token> tokenize(String sqlQuery) {
+        List<Token> sqlTokens = new ArrayList<>();
+        int sqlLength = sqlQuery.length();
+        int position = 0;
+        while (position < sqlLength) {
+            char currChar = sqlQuery.charAt(position);
+            char nextChar = position + 1 < sqlLength ? sqlQuery.charAt(position + 1) : 0;
+            if (currChar == '-' && nextChar == '-') {
+                position = skipPast(sqlQuery, position + 2, "\n");
+            } else if (currChar == '/' && nextChar == '*') {
+                position = skipPast(sqlQuery, position + 2, "*/");
+            } else if (currChar == '\'') {
+                position = closingQuote(sqlQuery, position, '\'') + 1;
+            } else if (currChar == '"' || currChar == '`' || currChar == '[') {
+                int closingIndex = closingQuote(sqlQuery, position, currChar == '[' ? ']' : currChar);
+                String quotedText = sqlQuery.substring(position + 1, Math.min(closingIndex, sqlLength));
+                sqlTokens.add(new Token(quotedText.toLowerCase(Locale.ROOT), false));
+                position = closingIndex + 1;
+            } else if (currChar == '$') {
+                position = skipDollarQuoted(sqlQuery, position);
+            } else if (Character.isLetter(currChar) || currChar == '_') {
+                int wordEnd = position + 1;
+                while (wordEnd < sqlLength && isWordPart(sqlQuery.charAt(wordEnd))) {
+                    wordEnd++;
+                }
+                sqlTokens.add(new Token(sqlQuery.substring(position, wordEnd).toLowerCase(Locale.ROOT), true));
+                position = wordEnd;
+            } else if (Character.isDigit(currChar)) {
+                // Numbers, including decimals and exponents, are neither keywords nor names
+                position++;
+                while (position < sqlLength && (isWordPart(sqlQuery.charAt(position)) || sqlQuery.charAt(position) == '.')) {
+                    position++;
+                }
+            } else {
+                if (currChar == '.') {
+                    sqlTokens.add(Token.DOT);
+                }
+                position++;
+            }
+        }
+        return sqlTokens;
+    }
+
+    /**
+     * Checks the tokens for a data-modifying keyword. UPDATE in a locking clause (FOR UPDATE, FOR NO KEY UPDATE)
+     * does not count.
+     */
+    private static boolean modifiesData(List<Token> sqlTokens) {
+        for (int i = 0; i < sqlTokens.size(); i++) {
+            Token sqlToken = sqlTokens.get(i);
+            if (sqlToken.keyword() && WRITE_KEYWORDS.contains(sqlToken.text())
+                    && !("update".equals(sqlToken.text()) && isLockingClause(sqlTokens, i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isLockingClause(List<Token> sqlTokens, int updateIndex) {
+        if (updateIndex == 0) {
+            return false;
+        }
+        Token previousToken = sqlTokens.get(updateIndex - 1);
+        return previousToken.keyword() && ("for".equals(previousToken.text()) || "key".equals(previousToken.text()));
+    }
+
+    /**
+     * Checks for FOR UPDATE, FOR SHARE, FOR NO KEY UPDATE, FOR KEY SHARE and MySQL's LOCK IN SHARE MODE.
+     */
+    private static boolean isLockingRead(List<Token> sqlTokens, int tokenIndex) {
+        if (tokenIndex + 1 >= sqlTokens.size()) {
+            return false;
+        }
+        String tokenText = sqlTokens.get(tokenIndex).text();
+        String nextText = sqlTokens.get(tokenIndex + 1).text();
+        return "for".equals(tokenText) && LOCK_MODES.contains(nextText)
+                || "lock".equals(tokenText) && "in".equals(nextText);
+    }
+
+    private static boolean isWordPart(char wordChar) {
+        return Character.isLetterOrDigit(wordChar) || wordChar == '_' || wordChar == '$';
+    }
+
+    private static int skipPast(String sqlQuery, int fromIndex, String terminator) {
+        int terminatorIndex = sqlQuery.indexOf(terminator, fromIndex);
+        return terminatorIndex < 0 ? sqlQuery.length() : terminatorIndex + terminator.length();
+    }
+
+    /**
+     * Finds the quote closing a literal or quoted identifier; a doubled quote is an escaped one.
+     *
+     * @return index of the closing quote, or the statement length if it is unterminated
+     */
+    private static int closingQuote(String sqlQuery, int openingIndex, char quoteChar) {
+        int position = openingIndex + 1;
+        while (true) {
+            int quoteIndex = sqlQuery.indexOf(quoteChar, position);
+            if (quoteIndex < 0) {
+                return sqlQuery.length();
+            }
+            if (quoteIndex + 1 < sqlQuery.length() && sqlQuery.charAt(quoteIndex + 1) == quoteChar) {
+                position = quoteIndex + 2;
+            } else {
+                return quoteIndex;
+            }
+        }
+    }
+
+    /**
+     * Skips a PostgreSQL dollar-quoted body ({@code $$...$$} or {@code $tag$...$tag$}); a positional
+     * parameter such as {@code $1} is skipped on its own.
+     */
+    private static int skipDollarQuoted(String sqlQuery, int dollarIndex) {
+        int tagEnd = dollarIndex + 1;
+        while (tagEnd < sqlQuery.length() && isWordPart(sqlQuery.charAt(tagEnd)) && sqlQuery.charAt(tagEnd) != '$') {
+            tagEnd++;
+        }
+        boolean isTag = tagEnd < sqlQuery.length() && sqlQuery.charAt(tagEnd) == '$'
+                && (tagEnd == dollarIndex + 1 || !Character.isDigit(sqlQuery.charAt(dollarIndex + 1)));
+        if (!isTag) {
+            return tagEnd;
+        }
+        return skipPast(sqlQuery, tagEnd + 1, sqlQuery.substring(dollarIndex, tagEnd + 1));
+    }
+}
@@ -0,0 +1,110 @@
+package com.skanga.mcp.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of non-negative long values over fixed bucket bounds.
+ * Percentiles are reported as the upper bound of the bucket containing them.
+ */
+public class Histogram {
+    private final long[] bucketBounds;
+    // One extra bucket for values above the last bound
+    private final LongAdder[] bucketCounts;
+    private final LongAdder totalCount = new LongAdder();
+    private final LongAdder totalSum = new LongAdder();
+    private final LongAccumulator maxValue = new LongAccumulator(Math::max, 0);
+
+    /**
+     * @param bucketBounds Inclusive upper bounds of the buckets, in ascending order
+     */
+    public Histogram(long... bucketBounds) {
+        this.bucketBounds = bucketBounds.clone();
+        this.bucketCounts = new LongAdder[bucketBounds.length + 1];
+        for (int i = 0; i < bucketCounts.length; i++) {
+            bucketCounts[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records one observation; negative values are counted as 0.
+     */
+    public void record(long observedValue) {
+        long boundedValue = Math.max(0, observedValue);
+        bucketCounts[bucketIndex(boundedValue)].increment();
+        totalCount.increment();
+        totalSum.add(boundedValue);
+        maxValue.accumulate(boundedValue);
+    }
+
+    private int bucketIndex(long observedValue) {
+        int low = 0;
+        int high = bucketBounds.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (bucketBounds[mid] < observedValue) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return upper bounds of the finite buckets, in ascending order
+     */
+    public long[] bucketBounds() {
+        return bucketBounds.clone();
+    }
+
+    /**
+     * @return per-bucket (non-cumulative) counts; the last entry counts values above every bound
+     */
+    public long[] bucketCounts() {
+        long[] countSnapshot = new long[bucketCounts.length];
+        for (int i = 0; i < bucketCounts.length; i++) {
+            countSnapshot[i] = bucketCounts[i].sum();
+        }
+        return countSnapshot;
+    }
+
+    public long count() {
+        return totalCount.sum();
+    }
+
+    public long sum() {
+        return totalSum.sum();
+    }
+
+    public long max() {
+        return maxValue.get();
+    }
+
+    /**
+     * Estimates a percentile from the bucket counts.
+     *
+     * @param percentile Value between 0 and 100
+     * @return upper bound of the bucket holding the percentile, capped at the maximum observed; 0 if empty
+     */
+    public long percentile(double percentile) {
+        long[] countSnapshot = bucketCounts();
+        long observationCount = 0;
+        for (long bucketCount : countSnapshot) {
+            observationCount += bucketCount;
+        }
+        if (observationCount == 0) {
+            return 0;
+        }
+
+        long targetRank = Math.max(1, (long) Math.ceil(observationCount * percentile / 100.0));
+        long seenCount = 0;
+        for (int i = 0; i < bucketBounds.length; i++) {
+            seenCount += countSnapshot[i];
+            if (seenCount >= targetRank) {
+                return Math.min(bucketBounds[i], max());
+            }
+        }
+        return max();
+    }
+}
@@ -0,0 +1,41 @@
+package com.skanga.mcp.metrics;
+
+/**
+ * Histogram of latencies in nanoseconds with bucket bounds from 10 microseconds to 60 seconds.
+ * Bucket resolution is enough to tell which phase dominates without the memory cost of exact quantiles.
+ */
+public class LatencyHistogram extends Histogram {
+    private static final long[] BUCKET_BOUNDS_NANOS = {
+            10_000L, 25_000L, 50_000L, 100_000L, 250_000L, 500_000L,
+            1_000_000L, 2_500_000L, 5_000_000L, 10_000_000L, 25_000_000L, 50_000_000L,
+            100_000_000L, 250_000_000L, 500_000_000L,
+            1_000_000_000L, 2_500_000_000L, 5_000_000_000L, 10_000_000_000L, 30_000_000_000L, 60_000_000_000L
+    };
+
+    public LatencyHistogram() {
+        super(BUCKET_BOUNDS_NANOS);
+    }
+
+    /**
+     * @return upper bounds of the finite buckets in nanoseconds, in ascending order
+     */
+    public static long[] bucketBoundsNanos() {
+        return BUCKET_BOUNDS_NANOS.clone();
+    }
+
+    public long sumNanos() {
+        return sum();
+    }
+
+    public long maxNanos() {
+        return max();
+    }
+
+    /**
+     * @param percentile Value between 0 and 100
+     * @return the percentile in nanoseconds, see {@link Histogram#percentile(double)}
+     */
+    public long percentileNanos(double percentile) {
+        return percentile(percentile);
+    }
+}
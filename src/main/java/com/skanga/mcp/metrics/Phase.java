@@ -0,0 +1,38 @@
+package com.skanga.mcp.metrics;
+
+/**
+ * Stages of a run_sql call that are timed separately.
+ */
+public enum Phase {
+    /** Waiting for a connection from the pool */
+    POOL_WAIT("pool_wait"),
+    /** Preparing the statement, or taking it from the statement cache */
+    PREPARE("prepare"),
+    /** Executing the statement until the driver returns */
+    EXECUTE("execute"),
+    /** Reading the first row of the result set */
+    FIRST_ROW("first_row"),
+    /** Reading the remaining rows */
+    FETCH("fetch"),
+    /** Sanitizing and formatting the rows into the tool response */
+    FORMAT("format"),
+    /** Serializing the JSON-RPC response, which is streamed into the client connection as it is encoded */
+    SERIALIZE("serialize"),
+    /** Flushing the end of the response to the client */
+    WRITE("write"),
+    /** Whole request from receipt to the response being written */
+    TOTAL("total");
+
+    private final String metricName;
+
+    Phase(String metricName) {
+        this.metricName = metricName;
+    }
+
+    /**
+     * @return lower-case name used in metrics output
+     */
+    public String metricName() {
+        return metricName;
+    }
+}
@@ -0,0 +1,110 @@
+package com.skanga.mcp.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Nanosecond phase timings of a single request. The transport binds a timer to the thread handling
+ * the request with {@link #bind()}; code further down records into whatever timer is bound through
+ * {@link #record(Phase, long)}, which is a no-op when nothing is bound (e.g. in unit tests).
+ * A timer may be bound on several threads at once, e.g. when the query itself runs on an executor.
+ */
+public final class PhaseTimer {
+    private static final ThreadLocal<PhaseTimer> currentTimer = new ThreadLocal<>();
+
+    private final long startNanos = System.nanoTime();
+    private final AtomicLongArray phaseNanos = new AtomicLongArray(Phase.values().length);
+    private volatile boolean sqlCall;
+
+    /**
+     * Scope binding a timer to the current thread. Closing it restores the previous binding.
+     */
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * @return the timer bound to the current thread, or null
+     */
+    public static PhaseTimer current() {
+        return currentTimer.get();
+    }
+
+    /**
+     * Adds the time elapsed since {@code phaseStartNanos} to a phase of the current thread's timer.
+     *
+     * @param phase           The phase to record
+     * @param phaseStartNanos {@link System#nanoTime()} when the phase started
+     */
+    public static void record(Phase phase, long phaseStartNanos) {
+        PhaseTimer phaseTimer = currentTimer.get();
+        if (phaseTimer != null) {
+            phaseTimer.add(phase, System.nanoTime() - phaseStartNanos);
+        }
+    }
+
+    /**
+     * Binds this timer to the current thread until the returned scope is closed.
+     *
+     * @return scope to close when the thread stops working on the request
+     */
+    public Scope bind() {
+        PhaseTimer previousTimer = currentTimer.get();
+        currentTimer.set(this);
+        return () -> {
+            if (previousTimer == null) {
+                currentTimer.remove();
+            } else {
+                currentTimer.set(previousTimer);
+            }
+        };
+    }
+
+    /**
+     * Adds time to a phase. Phases entered more than once accumulate.
+     */
+    public void add(Phase phase, long elapsedNanos) {
+        phaseNanos.addAndGet(phase.ordinal(), elapsedNanos);
+    }
+
+    /**
+     * @return nanoseconds recorded for the phase, 0 if it was not entered
+     */
+    public long get(Phase phase) {
+        return phaseNanos.get(phase.ordinal());
+    }
+
+    /**
+     * @return nanoseconds since this timer was created
+     */
+    public long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Marks the request as a SQL tool call, so its timings are included in the query latency metrics.
+     */
+    public void markSqlCall() {
+        sqlCall = true;
+    }
+
+    public boolean isSqlCall() {
+        return sqlCall;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder timingText = new StringBuilder();
+        for (Phase phase : Phase.values()) {
+            long elapsedNanos = get(phase);
+            if (elapsedNanos > 0) {
+                if (!timingText.isEmpty()) {
+                    timingText.append(' ');
+                }
+                timingText.append(phase.metricName()).append('=')
+                        .append(String.format("%.3f", elapsedNanos / 1_000_000.0)).append("ms");
+            }
+        }
+        return timingText.toString();
+    }
+}
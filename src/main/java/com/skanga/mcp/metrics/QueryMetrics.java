@@ -0,0 +1,82 @@
+package com.skanga.mcp.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Aggregates the phase timings of SQL tool calls into one latency histogram per phase,
+ * together with the distribution of result sizes.
+ */
+public class QueryMetrics {
+    private static final Logger logger = LoggerFactory.getLogger(QueryMetrics.class);
+
+    private final Map<Phase, LatencyHistogram> phaseHistograms = new EnumMap<>(Phase.class);
+    private final Histogram resultRows = new Histogram(0, 1, 10, 100, 1_000, 10_000, 100_000, 1_000_000);
+    private final Histogram responseBytes = new Histogram(1_024, 4_096, 16_384, 65_536, 262_144,
+            1_048_576, 4_194_304, 16_777_216, 67_108_864);
+
+    public QueryMetrics() {
+        for (Phase phase : Phase.values()) {
+            phaseHistograms.put(phase, new LatencyHistogram());
+        }
+    }
+
+    /**
+     * Adds a finished request to the histograms. Requests that were not SQL tool calls are ignored, and
+     * phases a request did not enter (e.g. all database phases on a result cache hit) are not counted.
+     *
+     * @param phaseTimer The request's timings; its total is taken as the time elapsed so far
+     */
+    public void record(PhaseTimer phaseTimer) {
+        record(phaseTimer, -1);
+    }
+
+    /**
+     * Adds a finished request to the histograms, including the size of the response written for it.
+     *
+     * @param phaseTimer        The request's timings; its total is taken as the time elapsed so far
+     * @param responseByteCount Size of the serialized response, or -1 if none was written
+     */
+    public void record(PhaseTimer phaseTimer, long responseByteCount) {
+        if (phaseTimer == null || !phaseTimer.isSqlCall()) {
+            return;
+        }
+        if (responseByteCount >= 0) {
+            responseBytes.record(responseByteCount);
+        }
+
+        phaseTimer.add(Phase.TOTAL, phaseTimer.elapsedNanos());
+        for (Phase phase : Phase.values()) {
+            long elapsedNanos = phaseTimer.get(phase);
+            if (elapsedNanos > 0) {
+                phaseHistograms.get(phase).record(elapsedNanos);
+            }
+        }
+        logger.debug("SQL tool call timings: {}", phaseTimer);
+    }
+
+    /**
+     * Records the number of rows a SQL tool call returned.
+     */
+    public void recordResultRows(long rowCount) {
+        resultRows.record(rowCount);
+    }
+
+    public Histogram resultRows() {
+        return resultRows;
+    }
+
+    public Histogram responseBytes() {
+        return responseBytes;
+    }
+
+    /**
+     * @return the histogram for a phase
+     */
+    public LatencyHistogram histogram(Phase phase) {
+        return phaseHistograms.get(phase);
+    }
+}
@@ -0,0 +1,91 @@
+package com.skanga.mcp.metrics;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts and latencies of MCP requests per method, and call and error counts per tool.
+ * Unknown method and tool names are folded into "other" so clients cannot grow the label set.
+ */
+public class RequestMetrics {
+    static final String OTHER_LABEL = "other";
+
+    private final Set<String> knownMethods;
+    private final Set<String> knownTools;
+    private final Map<String, LatencyHistogram> methodLatencies = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> methodErrors = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> toolCalls = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> toolErrors = new ConcurrentHashMap<>();
+
+    /**
+     * @param knownMethods MCP methods reported under their own name
+     * @param knownTools   Tool names reported under their own name
+     */
+    public RequestMetrics(Set<String> knownMethods, Set<String> knownTools) {
+        this.knownMethods = Set.copyOf(knownMethods);
+        this.knownTools = Set.copyOf(knownTools);
+    }
+
+    /**
+     * Records a handled request.
+     *
+     * @param requestMethod The JSON-RPC method
+     * @param elapsedNanos  Time spent handling it
+     * @param failed        Whether it ended with a JSON-RPC error
+     */
+    public void recordRequest(String requestMethod, long elapsedNanos, boolean failed) {
+        String methodLabel = knownMethods.contains(requestMethod) ? requestMethod : OTHER_LABEL;
+        methodLatencies.computeIfAbsent(methodLabel, ignored -> new LatencyHistogram()).record(elapsedNanos);
+        if (failed) {
+            methodErrors.computeIfAbsent(methodLabel, ignored -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * Records a tool call.
+     *
+     * @param toolName The tool that was called
+     * @param failed   Whether it returned a tool error or threw
+     */
+    public void recordToolCall(String toolName, boolean failed) {
+        String toolLabel = knownTools.contains(toolName) ? toolName : OTHER_LABEL;
+        toolCalls.computeIfAbsent(toolLabel, ignored -> new LongAdder()).increment();
+        if (failed) {
+            toolErrors.computeIfAbsent(toolLabel, ignored -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * @return latency histogram per method label; counts give the number of requests
+     */
+    public Map<String, LatencyHistogram> methodLatencies() {
+        return Map.copyOf(methodLatencies);
+    }
+
+    public long methodErrors(String methodLabel) {
+        LongAdder errorCount = methodErrors.get(methodLabel);
+        return errorCount == null ? 0 : errorCount.sum();
+    }
+
+    /**
+     * @return number of calls per tool label
+     */
+    public Map<String, Long> toolCalls() {
+        return snapshot(toolCalls);
+    }
+
+    /**
+     * @return number of failed calls per tool label
+     */
+    public Map<String, Long> toolErrors() {
+        return snapshot(toolErrors);
+    }
+
+    private static Map<String, Long> snapshot(Map<String, LongAdder> counters) {
+        Map<String, Long> counterSnapshot = new ConcurrentHashMap<>();
+        counters.forEach((counterLabel, counterValue) -> counterSnapshot.put(counterLabel, counterValue.sum()));
+        return counterSnapshot;
+    }
+}
@@ -0,0 +1,37 @@
+package com.skanga.mcp;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompressingResponseStreamTest {
+    @Test
+    void noAcceptEncodingMeansNoCompression() {
+        assertThat(CompressingResponseStream.negotiateEncoding(null)).isNull();
+        assertThat(CompressingResponseStream.negotiateEncoding(List.of("identity"))).isNull();
+        assertThat(CompressingResponseStream.negotiateEncoding(List.of("br, zstd"))).isNull();
+    }
+
+    @Test
+    void gzipIsPreferredOverDeflate() {
+        assertThat(CompressingResponseStream.negotiateEncoding(List.of("deflate, gzip"))).isEqualTo("gzip");
+        assertThat(CompressingResponseStream.negotiateEncoding(List.of("deflate", "x-gzip"))).isEqualTo("gzip");
+        assertThat(CompressingResponseStream.negotiateEncoding(List.of("DEFLATE;q=0.5"))).isEqualTo("deflate");
+    }
+
+    @Test
+    void zeroQualityRefusesAnEncoding() {
+        assertThat(CompressingResponseStream.negotiateEncoding(List.of("gzip;q=0, deflate"))).isEqualTo("deflate");
+        assertThat(CompressingResponseStream.negotiateEncoding(List.of("gzip; q=0.0"))).isNull();
+        assertThat(CompressingResponseStream.negotiateEncoding(List.of("*;q=0"))).isNull();
+    }
+
+    @Test
+    void wildcardAcceptsWhicheverEncodingIsNotRefused() {
+        assertThat(CompressingResponseStream.negotiateEncoding(List.of("*"))).isEqualTo("gzip");
+        assertThat(CompressingResponseStream.negotiateEncoding(List.of("gzip;q=0, *"))).isEqualTo("deflate");
+        assertThat(CompressingResponseStream.negotiateEncoding(List.of("gzip;q=0, deflate;q=0, *"))).isNull();
+    }
+}
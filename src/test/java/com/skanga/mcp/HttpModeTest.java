@@ -15,6 +15,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestMethodOrder;
 import org.mockito.Mock;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.net.ServerSocket;
 import java.net.URI;
@@ -23,10 +24,12 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.sql.SQLException;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -104,6 +107,7 @@ class HttpModeTest {
         lenient().when(mockConfigParams.queryTimeoutSeconds()).thenReturn(30);
         lenient().when(mockConfigParams.selectOnly()).thenReturn(true);
         lenient().when(mockConfigParams.getDatabaseType()).thenReturn("h2");
+        lenient().when(mockConfigParams.httpCompressionMinBytes()).thenReturn(1024);
         lenient().when(mockDatabaseService.getDatabaseConfig()).thenReturn(mockConfigParams);
     }
 
@@ -180,6 +184,7 @@ class HttpModeTest {
 
         HttpResponse<String> initResponse = sendMcpRequest(initializeRequest);
         assertEquals(200, initResponse.statusCode());
+        assertTrue(initResponse.headers().firstValue("Mcp-Session-Id").isPresent());
 
         String initializedNotification = """
         {
@@ -240,7 +245,7 @@ class HttpModeTest {
         assertEquals(200, optionsResponse.statusCode());
         assertEquals("*", optionsResponse.headers().firstValue("Access-Control-Allow-Origin").orElse(""));
         assertEquals("POST, OPTIONS", optionsResponse.headers().firstValue("Access-Control-Allow-Methods").orElse(""));
-        assertEquals("Content-Type", optionsResponse.headers().firstValue("Access-Control-Allow-Headers").orElse(""));
+        assertEquals("Content-Type, Mcp-Session-Id", optionsResponse.headers().firstValue("Access-Control-Allow-Headers").orElse(""));
     }
 
     @Test
@@ -665,6 +670,135 @@ class HttpModeTest {
         assertTrue(content.contains("[FLAGGED CONTENT]"));
     }
 
+    @Test
+    @Order(14)
+    void testMetricsEndpoint() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(BASE_URL + "/metrics"))
+                .timeout(Duration.ofSeconds(5))
+                .GET()
+                .build();
+
+        HttpResponse<String> response = sharedHttpClient.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith("text/plain; version=0.0.4"));
+
+        // Earlier tests made tools/call requests for run_sql
+        String metricsText = response.body();
+        assertTrue(metricsText.contains("# TYPE dbchat_request_duration_seconds histogram"));
+        assertTrue(metricsText.contains("dbchat_requests_total{method=\"tools/call\"}"));
+        assertTrue(metricsText.contains("dbchat_tool_calls_total{tool=\"run_sql\"}"));
+        assertTrue(metricsText.contains("dbchat_sql_phase_duration_seconds_bucket{phase=\"format\",le=\"+Inf\"}"));
+        assertTrue(metricsText.contains("dbchat_pool_connections{state=\"active\"}"));
+        assertTrue(metricsText.contains("jvm_memory_bytes_used{area=\"heap\"}"));
+    }
+
+    @Test
+    @Order(15)
+    void testSlowQueryDoesNotBlockOtherRequests() throws Exception {
+        CountDownLatch queryStarted = new CountDownLatch(1);
+        CountDownLatch releaseQuery = new CountDownLatch(1);
+        when(mockDatabaseService.executeSql(anyString(), anyInt(), any())).thenAnswer(invocation -> {
+            queryStarted.countDown();
+            releaseQuery.await(10, TimeUnit.SECONDS);
+            return new QueryResult(List.of("id"), List.of(List.of(1)), 1, 10L);
+        });
+
+        String slowQueryRequest = """
+        {
+            "jsonrpc": "2.0",
+            "id": 50,
+            "method": "tools/call",
+            "params": {"name": "run_sql", "arguments": {"sql": "SELECT id FROM slow_table"}}
+        }
+        """;
+        HttpRequest slowRequest = HttpRequest.newBuilder()
+                .uri(URI.create(BASE_URL + "/mcp"))
+                .timeout(Duration.ofSeconds(15))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(slowQueryRequest))
+                .build();
+        var slowResponse = sharedHttpClient.sendAsync(slowRequest, HttpResponse.BodyHandlers.ofString());
+
+        try {
+            assertTrue(queryStarted.await(5, TimeUnit.SECONDS));
+
+            // A ping is answered while the query still occupies its worker
+            long startNanos = System.nanoTime();
+            HttpResponse<String> pingResponse = sendMcpRequest("""
+            {"jsonrpc": "2.0", "id": 51, "method": "ping"}
+            """);
+            assertEquals(200, pingResponse.statusCode());
+            assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startNanos) < 5);
+            assertFalse(slowResponse.isDone());
+        } finally {
+            releaseQuery.countDown();
+        }
+
+        assertEquals(200, slowResponse.get(15, TimeUnit.SECONDS).statusCode());
+    }
+
+    @Test
+    @Order(16)
+    void testLargeResponseIsCompressed() throws Exception {
+        List<List<Object>> allRows = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            allRows.add(List.of(i, "customer name " + i));
+        }
+        when(mockDatabaseService.executeSql(anyString(), anyInt(), any()))
+                .thenReturn(new QueryResult(List.of("id", "name"), allRows, allRows.size(), 10L));
+
+        String queryRequest = """
+        {
+            "jsonrpc": "2.0",
+            "id": 60,
+            "method": "tools/call",
+            "params": {"name": "run_sql", "arguments": {"sql": "SELECT id, name FROM customers"}}
+        }
+        """;
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(BASE_URL + "/mcp"))
+                .timeout(Duration.ofSeconds(5))
+                .header("Content-Type", "application/json")
+                .header("Accept-Encoding", "br;q=1.0, gzip;q=0.8")
+                .POST(HttpRequest.BodyPublishers.ofString(queryRequest))
+                .build();
+
+        HttpResponse<byte[]> response = sharedHttpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals(200, response.statusCode());
+        assertEquals("gzip", response.headers().firstValue("Content-Encoding").orElse(null));
+        assertEquals("Accept-Encoding", response.headers().firstValue("Vary").orElse(null));
+
+        byte[] responseBody;
+        try (GZIPInputStream gzipStream = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+            responseBody = gzipStream.readAllBytes();
+        }
+        assertTrue(responseBody.length > response.body().length);
+        String content = objectMapper.readTree(responseBody).get("result").get("content").get(0).get("text").asText();
+        assertTrue(content.contains("customer name 199"));
+    }
+
+    @Test
+    @Order(17)
+    void testSmallResponseIsNotCompressed() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(BASE_URL + "/mcp"))
+                .timeout(Duration.ofSeconds(5))
+                .header("Content-Type", "application/json")
+                .header("Accept-Encoding", "gzip, deflate")
+                .POST(HttpRequest.BodyPublishers.ofString("""
+                {"jsonrpc": "2.0", "id": 61, "method": "ping"}
+                """))
+                .build();
+
+        HttpResponse<String> response = sharedHttpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Encoding").isEmpty());
+        assertEquals(String.valueOf(response.body().length()), response.headers().firstValue("Content-Length").orElse(null));
+        assertEquals(61, objectMapper.readTree(response.body()).get("id").asInt());
+    }
+
     @Test
     @Order(98)
     void testLifecycleViolations() throws Exception {
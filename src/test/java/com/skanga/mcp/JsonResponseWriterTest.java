@@ -0,0 +1,97 @@
+package com.skanga.mcp;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonResponseWriterTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void writeMatchesObjectMapperOutput() throws IOException {
+        StringBuilder largeText = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            largeText.append("row ").append(i).append(" | \"quoted\" \\ tab\t ünïcödé €\n");
+        }
+        ObjectNode responseNode = objectMapper.createObjectNode();
+        responseNode.put("jsonrpc", "2.0");
+        responseNode.put("text", largeText.toString());
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        long bytesWritten = JsonResponseWriter.write(responseNode, outputStream);
+
+        String expectedJson = objectMapper.writeValueAsString(responseNode);
+        assertThat(outputStream.toString(StandardCharsets.UTF_8)).isEqualTo(expectedJson);
+        assertThat(bytesWritten).isEqualTo(expectedJson.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    @Test
+    void streamedTextIsWrittenLikePlainText() throws IOException {
+        StringBuilder largeText = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            largeText.append("row ").append(i).append(" | \"quoted\" \\ tab\t ünïcödé € \uD83D\uDE00\n");
+        }
+        ObjectNode plainResponse = objectMapper.createObjectNode();
+        plainResponse.putArray("content").addObject().put("type", "text").put("text", largeText.toString());
+        ObjectNode streamedResponse = objectMapper.createObjectNode();
+        streamedResponse.putArray("content").addObject().put("type", "text")
+                .set("text", JsonResponseWriter.streamedText(largeText));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        long bytesWritten = JsonResponseWriter.write(streamedResponse, outputStream);
+
+        assertThat(objectMapper.readTree(outputStream.toByteArray())).isEqualTo(plainResponse);
+        assertThat(bytesWritten).isEqualTo(outputStream.size());
+    }
+
+    @Test
+    void streamedTextPartsAreWrittenInOrder() throws IOException {
+        StringBuilder renderedRows = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            renderedRows.append(i).append(",\"ünïcödé \uD83D\uDE00\"\n");
+        }
+        ObjectNode streamedResponse = objectMapper.createObjectNode();
+        streamedResponse.set("text", JsonResponseWriter.streamedText("header\n", new StringBuilder(), renderedRows, "footer"));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        JsonResponseWriter.write(streamedResponse, outputStream);
+
+        assertThat(objectMapper.readTree(outputStream.toByteArray()).get("text").asText())
+                .isEqualTo("header\n" + renderedRows + "footer");
+        assertThat(streamedResponse.get("text").asText()).isEqualTo("header\n" + renderedRows + "footer");
+    }
+
+    @Test
+    void materializeTurnsStreamedTextIntoTextNodes() {
+        ObjectNode responseNode = objectMapper.createObjectNode();
+        responseNode.putArray("content").addObject().set("text", JsonResponseWriter.streamedText(new StringBuilder("rows")));
+
+        JsonNode textNode = JsonResponseWriter.materialize(responseNode).path("content").get(0).get("text");
+
+        assertThat(textNode).isInstanceOf(TextNode.class);
+        assertThat(textNode.textValue()).isEqualTo("rows");
+    }
+
+    @Test
+    void writeLeavesStreamOpen() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                throw new AssertionError("stream must not be closed");
+            }
+        };
+
+        JsonResponseWriter.write(objectMapper.createObjectNode().put("id", 1), outputStream);
+        JsonResponseWriter.write(objectMapper.createObjectNode().put("id", 2), outputStream);
+
+        assertThat(outputStream.toString(StandardCharsets.UTF_8)).isEqualTo("{\"id\":1}{\"id\":2}");
+    }
+}
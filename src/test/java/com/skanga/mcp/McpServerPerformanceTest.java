@@ -270,6 +270,62 @@ class McpServerPerformanceTest {
         }
     }
 
+    @Test
+    @Timeout(value = 60, unit = TimeUnit.SECONDS)
+    @DisplayName("Should render a 10k x 20 table like per-cell String.format with double sanitization")
+    void shouldRenderLargeTableLikeFormatBasedRenderer() {
+        // Given - 10,000 rows x 20 columns of mixed values
+        int rowCount = 10_000;
+        int columnCount = 20;
+        List<String> columns = new ArrayList<>();
+        for (int i = 0; i < columnCount; i++) {
+            columns.add("column_" + i);
+        }
+        List<List<Object>> rows = new ArrayList<>(rowCount);
+        for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+            List<Object> row = new ArrayList<>(columnCount);
+            for (int i = 0; i < columnCount; i++) {
+                row.add(switch (i % 5) {
+                    case 0 -> rowIndex;
+                    case 1 -> "name_" + rowIndex;
+                    case 2 -> rowIndex * 1.5;
+                    case 3 -> rowIndex % 7 == 0 ? null : "text value " + (rowIndex % 100);
+                    default -> rowIndex % 2 == 0;
+                });
+            }
+            rows.add(row);
+        }
+        QueryResult result = new QueryResult(columns, rows, rowCount, 1L);
+
+        // When - warm up both renderers, then keep the best of several timed runs
+        String expectedTable = formatWithStringFormat(result);
+        StringBuilder renderedTable = new StringBuilder();
+        McpServer.appendResultsAsTable(renderedTable, result);
+        for (int i = 0; i < 2; i++) {
+            formatWithStringFormat(result);
+            McpServer.appendResultsAsTable(new StringBuilder(), result);
+        }
+
+        long formatBasedNanos = Long.MAX_VALUE;
+        long singlePassNanos = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            long startTime = System.nanoTime();
+            formatWithStringFormat(result);
+            formatBasedNanos = Math.min(formatBasedNanos, System.nanoTime() - startTime);
+
+            startTime = System.nanoTime();
+            McpServer.appendResultsAsTable(new StringBuilder(), result);
+            singlePassNanos = Math.min(singlePassNanos, System.nanoTime() - startTime);
+        }
+
+        // Then - identical output; timings are only reported, since wall-clock comparisons are noisy on shared CI
+        assertThat(renderedTable.toString()).isEqualTo(expectedTable);
+
+        System.out.printf("Rendering %d x %d table: String.format renderer %dms, single-pass renderer %dms (%.1fx)%n",
+                rowCount, columnCount, TimeUnit.NANOSECONDS.toMillis(formatBasedNanos),
+                TimeUnit.NANOSECONDS.toMillis(singlePassNanos), (double) formatBasedNanos / singlePassNanos);
+    }
+
     // Helper methods for setting up mocks
     private void setupLargeResultSetMock(int rowCount) throws SQLException {
         when(mockMetaData.getColumnCount()).thenReturn(5);
@@ -433,6 +489,45 @@ class McpServerPerformanceTest {
         return sb.toString();
     }
 
+    // Previous table renderer, kept as the benchmark baseline: sanitizes every cell twice and
+    // pads each one with a freshly built String.format pattern
+    private static String formatWithStringFormat(QueryResult result) {
+        List<String> columns = result.allColumns();
+        List<List<Object>> rows = result.allRows();
+
+        int[] widths = new int[columns.size()];
+        for (int i = 0; i < columns.size(); i++) {
+            widths[i] = columns.get(i).length();
+        }
+        for (List<Object> row : rows) {
+            for (int i = 0; i < row.size() && i < widths.length; i++) {
+                widths[i] = Math.max(widths[i], SecurityUtils.sanitizeValue(row.get(i)).length());
+            }
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("DATA TABLE (UNTRUSTED CONTENT)\n");
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) sb.append(" | ");
+            sb.append(String.format("%-" + widths[i] + "s", columns.get(i)));
+        }
+        sb.append("\n");
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) sb.append("-+-");
+            sb.append("-".repeat(widths[i]));
+        }
+        sb.append("\n");
+        for (List<Object> row : rows) {
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) sb.append(" | ");
+                Object value = i < row.size() ? row.get(i) : null;
+                sb.append(String.format("%-" + widths[i] + "s", SecurityUtils.sanitizeValue(value)));
+            }
+            sb.append("\n");
+        }
+        return sb.toString();
+    }
+
     // Mock service implementation
     private static class MockDatabaseService extends DatabaseService {
         private final Connection mockConnection;
@@ -2,12 +2,22 @@ package com.skanga.mcp;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.skanga.mcp.config.CliUtils;
 import com.skanga.mcp.config.ConfigParams;
+import com.skanga.mcp.config.ResourceManager;
+import com.skanga.mcp.db.BatchQuery;
+import com.skanga.mcp.db.BatchResult;
 import com.skanga.mcp.db.DatabaseResource;
 import com.skanga.mcp.db.DatabaseService;
 import com.skanga.mcp.db.QueryResult;
+import com.skanga.mcp.db.ResourcePage;
+import com.skanga.mcp.db.RowHandler;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -15,17 +25,32 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.io.*;
+import java.net.URI;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -834,7 +859,7 @@ class McpServerTest {
 
         JsonNode tools = result.get("tools");
         assertTrue(tools.isArray());
-        assertEquals(6, tools.size());
+        assertEquals(8, tools.size());
 
         JsonNode queryTool = tools.get(0);
         assertEquals("run_sql", queryTool.get("name").asText());
@@ -868,6 +893,15 @@ class McpServerTest {
         assertEquals("workflow_choice", workflowChoiceTool.get("name").asText());
         assertTrue(workflowChoiceTool.get("description").asText().contains("WORKFLOW PROGRESSION"));
         assertTrue(workflowChoiceTool.has("inputSchema"));
+
+        JsonNode fetchRowsTool = tools.get(6);
+        assertEquals("fetch_rows", fetchRowsTool.get("name").asText());
+        assertEquals("cursor_id", fetchRowsTool.path("inputSchema").path("required").get(0).asText());
+        assertTrue(fetchRowsTool.has("security"));
+
+        JsonNode batchTool = tools.get(7);
+        assertEquals("run_sql_batch", batchTool.get("name").asText());
+        assertEquals(McpServer.MAX_BATCH_QUERIES, batchTool.path("inputSchema").path("properties").path("queries").path("maxItems").asInt());
     }
 
     @Test
@@ -921,6 +955,41 @@ class McpServerTest {
         assertEquals("Active Workflow Status", workflowStatusResource.get("name").asText());
     }
 
+    @Test
+    void testHandleListResources_Paginated() throws Exception {
+        TestUtils.initializeServer(mcpServer, objectMapper);
+        when(mockDatabaseConfig.resourcePageSize()).thenReturn(2);
+
+        // Arrange - a listing of three resources served in pages of two
+        DatabaseResource infoResource = new DatabaseResource("database://info", "Database Info", "Database information", "text/plain", null);
+        DatabaseResource usersResource = new DatabaseResource("database://table/users", "users", "User table", "text/plain", null);
+        DatabaseResource ordersResource = new DatabaseResource("database://table/orders", "orders", "Order table", "text/plain", null);
+        when(mockDatabaseService.listResources(null, 2)).thenReturn(new ResourcePage(List.of(infoResource, usersResource), "page-2"));
+        when(mockDatabaseService.listResources("page-2", 2)).thenReturn(new ResourcePage(List.of(ordersResource), null));
+
+        ObjectNode firstRequest = objectMapper.createObjectNode();
+        firstRequest.put("id", 1);
+        firstRequest.put("method", "resources/list");
+
+        // Act
+        JsonNode firstResult = mcpServer.handleRequest(firstRequest).get("result");
+
+        ObjectNode secondRequest = objectMapper.createObjectNode();
+        secondRequest.put("id", 2);
+        secondRequest.put("method", "resources/list");
+        secondRequest.putObject("params").put("cursor", firstResult.get("nextCursor").asText());
+        JsonNode secondResult = mcpServer.handleRequest(secondRequest).get("result");
+
+        // Assert - server resources only follow the last page of database resources
+        assertEquals("page-2", firstResult.get("nextCursor").asText());
+        assertEquals(2, firstResult.get("resources").size());
+        assertEquals("database://table/users", firstResult.get("resources").get(1).get("uri").asText());
+        assertFalse(secondResult.has("nextCursor"));
+        assertEquals("database://table/orders", secondResult.get("resources").get(0).get("uri").asText());
+        assertEquals(4, secondResult.get("resources").size());
+        verify(mockDatabaseService, never()).listResources();
+    }
+
     @Test
     void testHandleReadResource_Success() throws Exception {
         TestUtils.initializeServer(mcpServer, objectMapper);
@@ -1299,6 +1368,95 @@ class McpServerTest {
         assertFalse(output.contains("result"));
     }
 
+    @Test
+    void testStdioMode_PipelinesRequestsBehindSlowQuery() throws Exception {
+        String stdioInput = """
+        {"jsonrpc": "2.0", "id": 1, "method": "initialize", "params": {"protocolVersion": "2025-06-18", "capabilities": {}}}
+        {"jsonrpc": "2.0", "method": "notifications/initialized"}
+        {"jsonrpc": "2.0", "id": 2, "method": "tools/call", "params": {"name": "run_sql", "arguments": {"sql": "SELECT id FROM slow_table"}}}
+        {"jsonrpc": "2.0", "id": 3, "method": "tools/list"}
+        {"jsonrpc": "2.0", "id": 4, "method": "ping"}
+        """;
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // The query only completes once both requests sent after it have been answered
+        when(mockDatabaseService.executeSql(anyString(), anyInt(), any())).thenAnswer(invocation -> {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (System.currentTimeMillis() < deadline &&
+                    !(outputStream.toString().contains("\"id\":3") && outputStream.toString().contains("\"id\":4"))) {
+                Thread.sleep(10);
+            }
+            return new QueryResult(List.of("id"), List.of(List.of(1)), 1, 10L);
+        });
+
+        InputStream originalIn = System.in;
+        PrintStream originalOut = System.out;
+        try {
+            System.setIn(new ByteArrayInputStream(stdioInput.getBytes()));
+            System.setOut(new PrintStream(outputStream, true));
+
+            mcpServer.startStdioMode();
+        } finally {
+            System.setIn(originalIn);
+            System.setOut(originalOut);
+        }
+
+        String[] responseLines = outputStream.toString().trim().split("\n");
+        assertEquals(4, responseLines.length);
+        List<Integer> responseIds = Arrays.stream(responseLines)
+                .map(responseLine -> assertDoesNotThrow(() -> objectMapper.readTree(responseLine)).get("id").asInt())
+                .toList();
+        assertEquals(1, responseIds.get(0));
+        assertEquals(2, responseIds.get(3));
+        assertTrue(responseIds.containsAll(List.of(3, 4)));
+    }
+
+    @Test
+    void testStdioMode_CancelsRequestWaitingForWorker() throws Exception {
+        // Four slow queries occupy every stdio worker, so request 9 is still queued when its cancellation is read
+        String stdioInput = """
+        {"jsonrpc": "2.0", "id": 1, "method": "initialize", "params": {"protocolVersion": "2025-06-18", "capabilities": {}}}
+        {"jsonrpc": "2.0", "method": "notifications/initialized"}
+        {"jsonrpc": "2.0", "id": 2, "method": "tools/call", "params": {"name": "run_sql", "arguments": {"sql": "SELECT id FROM slow_table"}}}
+        {"jsonrpc": "2.0", "id": 3, "method": "tools/call", "params": {"name": "run_sql", "arguments": {"sql": "SELECT id FROM slow_table"}}}
+        {"jsonrpc": "2.0", "id": 4, "method": "tools/call", "params": {"name": "run_sql", "arguments": {"sql": "SELECT id FROM slow_table"}}}
+        {"jsonrpc": "2.0", "id": 5, "method": "tools/call", "params": {"name": "run_sql", "arguments": {"sql": "SELECT id FROM slow_table"}}}
+        {"jsonrpc": "2.0", "id": 9, "method": "tools/call", "params": {"name": "run_sql", "arguments": {"sql": "SELECT id FROM queued_table"}}}
+        {"jsonrpc": "2.0", "method": "notifications/cancelled", "params": {"requestId": 9}}
+        """;
+        when(mockDatabaseConfig.maxConnections()).thenReturn(1);
+        CountDownLatch cancellationRead = new CountDownLatch(1);
+        when(mockDatabaseService.cancelRequest("9")).thenAnswer(invocation -> {
+            cancellationRead.countDown();
+            return false;
+        });
+        when(mockDatabaseService.executeSql(anyString(), anyInt(), any())).thenAnswer(invocation -> {
+            cancellationRead.await(5, TimeUnit.SECONDS);
+            return new QueryResult(List.of("id"), List.of(List.of(1)), 1, 10L);
+        });
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        InputStream originalIn = System.in;
+        PrintStream originalOut = System.out;
+        try {
+            System.setIn(new ByteArrayInputStream(stdioInput.getBytes()));
+            System.setOut(new PrintStream(outputStream, true));
+
+            mcpServer.startStdioMode();
+        } finally {
+            System.setIn(originalIn);
+            System.setOut(originalOut);
+        }
+
+        List<Integer> responseIds = Arrays.stream(outputStream.toString().trim().split("\n"))
+                .map(responseLine -> assertDoesNotThrow(() -> objectMapper.readTree(responseLine)).get("id").asInt())
+                .toList();
+        assertEquals(0, cancellationRead.getCount());
+        assertTrue(responseIds.containsAll(List.of(1, 2, 3, 4, 5)));
+        assertFalse(responseIds.contains(9));
+        verify(mockDatabaseService, never()).executeSql(eq("SELECT id FROM queued_table"), anyInt(), any());
+    }
+
     @Test
     void testLoadConfigFile_ValidFile() throws IOException {
         // Create a temporary config file
@@ -1754,4 +1912,364 @@ class McpServerTest {
         assertNotNull(result);
         assertFalse(result.path("x-dbchat-is-error").asBoolean(true));
     }
+
+    @Test
+    void testExecToolRunSqlBatch_ReportsEachQuery() throws Exception {
+        QueryResult firstResult = new QueryResult(List.of("total"), List.of(List.of(42)), 1, 3);
+        when(mockDatabaseService.executeSqlBatch(any(), anyInt())).thenReturn(List.of(
+                new BatchResult(firstResult, null, 5),
+                new BatchResult(null, new SQLException("Table \"MISSING\" not found"), 2)));
+
+        ObjectNode arguments = objectMapper.createObjectNode();
+        ArrayNode queries = arguments.putArray("queries");
+        queries.addObject().put("sql", "SELECT COUNT(*) AS total FROM users");
+        queries.addObject().put("sql", "SELECT * FROM missing WHERE id = ?").putArray("params").add(7);
+
+        JsonNode result = mcpServer.execToolRunSqlBatch(arguments, null);
+
+        assertFalse(result.path("x-dbchat-is-error").asBoolean(true));
+        String text = result.path("content").get(0).path("text").asText();
+        assertTrue(text.contains("QUERY 1 OF 2"));
+        assertTrue(text.contains("42"));
+        assertTrue(text.contains("Status: FAILED"));
+        assertTrue(text.contains("MISSING"));
+        verify(mockDatabaseService).executeSqlBatch(List.of(
+                new BatchQuery("SELECT COUNT(*) AS total FROM users", null),
+                new BatchQuery("SELECT * FROM missing WHERE id = ?", List.of(7))), 1000);
+    }
+
+    @Test
+    void testExecToolRunSqlBatch_RejectsEmptyAndOversizedBatches() {
+        ObjectNode emptyArguments = objectMapper.createObjectNode();
+        emptyArguments.putArray("queries");
+        assertThrows(IllegalArgumentException.class, () -> mcpServer.execToolRunSqlBatch(emptyArguments, null));
+
+        ObjectNode oversizedArguments = objectMapper.createObjectNode();
+        ArrayNode queries = oversizedArguments.putArray("queries");
+        for (int i = 0; i <= McpServer.MAX_BATCH_QUERIES; i++) {
+            queries.addObject().put("sql", "SELECT " + i);
+        }
+        assertThrows(IllegalArgumentException.class, () -> mcpServer.execToolRunSqlBatch(oversizedArguments, null));
+    }
+
+    @Test
+    void testNotificationCancelled_AbortsRunningQuery() throws Exception {
+        TestUtils.initializeServer(mcpServer, objectMapper);
+        CountDownLatch queryStarted = new CountDownLatch(1);
+        when(mockDatabaseService.executeSql(anyString(), anyInt(), any())).thenAnswer(invocation -> {
+            queryStarted.countDown();
+            Thread.sleep(30000); // Interrupted by the cancellation
+            return new QueryResult(List.of("id"), List.of(), 0, 0);
+        });
+
+        ObjectNode callRequest = objectMapper.createObjectNode();
+        callRequest.put("jsonrpc", "2.0");
+        callRequest.put("id", 42);
+        callRequest.put("method", "tools/call");
+        ObjectNode callParams = callRequest.putObject("params");
+        callParams.put("name", "run_sql");
+        callParams.putObject("arguments").put("sql", "SELECT * FROM big_table");
+
+        CompletableFuture<JsonNode> pendingResponse = CompletableFuture.supplyAsync(() -> mcpServer.handleRequest(callRequest));
+        assertTrue(queryStarted.await(5, TimeUnit.SECONDS));
+
+        ObjectNode cancelNotification = objectMapper.createObjectNode();
+        cancelNotification.put("jsonrpc", "2.0");
+        cancelNotification.put("method", "notifications/cancelled");
+        cancelNotification.putObject("params").put("requestId", 42).put("reason", "User requested cancellation");
+        assertNull(mcpServer.handleRequest(cancelNotification));
+
+        // Cancelled requests get no response, and the statement is cancelled right away
+        assertNull(pendingResponse.get(5, TimeUnit.SECONDS));
+        verify(mockDatabaseService, timeout(1000)).cancelRequest("42");
+    }
+
+    @Test
+    void testCreateHttpExecutor_SizesFromConfig() {
+        ConfigParams autoConfig = ConfigParams.defaultConfig("jdbc:h2:mem:test", "sa", "", "org.h2.Driver");
+        ThreadPoolExecutor autoExecutor = (ThreadPoolExecutor) McpServer.createHttpExecutor(autoConfig);
+        try {
+            assertEquals(Math.max(4, autoConfig.maxConnections() * 2), autoExecutor.getMaximumPoolSize());
+            assertEquals(autoConfig.httpQueueSize(), autoExecutor.getQueue().remainingCapacity());
+            assertInstanceOf(McpServer.ServiceUnavailablePolicy.class, autoExecutor.getRejectedExecutionHandler());
+        } finally {
+            autoExecutor.shutdownNow();
+        }
+
+        when(mockConfigParams.httpThreads()).thenReturn(3);
+        when(mockConfigParams.httpQueueSize()).thenReturn(0);
+        ThreadPoolExecutor fixedExecutor = (ThreadPoolExecutor) McpServer.createHttpExecutor(mockConfigParams);
+        try {
+            assertEquals(3, fixedExecutor.getMaximumPoolSize());
+            assertEquals(0, fixedExecutor.getQueue().remainingCapacity());
+        } finally {
+            fixedExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testCreateHttpExecutor_MarksRejectedExchanges() throws Exception {
+        when(mockConfigParams.httpThreads()).thenReturn(1);
+        when(mockConfigParams.httpQueueSize()).thenReturn(0);
+        ThreadPoolExecutor httpExecutor = (ThreadPoolExecutor) McpServer.createHttpExecutor(mockConfigParams);
+        CountDownLatch releaseWorker = new CountDownLatch(1);
+        try {
+            httpExecutor.execute(() -> {
+                try {
+                    releaseWorker.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+
+            // The only worker is busy, so the next exchange runs on the caller marked as rejected
+            AtomicBoolean rejected = new AtomicBoolean();
+            httpExecutor.execute(() -> rejected.set(McpServer.ServiceUnavailablePolicy.isRejected()));
+            assertTrue(rejected.get());
+            assertFalse(McpServer.ServiceUnavailablePolicy.isRejected());
+        } finally {
+            releaseWorker.countDown();
+            httpExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testServiceUnavailableFilter_AnswersRejectedExchangesWithoutHandler() throws Exception {
+        when(mockConfigParams.httpThreads()).thenReturn(1);
+        when(mockConfigParams.httpQueueSize()).thenReturn(0);
+        ThreadPoolExecutor httpExecutor = (ThreadPoolExecutor) McpServer.createHttpExecutor(mockConfigParams);
+        CountDownLatch releaseWorker = new CountDownLatch(1);
+        HttpHandler healthHandler = mock(HttpHandler.class);
+        HttpExchange httpExchange = mock(HttpExchange.class);
+        Headers responseHeaders = new Headers();
+        when(httpExchange.getRequestURI()).thenReturn(URI.create("/health"));
+        when(httpExchange.getResponseHeaders()).thenReturn(responseHeaders);
+        when(httpExchange.getResponseBody()).thenReturn(new ByteArrayOutputStream());
+        Filter.Chain filterChain = new Filter.Chain(List.of(new ServiceUnavailableFilter()), healthHandler);
+        try {
+            httpExecutor.execute(() -> {
+                try {
+                    releaseWorker.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+
+            httpExecutor.execute(() -> {
+                try {
+                    filterChain.doFilter(httpExchange);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+
+            verify(httpExchange).sendResponseHeaders(eq(503), anyLong());
+            assertEquals("1", responseHeaders.getFirst("Retry-After"));
+            verify(healthHandler, never()).handle(any());
+
+            // With a free worker the exchange reaches the handler
+            releaseWorker.countDown();
+            filterChain.doFilter(httpExchange);
+            verify(healthHandler).handle(httpExchange);
+        } finally {
+            releaseWorker.countDown();
+            httpExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testRunSql_CsvFormat() throws Exception {
+        when(mockDatabaseService.getDatabaseConfig()).thenReturn(mockDatabaseConfig);
+        when(mockDatabaseConfig.maxSqlLength()).thenReturn(10000);
+        when(mockDatabaseConfig.maxRowsLimit()).thenReturn(10000);
+        when(mockDatabaseConfig.getDatabaseType()).thenReturn("h2");
+        // Row-by-row formats receive the rows while they are fetched
+        when(mockDatabaseService.executeSql(anyString(), anyInt(), any(), any(RowHandler.class))).thenAnswer(invocation ->
+                streamRows(invocation.getArgument(3), List.of("id", "name"),
+                        "SELECT 1 AS id, 'Smith, John' AS name UNION ALL SELECT 2, NULL"));
+
+        ObjectNode args = objectMapper.createObjectNode();
+        args.put("sql", "SELECT id, name FROM users");
+        args.put("format", "CSV");
+        JsonNode response = mcpServer.execToolRunSql(args);
+
+        String resultText = response.get("content").get(0).get("text").asText();
+        assertTrue(resultText.contains("Rows returned: 2"));
+        assertTrue(resultText.contains("Output format: csv"));
+        assertTrue(resultText.contains("CSV DATA (UNTRUSTED CONTENT)\nid,name\n1,\"Smith, John\"\n2,\n"));
+        assertTrue(resultText.endsWith(ResourceManager.getSecurityWarning(
+                ResourceManager.SecurityWarnings.RESULT_FOOTER, "=".repeat(80))));
+        assertFalse(resultText.contains("+--"));
+        verify(mockDatabaseService, never()).executeSql(anyString(), anyInt(), any());
+    }
+
+    @Test
+    void testRunSql_StreamedRowsStopAtByteBudget() throws Exception {
+        when(mockDatabaseService.getDatabaseConfig()).thenReturn(mockDatabaseConfig);
+        when(mockDatabaseConfig.maxSqlLength()).thenReturn(10000);
+        when(mockDatabaseConfig.maxRowsLimit()).thenReturn(10000);
+        when(mockDatabaseConfig.getDatabaseType()).thenReturn("h2");
+        AtomicBoolean fetchStopped = new AtomicBoolean();
+        when(mockDatabaseService.executeSql(anyString(), anyInt(), any(), any(RowHandler.class))).thenAnswer(invocation -> {
+            QueryResult streamedResult = streamRows(invocation.getArgument(3), List.of("id", "description"),
+                    "SELECT X AS id, REPEAT('x', 400) AS description FROM SYSTEM_RANGE(1, 1000)");
+            fetchStopped.set(streamedResult.rowCount() < 1000);
+            return streamedResult;
+        });
+
+        ObjectNode args = objectMapper.createObjectNode();
+        args.put("sql", "SELECT id, description FROM items");
+        args.put("format", "jsonl");
+        args.put("maxBytes", 4000);
+        JsonNode response = mcpServer.execToolRunSql(args);
+
+        String resultText = response.get("content").get(0).get("text").asText();
+        assertTrue(fetchStopped.get());
+        assertTrue(response.get("x-dbchat-truncated").asBoolean());
+        assertTrue(resultText.contains("cells shortened to " + ResultBudget.MIN_CELL_WIDTH + " bytes"));
+        assertTrue(resultText.contains("further rows were not fetched"));
+        assertTrue(resultText.contains("{\"id\":1,\"description\":\"xxxx"));
+    }
+
+    /**
+     * Feeds the rows of an H2 query to a row handler the way the database service does.
+     */
+    private static QueryResult streamRows(RowHandler rowHandler, List<String> columnNames, String sqlQuery)
+            throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:stream_rows", "sa", "");
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(sqlQuery)) {
+            rowHandler.onColumns(columnNames, resultSet.getMetaData());
+            int rowCount = 0;
+            while (resultSet.next()) {
+                rowCount++;
+                if (!rowHandler.onRow(resultSet)) {
+                    break;
+                }
+            }
+            return new QueryResult(columnNames, List.of(), rowCount, 5L);
+        }
+    }
+
+    @Test
+    void testRunSql_UnsupportedFormatRejected() throws Exception {
+        when(mockDatabaseService.getDatabaseConfig()).thenReturn(mockDatabaseConfig);
+        when(mockDatabaseConfig.maxSqlLength()).thenReturn(10000);
+
+        ObjectNode args = objectMapper.createObjectNode();
+        args.put("sql", "SELECT 1");
+        args.put("format", "xml");
+
+        IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class, () -> mcpServer.execToolRunSql(args));
+        assertTrue(thrown.getMessage().contains("xml"));
+        verify(mockDatabaseService, never()).executeSql(anyString(), anyInt(), any());
+    }
+
+    @Test
+    void testRunSql_ByteBudgetTruncatesResult() throws Exception {
+        when(mockDatabaseService.getDatabaseConfig()).thenReturn(mockDatabaseConfig);
+        when(mockDatabaseConfig.maxSqlLength()).thenReturn(10000);
+        when(mockDatabaseConfig.maxRowsLimit()).thenReturn(10000);
+        when(mockDatabaseConfig.maxResultBytes()).thenReturn(1_048_576);
+        when(mockDatabaseConfig.getDatabaseType()).thenReturn("h2");
+        List<List<Object>> allRows = new java.util.ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            allRows.add(List.of(i, "z".repeat(300)));
+        }
+        when(mockDatabaseService.executeSql(anyString(), anyInt(), any()))
+                .thenReturn(new QueryResult(List.of("id", "body"), allRows, 500, 5L));
+
+        ObjectNode args = objectMapper.createObjectNode();
+        args.put("sql", "SELECT id, body FROM documents");
+        args.put("maxBytes", 8000);
+        JsonNode response = mcpServer.execToolRunSql(args);
+
+        String resultText = response.get("content").get(0).get("text").asText();
+        assertTrue(response.get("x-dbchat-truncated").asBoolean());
+        assertTrue(resultText.contains("Rows returned: 500"));
+        assertTrue(resultText.contains("Result truncated to fit the 8000 byte budget:"));
+        assertTrue(resultText.contains("trailing rows omitted"));
+        assertFalse(resultText.contains("z".repeat(300)));
+    }
+
+    @Test
+    void testRunSql_MemoryLimitedResultReported() throws Exception {
+        when(mockDatabaseService.getDatabaseConfig()).thenReturn(mockDatabaseConfig);
+        when(mockDatabaseConfig.maxSqlLength()).thenReturn(10000);
+        when(mockDatabaseConfig.maxRowsLimit()).thenReturn(10000);
+        when(mockDatabaseConfig.getDatabaseType()).thenReturn("h2");
+        when(mockDatabaseService.executeSql(anyString(), anyInt(), any()))
+                .thenReturn(new QueryResult(List.of("id"), List.of(List.of(1), List.of(2)), 2, 5L, true));
+
+        ObjectNode args = objectMapper.createObjectNode();
+        args.put("sql", "SELECT id FROM wide_table");
+        JsonNode response = mcpServer.execToolRunSql(args);
+
+        String resultText = response.get("content").get(0).get("text").asText();
+        assertTrue(response.get("x-dbchat-truncated").asBoolean());
+        assertTrue(resultText.contains("Result cut short: the server memory budget was reached after 2 rows"));
+    }
+
+    @Test
+    void testRunSql_ByteBudgetAboveServerLimitRejected() {
+        when(mockDatabaseService.getDatabaseConfig()).thenReturn(mockDatabaseConfig);
+        when(mockDatabaseConfig.maxSqlLength()).thenReturn(10000);
+        when(mockDatabaseConfig.maxResultBytes()).thenReturn(1000);
+
+        ObjectNode args = objectMapper.createObjectNode();
+        args.put("sql", "SELECT 1");
+        args.put("maxBytes", 5000);
+
+        IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class, () -> mcpServer.execToolRunSql(args));
+        assertTrue(thrown.getMessage().contains("1000"));
+    }
+
+    @Test
+    void testNotificationCancelled_ScopedToSession() throws Exception {
+        TestUtils.initializeServer(mcpServer, objectMapper);
+        CountDownLatch queryStarted = new CountDownLatch(1);
+        when(mockDatabaseService.executeSql(anyString(), anyInt(), any())).thenAnswer(invocation -> {
+            queryStarted.countDown();
+            Thread.sleep(30000); // Interrupted by the cancellation
+            return new QueryResult(List.of("id"), List.of(), 0, 0);
+        });
+
+        ObjectNode callRequest = objectMapper.createObjectNode();
+        callRequest.put("jsonrpc", "2.0");
+        callRequest.put("id", 1);
+        callRequest.put("method", "tools/call");
+        ObjectNode callParams = callRequest.putObject("params");
+        callParams.put("name", "run_sql");
+        callParams.putObject("arguments").put("sql", "SELECT * FROM big_table");
+
+        CompletableFuture<JsonNode> pendingResponse =
+                CompletableFuture.supplyAsync(() -> mcpServer.handleRequest(callRequest, "session-a"));
+        assertTrue(queryStarted.await(5, TimeUnit.SECONDS));
+
+        ObjectNode cancelNotification = objectMapper.createObjectNode();
+        cancelNotification.put("jsonrpc", "2.0");
+        cancelNotification.put("method", "notifications/cancelled");
+        cancelNotification.putObject("params").put("requestId", 1);
+
+        // Another client's request 1 is not this one
+        assertNull(mcpServer.handleRequest(cancelNotification, "session-b"));
+        verify(mockDatabaseService, never()).cancelRequest(anyString());
+        assertFalse(pendingResponse.isDone());
+
+        assertNull(mcpServer.handleRequest(cancelNotification, "session-a"));
+        assertNull(pendingResponse.get(5, TimeUnit.SECONDS));
+        verify(mockDatabaseService, timeout(1000)).cancelRequest("session-a/1");
+    }
+
+    @Test
+    void testNotificationCancelled_UnknownRequestIgnored() {
+        TestUtils.initializeServer(mcpServer, objectMapper);
+
+        ObjectNode cancelNotification = objectMapper.createObjectNode();
+        cancelNotification.put("jsonrpc", "2.0");
+        cancelNotification.put("method", "notifications/cancelled");
+        cancelNotification.putObject("params").put("requestId", "no-such-request");
+
+        assertNull(mcpServer.handleRequest(cancelNotification));
+    }
 }
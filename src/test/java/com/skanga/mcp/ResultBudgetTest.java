@@ -0,0 +1,158 @@
+package com.skanga.mcp;
+
+import com.skanga.mcp.db.ColumnarRows;
+import com.skanga.mcp.db.QueryResult;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResultBudgetTest {
+    private static QueryResult createResult(int rowCount, int textLength) {
+        List<List<Object>> allRows = new ArrayList<>();
+        for (int i = 0; i < rowCount; i++) {
+            allRows.add(List.of(i, "x".repeat(textLength)));
+        }
+        return new QueryResult(List.of("id", "description"), allRows, rowCount, 1L);
+    }
+
+    private static String render(ResultFormat resultFormat, QueryResult queryResult) {
+        StringBuilder resultBuilder = new StringBuilder();
+        resultFormat.append(resultBuilder, queryResult);
+        return resultBuilder.toString();
+    }
+
+    @Test
+    void resultWithinBudgetIsUnchanged() {
+        QueryResult queryResult = createResult(10, 20);
+
+        ResultBudget.FittedResult fittedResult = ResultBudget.fit(queryResult, ResultFormat.TABLE, 10_000);
+
+        assertThat(fittedResult.truncated()).isFalse();
+        assertThat(fittedResult.queryResult()).isSameAs(queryResult);
+    }
+
+    @Test
+    void unlimitedBudgetIsUnchanged() {
+        QueryResult queryResult = createResult(1000, 400);
+
+        ResultBudget.FittedResult fittedResult = ResultBudget.fit(queryResult, ResultFormat.CSV, 0);
+
+        assertThat(fittedResult.truncated()).isFalse();
+        assertThat(fittedResult.queryResult()).isSameAs(queryResult);
+    }
+
+    @Test
+    void wideCellsAreShortenedBeforeRowsAreDropped() {
+        QueryResult queryResult = createResult(20, 400);
+
+        for (ResultFormat resultFormat : ResultFormat.values()) {
+            ResultBudget.FittedResult fittedResult = ResultBudget.fit(queryResult, resultFormat, 4_000);
+
+            assertThat(fittedResult.omittedRows()).as(resultFormat.formatName()).isZero();
+            assertThat(fittedResult.truncatedCells()).isEqualTo(20);
+            assertThat(fittedResult.cellWidth()).isBetween(ResultBudget.MIN_CELL_WIDTH, 399);
+            assertThat(fittedResult.omittedBytes()).isPositive();
+
+            Object shortenedCell = fittedResult.queryResult().allRows().get(0).get(1);
+            assertThat(shortenedCell.toString()).hasSize(fittedResult.cellWidth()).endsWith(ResultBudget.TRUNCATION_MARKER);
+            assertThat(fittedResult.queryResult().allRows().get(0).get(0)).isEqualTo(0);
+            assertThat(render(resultFormat, fittedResult.queryResult()).length()).isLessThanOrEqualTo(4_000);
+        }
+    }
+
+    @Test
+    void trailingRowsAreDroppedWhenNarrowCellsDoNotFit() {
+        QueryResult queryResult = createResult(1000, 10);
+
+        for (ResultFormat resultFormat : ResultFormat.values()) {
+            ResultBudget.FittedResult fittedResult = ResultBudget.fit(queryResult, resultFormat, 2_000);
+
+            int keptRows = fittedResult.queryResult().rowCount();
+            assertThat(fittedResult.truncatedCells()).as(resultFormat.formatName()).isZero();
+            assertThat(fittedResult.omittedRows()).isEqualTo(1000 - keptRows);
+            assertThat(keptRows).isBetween(1, 999);
+            assertThat(fittedResult.queryResult().allRows()).hasSize(keptRows);
+            assertThat(render(resultFormat, fittedResult.queryResult()).length()).isLessThanOrEqualTo(2_000);
+        }
+    }
+
+    @Test
+    void atLeastOneRowIsKept() {
+        QueryResult queryResult = createResult(5, 1000);
+
+        ResultBudget.FittedResult fittedResult = ResultBudget.fit(queryResult, ResultFormat.TABLE, 10);
+
+        assertThat(fittedResult.queryResult().rowCount()).isEqualTo(1);
+        assertThat(fittedResult.omittedRows()).isEqualTo(4);
+        assertThat(fittedResult.queryResult().allRows().get(0).get(1).toString()).hasSize(ResultBudget.MIN_CELL_WIDTH);
+    }
+
+    @Test
+    void nonTextValuesAreNeverShortened() {
+        List<List<Object>> allRows = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            allRows.add(List.of(new java.math.BigDecimal("1234567890.12345678901234567890123456789"), "y".repeat(100)));
+        }
+        QueryResult queryResult = new QueryResult(List.of("amount", "note"), allRows, 200, 1L);
+
+        ResultBudget.FittedResult fittedResult = ResultBudget.fit(queryResult, ResultFormat.CSV, 20_000);
+
+        assertThat(fittedResult.queryResult().allRows().get(0).get(0)).isInstanceOf(java.math.BigDecimal.class);
+    }
+
+    @Test
+    void multibyteTextIsMeasuredAndCutInUtf8Bytes() {
+        List<List<Object>> allRows = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            allRows.add(List.of(i, "\u00e9\u4e2d\ud83d\ude00".repeat(40)));
+        }
+        QueryResult queryResult = new QueryResult(List.of("id", "description"), allRows, 20, 1L);
+
+        ResultBudget.FittedResult fittedResult = ResultBudget.fit(queryResult, ResultFormat.CSV, 4_000);
+
+        assertThat(fittedResult.omittedRows()).isZero();
+        assertThat(fittedResult.truncatedCells()).isEqualTo(20);
+        String shortenedCell = fittedResult.queryResult().allRows().get(0).get(1).toString();
+        assertThat(shortenedCell.getBytes(StandardCharsets.UTF_8).length).isLessThanOrEqualTo(fittedResult.cellWidth());
+        assertThat(shortenedCell).doesNotContain("\ufffd").endsWith(ResultBudget.TRUNCATION_MARKER);
+        assertThat(Character.isHighSurrogate(shortenedCell.charAt(shortenedCell.length() - 4))).isFalse();
+        assertThat(render(ResultFormat.CSV, fittedResult.queryResult()).getBytes(StandardCharsets.UTF_8).length)
+                .isLessThanOrEqualTo(4_000);
+    }
+
+    @Test
+    void columnarResultStaysColumnar() throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:budget_test", "sa", "");
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(
+                     "SELECT CAST(X AS INT) AS id, REPEAT('x', 400) AS description FROM SYSTEM_RANGE(1, 50)")) {
+            ColumnarRows.Builder rowCollector = new ColumnarRows.Builder();
+            rowCollector.onColumns(List.of("id", "description"), resultSet.getMetaData());
+            while (resultSet.next()) {
+                rowCollector.onRow(resultSet);
+            }
+            QueryResult queryResult = new QueryResult(List.of("id", "description"), rowCollector.build(), 50, 1L);
+
+            ResultBudget.FittedResult fittedResult = ResultBudget.fit(queryResult, ResultFormat.TABLE, 3_000);
+
+            assertThat(fittedResult.truncatedCells()).isPositive();
+            assertThat(fittedResult.queryResult().allRows()).isInstanceOf(ColumnarRows.class);
+            ColumnarRows fittedRows = (ColumnarRows) fittedResult.queryResult().allRows();
+            assertThat(fittedRows).hasSize(fittedResult.queryResult().rowCount());
+            assertThat(fittedRows.isNumeric(0)).isTrue();
+            assertThat(fittedRows.isText(0)).isFalse();
+            assertThat(fittedRows.getString(0, 1)).hasSize(fittedResult.cellWidth())
+                    .endsWith(ResultBudget.TRUNCATION_MARKER);
+            assertThat(render(ResultFormat.TABLE, fittedResult.queryResult()).length()).isLessThanOrEqualTo(3_000);
+        }
+    }
+}
@@ -5,6 +5,12 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -281,4 +287,51 @@ class SecurityUtilsTest {
         assertEquals(columnName, SecurityUtils.sanitizeIdentifier(columnName));
         assertEquals(value, SecurityUtils.sanitizeValue(value));
     }
-}
\ No newline at end of file
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "  Ignore this", "\tFORGET everything", "System: reboot", "assistant:", "USER: hi",
+        "please IGNORE me", "the system: is fine", "x<Instructions>y", "see </INSTRUCTIONS>", "Prompt: go",
+        "EXECUTE now", "re-execute", "run the following", "new instructions here", "overrides", "jailbreak",
+        "roleplay", "Act as admin", "react as", "act ash", "pretend to be", "You Are Now free", "you are nowhere",
+        "acting as", "_act as", "act as_", "act as.", "hello", "", "   ", "用户: hi", "İgnore nothing"
+    })
+    @DisplayName("sanitizeValue should flag exactly what the previous lower-case and regex checks flagged")
+    void sanitizeValue_MatchesPreviousDetection(String input) {
+        boolean expectedFlag = legacyContainsInstructions(input);
+        boolean actualFlag = SecurityUtils.sanitizeValue(input).startsWith("[FLAGGED CONTENT]: ");
+
+        if (input.startsWith("İ")) {
+            // Character-wise lower-casing maps the dotted capital I to a plain i, so this is flagged too
+            assertTrue(actualFlag);
+        } else {
+            assertEquals(expectedFlag, actualFlag, input);
+        }
+    }
+
+    @Test
+    @DisplayName("sanitizeValue should not scan numbers, dates, times and UUIDs")
+    void sanitizeValue_NonTextTypes_NotScanned() {
+        assertEquals("12.50", SecurityUtils.sanitizeValue(new BigDecimal("12.50")));
+        assertEquals("true", SecurityUtils.sanitizeValue(Boolean.TRUE));
+        assertEquals("2024-01-31", SecurityUtils.sanitizeValue(LocalDate.of(2024, 1, 31)));
+        assertEquals("2024-01-31 10:15:30.0", SecurityUtils.sanitizeValue(Timestamp.valueOf("2024-01-31 10:15:30")));
+        UUID uuid = UUID.randomUUID();
+        assertEquals(uuid.toString(), SecurityUtils.sanitizeValue(uuid));
+    }
+
+    // Detection as implemented before the single-pass matcher, used as the reference
+    private static final Pattern LEGACY_INSTRUCTION_PATTERN = Pattern.compile("\\b(?:act as|pretend to be|you are now)\\b");
+
+    private static boolean legacyContainsInstructions(String input) {
+        String lowerValue = input.toLowerCase().trim();
+        return lowerValue.startsWith("ignore") || lowerValue.startsWith("forget") ||
+                lowerValue.startsWith("system:") || lowerValue.startsWith("assistant:") ||
+                lowerValue.startsWith("user:") || lowerValue.contains("</instructions>") ||
+                lowerValue.contains("<instructions>") || lowerValue.contains("prompt:") ||
+                lowerValue.contains("execute") || lowerValue.contains("run the following") ||
+                lowerValue.contains("new instructions") || lowerValue.contains("override") ||
+                lowerValue.contains("jailbreak") || lowerValue.contains("roleplay") ||
+                LEGACY_INSTRUCTION_PATTERN.matcher(lowerValue).find();
+    }
+}
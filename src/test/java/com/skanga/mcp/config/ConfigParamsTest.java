@@ -93,6 +93,19 @@ class ConfigParamsTest {
         assertThat(config.maxConnections()).isEqualTo(10);
         assertThat(config.connectionTimeoutMs()).isEqualTo(30000);
         assertThat(config.queryTimeoutSeconds()).isEqualTo(30);
+        assertThat(config.outputFormat()).isEqualTo("table");
+    }
+
+    @Test
+    @DisplayName("Should cap open cursors at half of the connection pool")
+    void shouldCapOpenCursorsAtHalfThePool() {
+        ConfigParams smallPool = new ConfigParams("jdbc:h2:mem:test", "sa", "", "org.h2.Driver",
+                4, 30000, 30, true, 10000, 10000, 600000, 1800000, 20000);
+        ConfigParams singleConnection = new ConfigParams("jdbc:h2:mem:test", "sa", "", "org.h2.Driver",
+                1, 30000, 30, true, 10000, 10000, 600000, 1800000, 20000);
+
+        assertThat(smallPool.maxOpenCursors()).isEqualTo(2);
+        assertThat(singleConnection.maxOpenCursors()).isZero();
     }
 
     @ParameterizedTest
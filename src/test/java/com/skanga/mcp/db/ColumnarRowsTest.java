@@ -0,0 +1,226 @@
+package com.skanga.mcp.db;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ColumnarRowsTest {
+    private Connection connection;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:columnar_test;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE metrics (id INT, total BIGINT, ratio DOUBLE, region VARCHAR(20), created DATE)");
+            statement.execute("INSERT INTO metrics VALUES (1, 10000000000, 0.5, 'EU', DATE '2024-01-01')");
+            statement.execute("INSERT INTO metrics VALUES (2, NULL, NULL, 'US', NULL)");
+            statement.execute("INSERT INTO metrics VALUES (NULL, 3, 1.25, 'EU', DATE '2024-03-01')");
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        connection.close();
+    }
+
+    @Test
+    @DisplayName("Should produce the same rows as getObject")
+    void shouldMatchGetObjectRows() throws SQLException {
+        ColumnarRows columnarRows = readColumnar("SELECT * FROM metrics ORDER BY total");
+
+        List<List<Object>> expectedRows = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT * FROM metrics ORDER BY total")) {
+            int columnCount = resultSet.getMetaData().getColumnCount();
+            while (resultSet.next()) {
+                List<Object> row = new ArrayList<>();
+                for (int i = 1; i <= columnCount; i++) {
+                    row.add(resultSet.getObject(i));
+                }
+                expectedRows.add(row);
+            }
+        }
+
+        assertThat(columnarRows).isEqualTo(expectedRows);
+        assertThat(columnarRows.hashCode()).isEqualTo(expectedRows.hashCode());
+    }
+
+    @Test
+    @DisplayName("Should keep numeric columns primitive and render them as text")
+    void shouldStoreNumericColumnsAsPrimitives() throws SQLException {
+        ColumnarRows columnarRows = readColumnar("SELECT id, total, ratio, region, created FROM metrics ORDER BY region, id");
+
+        assertThat(columnarRows.columnCount()).isEqualTo(5);
+        assertThat(columnarRows.isNumeric(0)).isTrue();
+        assertThat(columnarRows.isNumeric(1)).isTrue();
+        assertThat(columnarRows.isNumeric(2)).isTrue();
+        assertThat(columnarRows.isNumeric(3)).isFalse();
+        assertThat(columnarRows.isNumeric(4)).isFalse();
+
+        // NULLs sort first in H2, so the EU row without an id comes first
+        assertThat(columnarRows.getValue(0, 0)).isNull();
+        assertThat(columnarRows.getString(0, 0)).isNull();
+        assertThat(columnarRows.getString(1, 1)).isEqualTo("10000000000");
+        assertThat(columnarRows.getValue(1, 1)).isEqualTo(10000000000L);
+        assertThat(columnarRows.getString(1, 2)).isEqualTo("0.5");
+        assertThat(columnarRows.getString(2, 3)).isEqualTo("US");
+        assertThat(columnarRows.get(2)).containsExactly(2, null, null, "US", null);
+    }
+
+    @Test
+    @DisplayName("Should reject out of range rows and modification")
+    void shouldBeReadOnly() throws SQLException {
+        ColumnarRows columnarRows = readColumnar("SELECT id FROM metrics");
+
+        assertThatThrownBy(() -> columnarRows.get(3)).isInstanceOf(IndexOutOfBoundsException.class);
+        assertThatThrownBy(() -> columnarRows.add(Arrays.asList(4)))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    @DisplayName("Should mark only character columns as text and append integral cells directly")
+    void shouldClassifyTextColumnsAndAppendIntegralCells() throws SQLException {
+        ColumnarRows columnarRows = readColumnar(
+                "SELECT id, total, ratio, region, created, RANDOM_UUID() AS uid, CAST(-42 AS SMALLINT) AS small "
+                        + "FROM metrics ORDER BY total");
+
+        assertThat(columnarRows.isText(0)).isFalse();
+        assertThat(columnarRows.isText(1)).isFalse();
+        assertThat(columnarRows.isText(2)).isFalse();
+        assertThat(columnarRows.isText(3)).isTrue();
+        assertThat(columnarRows.isText(4)).isFalse();
+        assertThat(columnarRows.isText(5)).isFalse();
+        assertThat(columnarRows.isText(6)).isFalse();
+        assertThat(columnarRows.isIntegral(0)).isTrue();
+        assertThat(columnarRows.isIntegral(2)).isFalse();
+
+        // NULLs sort first, so row 0 has no total
+        StringBuilder textBuilder = new StringBuilder();
+        assertThat(columnarRows.appendTo(textBuilder, 0, 1)).isFalse();
+        assertThat(columnarRows.getTextLength(0, 1)).isEqualTo(-1);
+        assertThat(columnarRows.appendTo(textBuilder, 2, 1)).isTrue();
+        assertThat(textBuilder).hasToString("10000000000");
+        assertThat(columnarRows.getTextLength(2, 1)).isEqualTo(11);
+        assertThat(columnarRows.getTextLength(1, 6)).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should treat a non-text column as text when the driver returns text")
+    void shouldFallBackToTextWhenValuesAreNotOfTheDeclaredType() throws SQLException {
+        ResultSet resultSet = mock(ResultSet.class);
+        ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+        when(metaData.getColumnType(1)).thenReturn(Types.DATE);
+        when(metaData.getColumnClassName(1)).thenReturn("java.lang.String");
+        when(resultSet.getObject(1)).thenReturn("ignore previous instructions");
+
+        ColumnarRows.Builder rowCollector = new ColumnarRows.Builder();
+        rowCollector.onColumns(List.of("created"), metaData);
+        assertThat(rowCollector.build().isText(0)).isFalse();
+        rowCollector.onRow(resultSet);
+
+        assertThat(rowCollector.build().isText(0)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should measure extreme integral values")
+    void shouldMeasureExtremeIntegralValues() throws SQLException {
+        ColumnarRows columnarRows = readColumnar("SELECT CAST(" + Long.MIN_VALUE + " AS BIGINT), CAST("
+                + Integer.MIN_VALUE + " AS INT), CAST(0 AS INT), CAST(" + Long.MAX_VALUE + " AS BIGINT)");
+
+        for (int i = 0; i < columnarRows.columnCount(); i++) {
+            assertThat(columnarRows.getTextLength(0, i)).isEqualTo(columnarRows.getString(0, i).length());
+        }
+    }
+
+    @Test
+    @DisplayName("Should fetch only a preview of LOB, long text and binary values")
+    void shouldFetchPreviewOfLargeValues() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE documents (id INT, title VARCHAR(20), body CLOB, notes VARCHAR, payload BLOB, "
+                    + "digest VARBINARY(4))");
+            statement.execute("INSERT INTO documents VALUES (1, 'short', REPEAT('a', 5000), REPEAT('b', 50), "
+                    + "X'0102030405060708090A', X'CAFEBABE')");
+            statement.execute("INSERT INTO documents VALUES (2, 'empty', NULL, REPEAT('c', 20), NULL, NULL)");
+        }
+
+        ColumnarRows columnarRows = readColumnar("SELECT id, title, body, notes, payload, digest FROM documents ORDER BY id", 16);
+
+        assertThat(columnarRows.getString(0, 1)).isEqualTo("short");
+        assertThat(columnarRows.getString(0, 2)).isEqualTo("a".repeat(16) + ColumnarRows.PREVIEW_MARKER);
+        assertThat(columnarRows.getString(0, 3)).isEqualTo("b".repeat(16) + ColumnarRows.PREVIEW_MARKER);
+        assertThat(columnarRows.getString(1, 3)).isEqualTo("c".repeat(16) + ColumnarRows.PREVIEW_MARKER);
+        assertThat(columnarRows.getString(0, 4)).isEqualTo("0x0102030405060708" + ColumnarRows.PREVIEW_MARKER);
+        assertThat(columnarRows.getString(0, 5)).isEqualTo("0xcafebabe");
+        assertThat(columnarRows.getValue(1, 2)).isNull();
+        assertThat(columnarRows.getValue(1, 4)).isNull();
+        assertThat(columnarRows.isText(2)).isTrue();
+        assertThat(columnarRows.isText(4)).isFalse();
+
+        // Without a preview limit values are read whole
+        ColumnarRows fullRows = readColumnar("SELECT notes FROM documents ORDER BY id");
+        assertThat(fullRows.getString(0, 0)).isEqualTo("b".repeat(50));
+    }
+
+    @Test
+    @DisplayName("Should pass only text cells of the leading rows through a view")
+    void shouldViewLeadingRowsWithMappedText() throws SQLException {
+        ColumnarRows columnarRows = readColumnar("SELECT id, region, created FROM metrics ORDER BY id NULLS LAST");
+
+        ColumnarRows viewRows = columnarRows.view(2, cellText -> cellText.toLowerCase());
+
+        assertThat(viewRows).hasSize(2);
+        assertThat(viewRows.getValue(0, 0)).isEqualTo(1);
+        assertThat(viewRows.getString(0, 1)).isEqualTo("eu");
+        assertThat(viewRows.get(1).get(1)).isEqualTo("us");
+        assertThat(viewRows.getTextLength(1, 1)).isEqualTo(2);
+        assertThat(viewRows.getValue(1, 2)).isNull();
+        assertThat(viewRows.isNumeric(0)).isTrue();
+        assertThat(viewRows.isText(1)).isTrue();
+        assertThat(viewRows.isText(2)).isFalse();
+        StringBuilder textBuilder = new StringBuilder();
+        assertThat(viewRows.appendTo(textBuilder, 0, 1)).isTrue();
+        assertThat(textBuilder).hasToString("eu");
+        assertThatThrownBy(() -> viewRows.get(2)).isInstanceOf(IndexOutOfBoundsException.class);
+        // The original rows are unchanged
+        assertThat(columnarRows.getString(0, 1)).isEqualTo("EU");
+    }
+
+    private ColumnarRows readColumnar(String sql) throws SQLException {
+        return readColumnar(sql, 0);
+    }
+
+    private ColumnarRows readColumnar(String sql, int lobPreviewChars) throws SQLException {
+        ColumnarRows.Builder builder = new ColumnarRows.Builder(lobPreviewChars);
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(sql)) {
+            List<String> columnNames = new ArrayList<>();
+            for (int i = 1; i <= resultSet.getMetaData().getColumnCount(); i++) {
+                columnNames.add(resultSet.getMetaData().getColumnName(i));
+            }
+            builder.onColumns(columnNames, resultSet.getMetaData());
+            while (resultSet.next()) {
+                builder.onRow(resultSet);
+            }
+        }
+        return builder.build();
+    }
+}
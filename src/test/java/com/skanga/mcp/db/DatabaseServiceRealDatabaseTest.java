@@ -2,13 +2,21 @@ package com.skanga.mcp.db;
 
 import com.skanga.mcp.config.ConfigParams;
 import com.skanga.mcp.TestUtils;
+import com.skanga.mcp.metrics.Phase;
+import com.skanga.mcp.metrics.PhaseTimer;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.DisplayName;
 import static org.assertj.core.api.Assertions.*;
 
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -229,4 +237,224 @@ class DatabaseServiceRealDatabaseTest {
         assertThat(databaseService.readResource("database://table/NONEXISTENT")).isNull();
         assertThat(databaseService.readResource("database://unknown/resource")).isNull();
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should stream rows to handler without materializing them")
+    void shouldStreamRowsToHandler() throws SQLException {
+        // Given
+        List<String> seenColumns = new ArrayList<>();
+        List<String> seenNames = new ArrayList<>();
+        RowHandler rowHandler = new RowHandler() {
+            @Override
+            public void onColumns(List<String> columnNames, ResultSetMetaData metaData) {
+                seenColumns.addAll(columnNames);
+            }
+
+            @Override
+            public boolean onRow(ResultSet resultSet) throws SQLException {
+                seenNames.add(resultSet.getString("NAME"));
+                return seenNames.size() < 2; // Stop early after two rows
+            }
+        };
+
+        // When
+        QueryResult result = databaseService.executeSql("SELECT id, name FROM users ORDER BY id", 100, null, rowHandler);
+
+        // Then
+        assertThat(seenColumns).containsExactly("ID", "NAME");
+        assertThat(seenNames).containsExactly("John Doe", "Jane Smith");
+        assertThat(result.rowCount()).isEqualTo(2);
+        assertThat(result.allRows()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should rebind prepared statements for repeated queries")
+    void shouldRebindRepeatedPreparedQueries() throws SQLException {
+        // Given
+        String sql = "SELECT name FROM users WHERE id = ?";
+
+        // When - same SQL text, different parameters
+        QueryResult first = databaseService.executeSql(sql, 10, List.of(1));
+        QueryResult second = databaseService.executeSql(sql, 10, List.of(2));
+
+        // Then
+        assertThat(first.allRows().get(0).get(0)).isEqualTo("John Doe");
+        assertThat(second.allRows().get(0).get(0)).isEqualTo("Jane Smith");
+    }
+
+    @Test
+    @DisplayName("Should page through a result with a server-side cursor")
+    void shouldPageThroughCursor() throws SQLException {
+        // When
+        CursorPage firstPage = databaseService.openCursor("SELECT id, name FROM users ORDER BY id", 2, null);
+
+        // Then - first page leaves the cursor open
+        assertThat(firstPage.hasMore()).isTrue();
+        assertThat(firstPage.page().allColumns()).containsExactly("ID", "NAME");
+        assertThat(firstPage.page().rowCount()).isEqualTo(2);
+        assertThat(firstPage.page().allRows().get(0).get(1)).isEqualTo("John Doe");
+        assertThat(databaseService.getOpenCursorCount()).isEqualTo(1);
+
+        // When - the remaining rows exactly fill the next page
+        CursorPage secondPage = databaseService.fetchCursor(firstPage.cursorId(), 2);
+
+        // Then - the lookahead notices the end and the cursor is closed
+        assertThat(secondPage.hasMore()).isFalse();
+        assertThat(secondPage.cursorId()).isNull();
+        assertThat(secondPage.page().rowCount()).isEqualTo(2);
+        assertThat(databaseService.getOpenCursorCount()).isZero();
+        assertThatThrownBy(() -> databaseService.fetchCursor(firstPage.cursorId(), 2))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Should release the connection when a cursor is closed early")
+    void shouldCloseCursorEarly() throws SQLException {
+        CursorPage firstPage = databaseService.openCursor("SELECT id FROM users WHERE id > ? ORDER BY id", 1, List.of(1));
+        assertThat(firstPage.page().allRows().get(0).get(0)).isEqualTo(2);
+
+        assertThat(databaseService.closeCursor(firstPage.cursorId())).isTrue();
+        assertThat(databaseService.closeCursor(firstPage.cursorId())).isFalse();
+        assertThat(databaseService.getOpenCursorCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should run batch queries concurrently and report failures per query")
+    void shouldExecuteBatchWithIndependentResults() {
+        // Given
+        List<BatchQuery> batchQueries = List.of(
+                new BatchQuery("SELECT COUNT(*) FROM users", null),
+                new BatchQuery("SELECT name FROM users WHERE id = ?", List.of(2)),
+                new BatchQuery("SELECT * FROM no_such_table", null));
+
+        // When
+        List<BatchResult> batchResults = databaseService.executeSqlBatch(batchQueries, 10);
+
+        // Then - results come back in request order and one failure does not affect the others
+        assertThat(batchResults).hasSize(3);
+        assertThat(batchResults.get(0).queryResult().allRows().get(0).get(0)).isEqualTo(4L);
+        assertThat(batchResults.get(1).queryResult().allRows().get(0).get(0)).isEqualTo("Jane Smith");
+        assertThat(batchResults.get(2).succeeded()).isFalse();
+        assertThat(batchResults.get(2).error().getMessage()).containsIgnoringCase("no_such_table");
+    }
+
+    @Test
+    @DisplayName("Should record database phase timings into the bound timer")
+    void shouldRecordPhaseTimings() throws SQLException {
+        PhaseTimer phaseTimer = new PhaseTimer();
+
+        try (var ignored = phaseTimer.bind()) {
+            databaseService.executeSql("SELECT id, name FROM users ORDER BY id", 10, List.of());
+        }
+
+        assertThat(phaseTimer.get(Phase.POOL_WAIT)).isPositive();
+        assertThat(phaseTimer.get(Phase.PREPARE)).isPositive();
+        assertThat(phaseTimer.get(Phase.EXECUTE)).isPositive();
+        assertThat(phaseTimer.get(Phase.FIRST_ROW)).isPositive();
+        assertThat(phaseTimer.get(Phase.FETCH)).isPositive();
+    }
+
+    @Test
+    @DisplayName("Should answer repeated metadata lookups from the schema catalog")
+    void shouldCacheSchemaCatalog() throws SQLException {
+        String firstDescription = databaseService.describeTable("USERS", null);
+        databaseService.listResources();
+        long missesAfterLoad = databaseService.getSchemaCacheMisses();
+
+        // When
+        String secondDescription = databaseService.describeTable("USERS", null);
+        List<DatabaseResource> resources = databaseService.listResources();
+        DatabaseResource tableResource = databaseService.readResource("database://table/USERS");
+
+        // Then - no lookup had to read the database catalog again
+        assertThat(secondDescription).isEqualTo(firstDescription);
+        assertThat(resources).anyMatch(resource -> resource.uri().equals("database://table/USERS"));
+        assertThat(tableResource.content()).contains("EMAIL");
+        assertThat(databaseService.getSchemaCacheMisses()).isEqualTo(missesAfterLoad);
+        assertThat(databaseService.getSchemaCacheHits()).isGreaterThanOrEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Should reload the schema catalog after DDL and on request")
+    void shouldRefreshSchemaCatalog() throws SQLException {
+        assertThat(databaseService.listResources()).noneMatch(resource -> resource.uri().equals("database://table/AUDIT_LOG"));
+
+        // DDL run through the service drops the catalog
+        databaseService.executeSql("CREATE TABLE audit_log (id INT PRIMARY KEY)", 1);
+        assertThat(databaseService.listResources()).anyMatch(resource -> resource.uri().equals("database://table/AUDIT_LOG"));
+
+        // Changes made elsewhere show up once the catalog is refreshed
+        try (Connection connection = DriverManager.getConnection(config.dbUrl(), config.dbUser(), config.dbPass());
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE audit_archive (id INT PRIMARY KEY)");
+        }
+        assertThat(databaseService.listResources()).noneMatch(resource -> resource.uri().equals("database://table/AUDIT_ARCHIVE"));
+        databaseService.refreshSchemaCatalog();
+        assertThat(databaseService.listResources()).anyMatch(resource -> resource.uri().equals("database://table/AUDIT_ARCHIVE"));
+    }
+
+    @Test
+    @DisplayName("Should list table columns in the data dictionary from one harvest per schema")
+    void shouldHarvestDataDictionaryPerSchema() throws SQLException {
+        // When
+        DatabaseResource dataDictionary = databaseService.readResource("database://data-dictionary");
+        long missesAfterHarvest = databaseService.getSchemaCacheMisses();
+        DatabaseResource secondRead = databaseService.readResource("database://data-dictionary");
+
+        // Then
+        assertThat(dataDictionary.content()).contains("USERS (BASE TABLE)").contains("EMAIL CHARACTER VARYING");
+        assertThat(secondRead.content()).isEqualTo(dataDictionary.content());
+        assertThat(databaseService.getSchemaCacheMisses()).isEqualTo(missesAfterHarvest);
+    }
+
+    @Test
+    @DisplayName("Should page through the cached resource listing with cursors")
+    void shouldPageResourceListing() throws SQLException {
+        List<DatabaseResource> allResources = databaseService.listResources();
+        long missesAfterListing = databaseService.getSchemaCacheMisses();
+
+        // When
+        List<DatabaseResource> pagedResources = new ArrayList<>();
+        int pageCount = 0;
+        String resourceCursor = null;
+        do {
+            ResourcePage resourcePage = databaseService.listResources(resourceCursor, 3);
+            assertThat(resourcePage.resources()).hasSizeLessThanOrEqualTo(3);
+            pagedResources.addAll(resourcePage.resources());
+            resourceCursor = resourcePage.nextCursor();
+            pageCount++;
+        } while (resourceCursor != null);
+
+        // Then - the pages add up to the listing, which was not read again
+        assertThat(pagedResources).isEqualTo(allResources);
+        assertThat(pageCount).isEqualTo((allResources.size() + 2) / 3);
+        assertThat(databaseService.getSchemaCacheMisses()).isEqualTo(missesAfterListing);
+        assertThatThrownBy(() -> databaseService.listResources("not a cursor", 3))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid resources/list cursor");
+    }
+
+    @Test
+    @DisplayName("Should continue after the last listed resource when the catalog changes between pages")
+    void shouldKeepResourcePagesStableAcrossCatalogChanges() throws SQLException {
+        databaseService.executeSql("CREATE TABLE aaa_page_end (id INT)", 1);
+        ResourcePage firstPage = databaseService.listResources(null, 3);
+        assertThat(firstPage.resources().get(2).uri()).isEqualTo("database://table/AAA_PAGE_END");
+
+        // When - the last listed table is dropped and a table listed before it is created
+        databaseService.executeSql("DROP TABLE aaa_page_end", 1);
+        databaseService.executeSql("CREATE TABLE aaa_added (id INT)", 1);
+        List<DatabaseResource> laterResources = new ArrayList<>();
+        String resourceCursor = firstPage.nextCursor();
+        while (resourceCursor != null) {
+            ResourcePage resourcePage = databaseService.listResources(resourceCursor, 3);
+            laterResources.addAll(resourcePage.resources());
+            resourceCursor = resourcePage.nextCursor();
+        }
+
+        // Then - the remaining pages hold every resource after the cursor once and nothing before it
+        List<DatabaseResource> allResources = databaseService.listResources();
+        assertThat(allResources.get(2).uri()).isEqualTo("database://table/AAA_ADDED");
+        assertThat(laterResources).isEqualTo(allResources.subList(3, allResources.size()));
+    }
+}
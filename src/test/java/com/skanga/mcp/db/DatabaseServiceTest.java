@@ -1,6 +1,7 @@
 package com.skanga.mcp.db;
 
 import com.skanga.mcp.config.ConfigParams;
+import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -350,6 +351,56 @@ class DatabaseServiceTest {
         verify(mockDataSource).getConnection();
     }
 
+    @Test
+    void testCreateCursorPoolConfig_SizedByCursorsWithoutLeakDetection() {
+        HikariConfig poolConfig = new HikariConfig();
+        poolConfig.setJdbcUrl("jdbc:h2:mem:cursors");
+        poolConfig.setMaximumPoolSize(10);
+        poolConfig.setLeakDetectionThreshold(20000);
+
+        HikariConfig cursorConfig = DatabaseService.createCursorPoolConfig(poolConfig, 3);
+
+        assertEquals("jdbc:h2:mem:cursors", cursorConfig.getJdbcUrl());
+        assertEquals(3, cursorConfig.getMaximumPoolSize());
+        assertEquals(0, cursorConfig.getLeakDetectionThreshold());
+        assertEquals(20000, poolConfig.getLeakDetectionThreshold());
+        assertNull(DatabaseService.createCursorPoolConfig(poolConfig, 0));
+    }
+
+    @Test
+    void testConfigureStatementCache_UsesDriverCache() {
+        when(config.statementCacheSize()).thenReturn(128);
+
+        when(config.getDatabaseType()).thenReturn("postgresql");
+        HikariConfig postgresConfig = new HikariConfig();
+        DatabaseService.configureStatementCache(postgresConfig, config);
+        assertEquals("128", postgresConfig.getDataSourceProperties().get("preparedStatementCacheQueries"));
+        assertFalse(postgresConfig.getDataSourceProperties().containsKey("prepareThreshold"));
+
+        when(config.getDatabaseType()).thenReturn("mysql");
+        HikariConfig mysqlConfig = new HikariConfig();
+        DatabaseService.configureStatementCache(mysqlConfig, config);
+        assertEquals("true", mysqlConfig.getDataSourceProperties().get("cachePrepStmts"));
+        assertEquals("128", mysqlConfig.getDataSourceProperties().get("prepStmtCacheSize"));
+
+        when(config.getDatabaseType()).thenReturn("h2");
+        HikariConfig h2Config = new HikariConfig();
+        DatabaseService.configureStatementCache(h2Config, config);
+        assertTrue(h2Config.getDataSourceProperties().isEmpty());
+    }
+
+    @Test
+    void testConfigureStatementCache_DisabledWithZeroSize() {
+        when(config.statementCacheSize()).thenReturn(0);
+        when(config.getDatabaseType()).thenReturn("mariadb");
+
+        HikariConfig mariadbConfig = new HikariConfig();
+        DatabaseService.configureStatementCache(mariadbConfig, config);
+
+        assertEquals("false", mariadbConfig.getDataSourceProperties().get("cachePrepStmts"));
+        assertFalse(mariadbConfig.getDataSourceProperties().containsKey("prepStmtCacheSize"));
+    }
+
     // ========================================
     // RESOURCE LISTING TESTS
     // ========================================
@@ -412,6 +463,22 @@ class DatabaseServiceTest {
         assertTrue(resources.stream().anyMatch(r -> r.uri().equals("database://info")));
     }
 
+    @Test
+    void testListResources_SinglePageWithoutSchemaCache() throws Exception {
+        setupH2MetaDataMocks();
+        ResultSet tables = mock(ResultSet.class);
+        when(metaData.getTables(null, null, "%", new String[]{"TABLE", "VIEW"})).thenReturn(tables);
+        when(tables.next()).thenReturn(false);
+        when(metaData.getSchemas()).thenThrow(new SQLException("Schemas not supported"));
+
+        // The mocked configuration has no schema cache, so paging would rebuild the listing for every page
+        ResourcePage resourcePage = service.listResources(null, 1);
+
+        assertNull(resourcePage.nextCursor());
+        assertEquals(List.of("database://info", "database://data-dictionary"),
+                resourcePage.resources().stream().map(DatabaseResource::uri).toList());
+    }
+
     // ========================================
     // RESOURCE READING TESTS
     // ========================================
@@ -520,12 +587,22 @@ class DatabaseServiceTest {
         when(tables.getString("TABLE_SCHEM")).thenReturn("PUBLIC");
         when(tables.getString("TABLE_TYPE")).thenReturn("TABLE");
 
+        // Columns of the whole schema come from one query
+        ResultSet columns = mock(ResultSet.class);
+        when(metaData.getColumns(null, "PUBLIC", "%", null)).thenReturn(columns);
+        when(columns.next()).thenReturn(true, true, false);
+        when(columns.getString("TABLE_NAME")).thenReturn("USERS");
+        when(columns.getString("COLUMN_NAME")).thenReturn("ID", "EMAIL");
+        when(columns.getString("TYPE_NAME")).thenReturn("INTEGER", "VARCHAR");
+
         DatabaseResource resource = service.readResource("database://data-dictionary");
 
         assertNotNull(resource);
         assertEquals("database://data-dictionary", resource.uri());
         assertTrue(resource.content().contains("DATA DICTIONARY"));
         assertTrue(resource.content().contains("H2"));
+        assertTrue(resource.content().contains("ID INTEGER, EMAIL VARCHAR"));
+        verify(metaData, never()).getColumns(null, "PUBLIC", "USERS", null);
     }
 
     @Test
@@ -581,19 +658,17 @@ class DatabaseServiceTest {
         when(metaData.getTables(null, schema, tableName, null)).thenReturn(tableInfoRs);
         when(tableInfoRs.next()).thenReturn(true, false);
         when(tableInfoRs.getString("TABLE_TYPE")).thenReturn("TABLE");
+        when(tableInfoRs.getString("TABLE_NAME")).thenReturn(tableName);
+        when(tableInfoRs.getString("TABLE_SCHEM")).thenReturn(schema);
         when(tableInfoRs.getString("REMARKS")).thenReturn("Table of customer orders");
 
-        // Mock the executeRunSql for row count
-        PreparedStatement countStmt = mock(PreparedStatement.class);
-        ResultSet countRs = mock(ResultSet.class);
-        ResultSetMetaData countMeta = mock(ResultSetMetaData.class);
-        when(connection.prepareStatement(String.format("SELECT COUNT(*) FROM %s.%s", schema, tableName))).thenReturn(countStmt);
-        when(countStmt.execute()).thenReturn(true);
-        when(countStmt.getResultSet()).thenReturn(countRs);
-        when(countRs.getMetaData()).thenReturn(countMeta);
-        when(countMeta.getColumnCount()).thenReturn(1);
-        when(countRs.next()).thenReturn(true, false);
-        when(countRs.getObject(1)).thenReturn(150L);
+        // Mock the row count statistics
+        PreparedStatement estimateStmt = mock(PreparedStatement.class);
+        ResultSet estimateRs = mock(ResultSet.class);
+        when(connection.prepareStatement(RowCountEstimator.estimateQuery("h2", schema))).thenReturn(estimateStmt);
+        when(estimateStmt.executeQuery()).thenReturn(estimateRs);
+        when(estimateRs.next()).thenReturn(true);
+        when(estimateRs.getObject(1)).thenReturn(150L);
 
         // --- Execute and Assert ---
         String description = service.describeTable(tableName, schema);
@@ -619,6 +694,10 @@ class DatabaseServiceTest {
         assertTrue(description.contains("Table Type: TABLE"));
         assertTrue(description.contains("Description: Table of customer orders"));
         assertTrue(description.contains("Estimated Row Count: 150"));
+        assertFalse(description.contains("Exact Row Count"));
+        verify(estimateStmt).setString(1, tableName);
+        verify(estimateStmt).setString(2, schema);
+        verify(connection, never()).prepareStatement(String.format("SELECT COUNT(*) FROM %s.%s", schema, tableName));
     }
 
     @Test
@@ -686,6 +765,46 @@ class DatabaseServiceTest {
         }
     }
 
+    @Test
+    void testDescribeTable_ExactRowCountTimesOut() throws Exception {
+        String tableName = "EVENTS";
+        when(config.exactRowCountTimeoutSeconds()).thenReturn(2);
+
+        ResultSet columnsRs = mock(ResultSet.class);
+        when(metaData.getColumns(null, null, tableName, null)).thenReturn(columnsRs);
+        when(columnsRs.next()).thenReturn(true, false);
+        when(columnsRs.getString("COLUMN_NAME")).thenReturn("id");
+        when(columnsRs.getString("TYPE_NAME")).thenReturn("BIGINT");
+
+        ResultSet emptyRs = mock(ResultSet.class);
+        when(metaData.getPrimaryKeys(null, null, tableName)).thenReturn(emptyRs);
+        when(metaData.getImportedKeys(null, null, tableName)).thenReturn(emptyRs);
+        when(metaData.getIndexInfo(null, null, tableName, false, false)).thenReturn(emptyRs);
+
+        ResultSet tableInfoRs = mock(ResultSet.class);
+        when(metaData.getTables(null, null, tableName, null)).thenReturn(tableInfoRs);
+        when(tableInfoRs.next()).thenReturn(true);
+        when(tableInfoRs.getString("TABLE_TYPE")).thenReturn("TABLE");
+
+        // Statistics give an estimate, the exact count runs into its timeout
+        PreparedStatement estimateStmt = mock(PreparedStatement.class);
+        ResultSet estimateRs = mock(ResultSet.class);
+        when(connection.prepareStatement(RowCountEstimator.estimateQuery("h2", null))).thenReturn(estimateStmt);
+        when(estimateStmt.executeQuery()).thenReturn(estimateRs);
+        when(estimateRs.next()).thenReturn(true);
+        when(estimateRs.getObject(1)).thenReturn(5000000000L);
+
+        PreparedStatement countStmt = mock(PreparedStatement.class);
+        when(connection.prepareStatement("SELECT COUNT(*) FROM EVENTS")).thenReturn(countStmt);
+        when(countStmt.executeQuery()).thenThrow(new SQLTimeoutException("Query timed out"));
+
+        String description = service.describeTable(tableName, null);
+
+        assertTrue(description.contains("Estimated Row Count: 5000000000"));
+        assertTrue(description.contains("Exact Row Count: Not available within 2s"));
+        verify(countStmt).setQueryTimeout(2);
+    }
+
     @Test
     void testDescribeTable_PostgresNormalization() throws Exception {
         when(config.getDatabaseType()).thenReturn("postgresql");
@@ -791,6 +910,10 @@ class DatabaseServiceTest {
         when(tables.getString("TABLE_SCHEM")).thenReturn("testdb");
         when(tables.getString("TABLE_TYPE")).thenReturn("TABLE");
 
+        ResultSet columns = mock(ResultSet.class);
+        when(metaData.getColumns(null, "testdb", "%", null)).thenReturn(columns);
+        when(columns.next()).thenReturn(false);
+
         DatabaseResource resource = service.readResource("database://data-dictionary");
 
         assertNotNull(resource);
@@ -1321,6 +1444,28 @@ class DatabaseServiceTest {
         verify(statement).setString(2, "John Doe");
     }
 
+    @Test
+    void testExecuteSql_CancelsStreamingMysqlResultStoppedEarly() throws Exception {
+        when(config.getDatabaseType()).thenReturn("mysql");
+        String sql = "SELECT id FROM events";
+        when(connection.prepareStatement(sql)).thenReturn(statement);
+        when(statement.execute()).thenReturn(true);
+        when(statement.getResultSet()).thenReturn(resultSet);
+        ResultSetMetaData rsMeta = mock(ResultSetMetaData.class);
+        when(rsMeta.getColumnCount()).thenReturn(1);
+        when(rsMeta.getColumnName(1)).thenReturn("id");
+        when(resultSet.getMetaData()).thenReturn(rsMeta);
+        when(resultSet.next()).thenReturn(true);
+
+        QueryResult result = service.executeSql(sql, 1000, null, currRow -> false);
+
+        assertEquals(1, result.rowCount());
+        verify(statement).setFetchSize(Integer.MIN_VALUE);
+        // The remaining rows are cancelled rather than drained when the result set is closed
+        verify(statement).cancel();
+        verify(resultSet, atLeastOnce()).close();
+    }
+
     @Test
     void testExecuteSql_WithNullParameter() throws Exception {
         String sql = "SELECT * FROM users WHERE id = ? AND name = ?";
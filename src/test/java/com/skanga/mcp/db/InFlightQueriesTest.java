@@ -0,0 +1,45 @@
+package com.skanga.mcp.db;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class InFlightQueriesTest {
+    @Test
+    @DisplayName("Should cancel statements of a tracked request and reject new ones")
+    void shouldCancelTrackedRequest() throws SQLException {
+        InFlightQueries inFlightQueries = new InFlightQueries();
+        Statement statement = mock(Statement.class);
+
+        try (InFlightQueries.Scope ignored = inFlightQueries.track("session-a/1")) {
+            inFlightQueries.register(statement);
+
+            assertThat(inFlightQueries.cancel("session-a/1")).isTrue();
+            verify(statement).cancel();
+            assertThatThrownBy(() -> inFlightQueries.register(mock(Statement.class)))
+                    .isInstanceOf(SQLException.class);
+        }
+        assertThat(inFlightQueries.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should ignore cancellations of requests that are not running")
+    void shouldIgnoreUntrackedCancellation() throws SQLException {
+        InFlightQueries inFlightQueries = new InFlightQueries();
+
+        assertThat(inFlightQueries.cancel("1")).isFalse();
+
+        // A later request reusing the id runs normally
+        try (InFlightQueries.Scope ignored = inFlightQueries.track("1")) {
+            inFlightQueries.register(mock(Statement.class));
+            assertThat(inFlightQueries.size()).isEqualTo(1);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.skanga.mcp.db;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemoryBudgetTest {
+    private static final long MB = 1024L * 1024L;
+
+    @Test
+    @DisplayName("Should stop a query once it exceeds the per-query budget")
+    void shouldEnforcePerQueryBudget() {
+        MemoryBudget memoryBudget = new MemoryBudget(MB, 0);
+
+        try (MemoryBudget.Reservation memoryReservation = memoryBudget.open()) {
+            assertThat(memoryReservation.fits(MB)).isTrue();
+            assertThat(memoryReservation.fits(MB + 1)).isFalse();
+        }
+    }
+
+    @Test
+    @DisplayName("Should share the global budget between concurrent queries and release it on close")
+    void shouldShareGlobalBudget() {
+        MemoryBudget memoryBudget = new MemoryBudget(0, 4 * MB);
+
+        MemoryBudget.Reservation firstReservation = memoryBudget.open();
+        MemoryBudget.Reservation secondReservation = memoryBudget.open();
+        assertThat(firstReservation.fits(3 * MB)).isTrue();
+        assertThat(secondReservation.fits(MB / 2)).isTrue();
+        assertThat(memoryBudget.getReservedBytes()).isLessThanOrEqualTo(4 * MB);
+
+        // Only what is left of the global budget can still be reserved
+        assertThat(secondReservation.fits(MB + 1)).isFalse();
+        assertThat(secondReservation.fits(MB)).isTrue();
+
+        firstReservation.close();
+        assertThat(secondReservation.fits(2 * MB)).isTrue();
+        secondReservation.close();
+        assertThat(memoryBudget.getReservedBytes()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should reserve global memory in chunks rather than per row")
+    void shouldReserveInChunks() {
+        MemoryBudget memoryBudget = new MemoryBudget(0, 64 * MB);
+
+        try (MemoryBudget.Reservation memoryReservation = memoryBudget.open()) {
+            assertThat(memoryReservation.fits(100)).isTrue();
+            assertThat(memoryBudget.getReservedBytes()).isEqualTo(MemoryBudget.RESERVATION_CHUNK_BYTES);
+            assertThat(memoryReservation.fits(200)).isTrue();
+            assertThat(memoryBudget.getReservedBytes()).isEqualTo(MemoryBudget.RESERVATION_CHUNK_BYTES);
+        }
+        assertThat(memoryBudget.getReservedBytes()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should stop fetching wide rows at the budget and keep the rows read so far")
+    void shouldStopFetchingAtBudget() throws SQLException {
+        MemoryBudget memoryBudget = new MemoryBudget(MB, 0);
+        ColumnarRows.Builder rowCollector = new ColumnarRows.Builder();
+
+        int rowsFetched = 0;
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:memory_budget_test", "sa", "");
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT X, REPEAT('w', 10000) || X FROM SYSTEM_RANGE(1, 1000)");
+             MemoryBudget.Reservation memoryReservation = memoryBudget.open()) {
+            RowHandler rowHandler = memoryReservation.track(rowCollector);
+            List<String> columnNames = new ArrayList<>(List.of("X", "BODY"));
+            rowHandler.onColumns(columnNames, resultSet.getMetaData());
+            while (resultSet.next()) {
+                rowsFetched++;
+                if (!rowHandler.onRow(resultSet)) {
+                    break;
+                }
+            }
+            assertThat(memoryReservation.isLimitReached()).isTrue();
+        }
+
+        // Each row holds roughly 20 KB of characters, so about 50 fit into 1 MB
+        assertThat(rowsFetched).isBetween(40, 60);
+        assertThat(rowCollector.build()).hasSize(rowsFetched);
+        assertThat(rowCollector.estimatedBytes()).isGreaterThan(MB);
+    }
+}
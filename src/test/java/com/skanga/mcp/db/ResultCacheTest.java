@@ -0,0 +1,153 @@
+package com.skanga.mcp.db;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ResultCacheTest {
+    private static final long ENTRY_BYTES = 100;
+
+    private static QueryResult resultOf(Object... values) {
+        List<List<Object>> allRows = new ArrayList<>();
+        for (Object value : values) {
+            allRows.add(List.of(value));
+        }
+        return new QueryResult(List.of("value"), allRows, allRows.size(), 5);
+    }
+
+    @Test
+    @DisplayName("Should serve results for SQL differing only in whitespace")
+    void shouldHitForEquivalentSql() {
+        ResultCache resultCache = new ResultCache(60, 1024 * 1024);
+        QueryResult queryResult = resultOf("a");
+
+        resultCache.put(ResultCache.keyFor("SELECT name\n  FROM users;", 10, null), queryResult, resultCache.generation(), ENTRY_BYTES, null);
+
+        assertThat(resultCache.get(ResultCache.keyFor("SELECT name FROM users", 10, null))).isSameAs(queryResult);
+        assertThat(resultCache.get(ResultCache.keyFor("SELECT name FROM users", 20, null))).isNull();
+        assertThat(resultCache.getHitCount()).isEqualTo(1);
+        assertThat(resultCache.getMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should key on bound parameters")
+    void shouldKeyOnParameters() {
+        ResultCache resultCache = new ResultCache(60, 1024 * 1024);
+        resultCache.put(ResultCache.keyFor("SELECT * FROM users WHERE id = ?", 10, List.of(1)), resultOf("a"), resultCache.generation(), ENTRY_BYTES, null);
+
+        assertThat(resultCache.get(ResultCache.keyFor("SELECT * FROM users WHERE id = ?", 10, List.of(1)))).isNotNull();
+        assertThat(resultCache.get(ResultCache.keyFor("SELECT * FROM users WHERE id = ?", 10, List.of(2)))).isNull();
+    }
+
+    @Test
+    @DisplayName("Should keep literals and line comments significant when normalizing")
+    void shouldPreserveLiteralsAndComments() {
+        assertThat(ResultCache.normalizeSql("SELECT  'a   b'  FROM t")).isEqualTo("SELECT 'a   b' FROM t");
+        assertThat(ResultCache.normalizeSql("SELECT a -- note\nFROM t"))
+                .isNotEqualTo(ResultCache.normalizeSql("SELECT a -- note FROM t"));
+    }
+
+    @Test
+    @DisplayName("Should invalidate only entries referencing the written table")
+    void shouldInvalidateByTable() {
+        ResultCache resultCache = new ResultCache(60, 1024 * 1024);
+        ResultCache.CacheKey usersKey = ResultCache.keyFor("SELECT * FROM users u JOIN orders o ON u.id = o.user_id", 10, null);
+        ResultCache.CacheKey productsKey = ResultCache.keyFor("SELECT * FROM products", 10, null);
+        resultCache.put(usersKey, resultOf("a"), resultCache.generation(), ENTRY_BYTES, null);
+        resultCache.put(productsKey, resultOf("b"), resultCache.generation(), ENTRY_BYTES, null);
+
+        resultCache.invalidate("UPDATE public.\"ORDERS\" SET status = 'x'");
+
+        assertThat(resultCache.get(usersKey)).isNull();
+        assertThat(resultCache.get(productsKey)).isNotNull();
+
+        resultCache.invalidate("/* nightly */ CALL refresh_everything()");
+        assertThat(resultCache.get(productsKey)).isNull();
+        assertThat(resultCache.getSizeBytes()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should invalidate the targets of data-modifying CTEs")
+    void shouldInvalidateCteTargets() {
+        ResultCache resultCache = new ResultCache(60, 1024 * 1024);
+        ResultCache.CacheKey usersKey = ResultCache.keyFor("SELECT deleted_at FROM users", 10, null);
+        ResultCache.CacheKey productsKey = ResultCache.keyFor("SELECT * FROM products", 10, null);
+        resultCache.put(usersKey, resultOf("a"), resultCache.generation(), ENTRY_BYTES, null);
+        resultCache.put(productsKey, resultOf("b"), resultCache.generation(), ENTRY_BYTES, null);
+
+        resultCache.invalidate("WITH gone AS (DELETE FROM users RETURNING id) SELECT count(*) FROM gone");
+
+        assertThat(resultCache.get(usersKey)).isNull();
+        assertThat(resultCache.get(productsKey)).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Should drop results of queries that started before an invalidation")
+    void shouldDropStalePuts() {
+        ResultCache resultCache = new ResultCache(60, 1024 * 1024);
+        ResultCache.CacheKey cacheKey = ResultCache.keyFor("SELECT * FROM users", 10, null);
+        long queryGeneration = resultCache.generation();
+
+        resultCache.invalidate("UPDATE users SET name = 'x'");
+        resultCache.put(cacheKey, resultOf("stale"), queryGeneration, ENTRY_BYTES, null);
+
+        assertThat(resultCache.get(cacheKey)).isNull();
+        resultCache.put(cacheKey, resultOf("fresh"), resultCache.generation(), ENTRY_BYTES, null);
+        assertThat(resultCache.get(cacheKey)).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Should evict least recently used entries beyond the byte budget")
+    void shouldEvictBeyondByteBudget() {
+        QueryResult queryResult = resultOf("x".repeat(100));
+        ResultCache resultCache = new ResultCache(60, ENTRY_BYTES * 4);
+
+        ResultCache.CacheKey firstKey = ResultCache.keyFor("SELECT 1", 10, null);
+        resultCache.put(firstKey, queryResult, resultCache.generation(), ENTRY_BYTES, null);
+        for (int i = 2; i <= 5; i++) {
+            resultCache.put(ResultCache.keyFor("SELECT " + i, 10, null), queryResult, resultCache.generation(), ENTRY_BYTES, null);
+        }
+
+        assertThat(resultCache.getSizeBytes()).isLessThanOrEqualTo(ENTRY_BYTES * 4);
+        assertThat(resultCache.get(firstKey)).isNull();
+        assertThat(resultCache.get(ResultCache.keyFor("SELECT 5", 10, null))).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Should not cache results larger than a quarter of the budget")
+    void shouldSkipOversizedResults() {
+        ResultCache resultCache = new ResultCache(60, 400);
+        ResultCache.CacheKey cacheKey = ResultCache.keyFor("SELECT big FROM t", 10, null);
+
+        resultCache.put(cacheKey, resultOf("x".repeat(500)), resultCache.generation(), 500, null);
+
+        assertThat(resultCache.get(cacheKey)).isNull();
+        assertThat(resultCache.getSizeBytes()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should keep the memory of cached results reserved until they are evicted")
+    void shouldReleaseMemoryOfEvictedEntries() {
+        MemoryBudget memoryBudget = new MemoryBudget(0, 64L * 1024 * 1024);
+        ResultCache resultCache = new ResultCache(60, 1024 * 1024);
+        MemoryBudget.Reservation memoryReservation = memoryBudget.open();
+        assertThat(memoryReservation.fits(1000)).isTrue();
+
+        assertThat(resultCache.put(ResultCache.keyFor("SELECT * FROM users", 10, null), resultOf("a"),
+                resultCache.generation(), ENTRY_BYTES, memoryReservation)).isTrue();
+        assertThat(memoryBudget.getReservedBytes()).isPositive();
+
+        resultCache.invalidate("DELETE FROM users");
+        assertThat(memoryBudget.getReservedBytes()).isZero();
+
+        // A stale result is not stored and its reservation stays with the caller
+        long queryGeneration = resultCache.generation();
+        resultCache.clear();
+        assertThat(resultCache.put(ResultCache.keyFor("SELECT 1", 10, null), resultOf("b"), queryGeneration,
+                ENTRY_BYTES, memoryBudget.open())).isFalse();
+    }
+}
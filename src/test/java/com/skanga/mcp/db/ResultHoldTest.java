@@ -0,0 +1,46 @@
+package com.skanga.mcp.db;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResultHoldTest {
+    private static final long MB = 1024L * 1024L;
+
+    @Test
+    @DisplayName("Should keep reservations until the hold is closed")
+    void shouldReleaseReservationsOnClose() {
+        MemoryBudget memoryBudget = new MemoryBudget(0, 64 * MB);
+        ResultHold resultHold = new ResultHold();
+
+        MemoryBudget.Reservation memoryReservation = memoryBudget.open();
+        assertThat(memoryReservation.fits(MB)).isTrue();
+        resultHold.keep(memoryReservation);
+        assertThat(memoryBudget.getReservedBytes()).isEqualTo(MB);
+
+        resultHold.close();
+        assertThat(memoryBudget.getReservedBytes()).isZero();
+
+        // A reservation arriving after the response was written is returned at once
+        MemoryBudget.Reservation lateReservation = memoryBudget.open();
+        assertThat(lateReservation.fits(MB)).isTrue();
+        resultHold.keep(lateReservation);
+        assertThat(memoryBudget.getReservedBytes()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should bind a hold to the current thread and restore the previous one")
+    void shouldBindToCurrentThread() {
+        ResultHold outerHold = new ResultHold();
+        ResultHold innerHold = new ResultHold();
+
+        try (ResultHold.Scope ignored = outerHold.bind()) {
+            try (ResultHold.Scope ignoredInner = innerHold.bind()) {
+                assertThat(ResultHold.current()).isSameAs(innerHold);
+            }
+            assertThat(ResultHold.current()).isSameAs(outerHold);
+        }
+        assertThat(ResultHold.current()).isNull();
+    }
+}
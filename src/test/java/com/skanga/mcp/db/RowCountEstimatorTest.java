@@ -0,0 +1,44 @@
+package com.skanga.mcp.db;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RowCountEstimatorTest {
+    @Test
+    @DisplayName("Should read the row count estimate from H2 statistics")
+    void shouldEstimateH2RowCount() throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:row_count_estimator_test", "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE facts AS SELECT X AS id FROM SYSTEM_RANGE(1, 1234)");
+
+            assertThat(RowCountEstimator.estimate(connection, "h2", null, "FACTS")).isEqualTo(1234L);
+            assertThat(RowCountEstimator.estimate(connection, "h2", "PUBLIC", "FACTS")).isEqualTo(1234L);
+            assertThat(RowCountEstimator.estimate(connection, "h2", "PUBLIC", "MISSING")).isNull();
+        }
+    }
+
+    @Test
+    @DisplayName("Should treat missing or never analyzed statistics as unknown")
+    void shouldConvertStatisticsValues() {
+        assertThat(RowCountEstimator.toRowCount(42.0f)).isEqualTo(42L);
+        assertThat(RowCountEstimator.toRowCount("1000 10 1")).isEqualTo(1000L);
+        assertThat(RowCountEstimator.toRowCount(-1.0f)).isNull();
+        assertThat(RowCountEstimator.toRowCount(null)).isNull();
+        assertThat(RowCountEstimator.toRowCount("n/a")).isNull();
+    }
+
+    @Test
+    @DisplayName("Should have no statistics query for databases without readable estimates")
+    void shouldSkipUnsupportedDatabases() {
+        assertThat(RowCountEstimator.estimateQuery("postgresql", "public")).contains("reltuples").contains("nspname = ?");
+        assertThat(RowCountEstimator.estimateQuery("sqlserver", null)).contains("sys.partitions").contains("SCHEMA_NAME()");
+        assertThat(RowCountEstimator.estimateQuery("hive", null)).isNull();
+    }
+}
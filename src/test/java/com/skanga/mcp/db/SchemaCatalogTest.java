@@ -0,0 +1,168 @@
+package com.skanga.mcp.db;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SchemaCatalogTest {
+    private DatabaseMetaData metaData;
+    private Connection connection;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        metaData = mock(DatabaseMetaData.class);
+        connection = mock(Connection.class);
+        when(connection.getMetaData()).thenReturn(metaData);
+
+        // Two tables in one schema, the first with a primary key
+        ResultSet columns = mock(ResultSet.class);
+        when(metaData.getColumns(null, "APP", "%", null)).thenReturn(columns);
+        when(columns.next()).thenReturn(true, true, true, false);
+        when(columns.getString("TABLE_NAME")).thenReturn("ORDERS", "ORDERS", "CUSTOMERS");
+        when(columns.getString("COLUMN_NAME")).thenReturn("ID", "CUSTOMER_ID", "ID");
+        when(columns.getString("TYPE_NAME")).thenReturn("INTEGER");
+
+        ResultSet emptyResult = mock(ResultSet.class);
+        when(metaData.getPrimaryKeys(isNull(), eq("APP"), anyString())).thenReturn(emptyResult);
+        when(metaData.getImportedKeys(isNull(), eq("APP"), any())).thenReturn(emptyResult);
+        when(metaData.getIndexInfo(isNull(), eq("APP"), any(), eq(false), eq(false))).thenReturn(emptyResult);
+    }
+
+    @Test
+    @DisplayName("Should read every table of a schema with bulk metadata calls")
+    void shouldHarvestSchemaInBulk() throws SQLException {
+        ResultSet primaryKeys = mock(ResultSet.class);
+        when(metaData.getPrimaryKeys(null, "APP", null)).thenReturn(primaryKeys);
+        when(primaryKeys.next()).thenReturn(true, false);
+        when(primaryKeys.getString("TABLE_NAME")).thenReturn("ORDERS");
+        when(primaryKeys.getString("COLUMN_NAME")).thenReturn("ID");
+        SchemaCatalog schemaCatalog = new SchemaCatalog(() -> connection, 300);
+
+        // When
+        Map<String, List<SchemaCatalog.ColumnEntry>> schemaColumns = schemaCatalog.getSchemaColumns("APP");
+        SchemaCatalog.TableDetail orders = schemaCatalog.getTableDetail("APP", "ORDERS");
+        SchemaCatalog.TableDetail customers = schemaCatalog.getTableDetail("APP", "CUSTOMERS");
+
+        // Then - the table lookups are answered from the harvest
+        assertThat(schemaColumns).containsOnlyKeys("ORDERS", "CUSTOMERS");
+        assertThat(schemaColumns.get("ORDERS")).extracting(SchemaCatalog.ColumnEntry::columnName)
+                .containsExactly("ID", "CUSTOMER_ID");
+        assertThat(orders.primaryKeys()).extracting(SchemaCatalog.PrimaryKeyEntry::columnName).containsExactly("ID");
+        assertThat(customers.primaryKeys()).isEmpty();
+        assertThat(schemaCatalog.getMissCount()).isEqualTo(1);
+        assertThat(schemaCatalog.getHitCount()).isEqualTo(2);
+        verify(connection, times(1)).getMetaData();
+        verify(metaData, never()).getColumns(null, "APP", "ORDERS", null);
+    }
+
+    @Test
+    @DisplayName("Should load keys per table when the driver cannot list them for a whole schema")
+    void shouldFallBackToPerTableKeys() throws SQLException {
+        when(metaData.getPrimaryKeys(null, "APP", null)).thenThrow(new SQLException("Invalid value \"null\" for parameter \"table\""));
+        SchemaCatalog schemaCatalog = new SchemaCatalog(() -> connection, 300);
+
+        // When
+        schemaCatalog.getSchemaColumns("APP");
+        SchemaCatalog.TableDetail orders = schemaCatalog.getTableDetail("APP", "ORDERS");
+
+        // Then - the keys are read for the table, but its columns still come from the harvest
+        assertThat(orders.columns()).extracting(SchemaCatalog.ColumnEntry::columnName).containsExactly("ID", "CUSTOMER_ID");
+        verify(metaData).getPrimaryKeys(null, "APP", "ORDERS");
+        verify(metaData, never()).getColumns(null, "APP", "ORDERS", null);
+    }
+
+    @Test
+    @DisplayName("Should load keys per table when the driver lists none for a whole schema")
+    void shouldFallBackToPerTableKeysOnEmptyBulkResult() throws SQLException {
+        ResultSet emptyResult = mock(ResultSet.class);
+        when(metaData.getPrimaryKeys(null, "APP", null)).thenReturn(emptyResult);
+        SchemaCatalog schemaCatalog = new SchemaCatalog(() -> connection, 300);
+
+        // When
+        schemaCatalog.getSchemaColumns("APP");
+        SchemaCatalog.TableDetail orders = schemaCatalog.getTableDetail("APP", "ORDERS");
+
+        // Then - an empty bulk answer is not trusted, so the keys are read for the table
+        assertThat(orders.columns()).extracting(SchemaCatalog.ColumnEntry::columnName).containsExactly("ID", "CUSTOMER_ID");
+        verify(metaData).getPrimaryKeys(null, "APP", "ORDERS");
+        verify(metaData, never()).getColumns(null, "APP", "ORDERS", null);
+    }
+
+    @Test
+    @DisplayName("Should only read columns in bulk when nothing is cached")
+    void shouldSkipBulkKeysWithoutCaching() throws SQLException {
+        SchemaCatalog schemaCatalog = new SchemaCatalog(() -> connection, 0);
+
+        assertThat(schemaCatalog.getSchemaColumns("APP")).containsOnlyKeys("ORDERS", "CUSTOMERS");
+        verify(metaData, never()).getPrimaryKeys(any(), any(), any());
+        verify(metaData, never()).getIndexInfo(any(), any(), any(), anyBoolean(), anyBoolean());
+    }
+
+    @Test
+    @DisplayName("Should read the columns, keys and indexes of a table on separate connections")
+    void shouldReadTableDetailInParallel() throws SQLException {
+        ResultSet columns = mock(ResultSet.class);
+        when(metaData.getColumns(null, "APP", "ORDERS", null)).thenReturn(columns);
+        when(columns.next()).thenReturn(true, false);
+        when(columns.getString("COLUMN_NAME")).thenReturn("ID");
+        AtomicInteger connectionCount = new AtomicInteger();
+        Map<String, Boolean> readerThreads = new ConcurrentHashMap<>();
+        ExecutorService metadataExecutor = Executors.newFixedThreadPool(3);
+        try {
+            SchemaCatalog schemaCatalog = new SchemaCatalog(() -> {
+                connectionCount.incrementAndGet();
+                readerThreads.put(Thread.currentThread().getName(), Boolean.TRUE);
+                return connection;
+            }, 0, metadataExecutor, new InFlightQueries());
+
+            // When
+            SchemaCatalog.TableDetail orders = schemaCatalog.getTableDetail("APP", "ORDERS");
+
+            // Then
+            assertThat(orders.columns()).extracting(SchemaCatalog.ColumnEntry::columnName).containsExactly("ID");
+            assertThat(orders.primaryKeys()).isEmpty();
+            assertThat(connectionCount).hasValue(4);
+            assertThat(readerThreads).containsKey(Thread.currentThread().getName()).hasSizeGreaterThan(1);
+        } finally {
+            metadataExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should not start the metadata reads of a cancelled request on any thread")
+    void shouldNotReadMetadataForCancelledRequest() {
+        AtomicInteger connectionCount = new AtomicInteger();
+        InFlightQueries inFlightQueries = new InFlightQueries();
+        ExecutorService metadataExecutor = Executors.newFixedThreadPool(3);
+        try (var ignored = inFlightQueries.track("describe-1")) {
+            SchemaCatalog schemaCatalog = new SchemaCatalog(() -> {
+                connectionCount.incrementAndGet();
+                return connection;
+            }, 0, metadataExecutor, inFlightQueries);
+            inFlightQueries.cancel("describe-1");
+
+            // When / Then
+            assertThatThrownBy(() -> schemaCatalog.getTableDetail("APP", "ORDERS"))
+                    .isInstanceOf(SQLException.class)
+                    .hasFieldOrPropertyWithValue("SQLState", "57014");
+        } finally {
+            metadataExecutor.shutdownNow();
+        }
+        assertThat(connectionCount).hasValue(0);
+    }
+}
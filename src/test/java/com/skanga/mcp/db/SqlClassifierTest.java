@@ -0,0 +1,85 @@
+package com.skanga.mcp.db;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlClassifierTest {
+    @Test
+    @DisplayName("Should treat read-only statements as queries")
+    void shouldRecognizeQueries() {
+        assertThat(SqlClassifier.isQuery("SELECT * FROM users")).isTrue();
+        assertThat(SqlClassifier.isQuery("  with recent AS (SELECT 1) SELECT * FROM recent")).isTrue();
+        assertThat(SqlClassifier.isQuery("(SELECT 1) UNION (SELECT 2)")).isTrue();
+        assertThat(SqlClassifier.isQuery("/* report */ SELECT 1")).isTrue();
+        assertThat(SqlClassifier.isQuery("-- report\nSELECT 1")).isTrue();
+        assertThat(SqlClassifier.isQuery("SHOW server_encoding")).isTrue();
+        assertThat(SqlClassifier.isQuery("EXPLAIN SELECT * FROM users")).isTrue();
+        assertThat(SqlClassifier.isQuery("VALUES (1, 2)")).isTrue();
+        assertThat(SqlClassifier.isQuery("SELECT * FROM users FOR UPDATE")).isTrue();
+        assertThat(SqlClassifier.isQuery("SELECT * FROM users FOR NO KEY UPDATE")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should not let keywords in names, literals or comments change the classification")
+    void shouldIgnoreKeywordsOutsideCode() {
+        assertThat(SqlClassifier.isQuery("SELECT deleted_at, last_update FROM users")).isTrue();
+        assertThat(SqlClassifier.isQuery("SELECT 'delete from users' FROM dual")).isTrue();
+        assertThat(SqlClassifier.isQuery("SELECT \"update\" FROM audit")).isTrue();
+        assertThat(SqlClassifier.isQuery("SELECT 1 /* insert into x */")).isTrue();
+        assertThat(SqlClassifier.isQuery("SELECT $$ delete $$, $1 FROM t")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should treat data-modifying statements as writes")
+    void shouldRecognizeWrites() {
+        assertThat(SqlClassifier.isQuery("WITH gone AS (DELETE FROM users RETURNING id) SELECT count(*) FROM gone")).isFalse();
+        assertThat(SqlClassifier.isQuery("SELECT * INTO users_copy FROM users")).isFalse();
+        assertThat(SqlClassifier.isQuery("EXPLAIN ANALYZE UPDATE users SET name = 'x'")).isFalse();
+        assertThat(SqlClassifier.isQuery("INSERT INTO users VALUES (1)")).isFalse();
+        assertThat(SqlClassifier.isQuery("CALL refresh_everything()")).isFalse();
+        assertThat(SqlClassifier.isQuery("-- only a comment")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should only cache queries that read data without locking or sequences")
+    void shouldRecognizeCacheableQueries() {
+        assertThat(SqlClassifier.isCacheable("SELECT deleted_at, last_update FROM users")).isTrue();
+        assertThat(SqlClassifier.isCacheable("/* report */ (SELECT 1)")).isTrue();
+        assertThat(SqlClassifier.isCacheable("SELECT * FROM users FOR UPDATE")).isFalse();
+        assertThat(SqlClassifier.isCacheable("SELECT * FROM users LOCK IN SHARE MODE")).isFalse();
+        assertThat(SqlClassifier.isCacheable("SELECT nextval('order_seq')")).isFalse();
+        assertThat(SqlClassifier.isCacheable("SHOW TABLES")).isFalse();
+        assertThat(SqlClassifier.isCacheable("WITH gone AS (DELETE FROM users RETURNING id) SELECT * FROM gone")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should recognize DDL after leading comments")
+    void shouldRecognizeDdl() {
+        assertThat(SqlClassifier.isDdl("-- migration\nCREATE TABLE t (id INT)")).isTrue();
+        assertThat(SqlClassifier.isDdl("ALTER TABLE t ADD COLUMN c INT")).isTrue();
+        assertThat(SqlClassifier.isDdl("SELECT 'drop table t'")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should find the tables a statement writes to")
+    void shouldFindWriteTargets() {
+        assertThat(SqlClassifier.writeTargets("UPDATE public.\"Orders\" SET status = 'x'")).containsExactly("orders");
+        assertThat(SqlClassifier.writeTargets("INSERT IGNORE INTO logs VALUES (1)")).containsExactly("logs");
+        assertThat(SqlClassifier.writeTargets("DELETE FROM ONLY users WHERE id = 1")).containsExactly("users");
+        assertThat(SqlClassifier.writeTargets("TRUNCATE TABLE audit")).containsExactly("audit");
+        assertThat(SqlClassifier.writeTargets("DROP TABLE IF EXISTS s.tmp")).containsExactly("tmp");
+        assertThat(SqlClassifier.writeTargets("WITH gone AS (DELETE FROM users RETURNING id) INSERT INTO archive SELECT id FROM gone"))
+                .containsExactlyInAnyOrder("users", "archive");
+        assertThat(SqlClassifier.writeTargets("CALL refresh_everything()")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should tokenize qualified and quoted names")
+    void shouldTokenizeNames() {
+        assertThat(SqlClassifier.tokenize("UPDATE public.\"Orders\" SET x = 1.5"))
+                .extracting(SqlClassifier.Token::text)
+                .containsExactly("update", "public", ".", "orders", "set", "x");
+    }
+}
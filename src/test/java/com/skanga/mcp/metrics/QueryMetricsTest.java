@@ -0,0 +1,74 @@
+package com.skanga.mcp.metrics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class QueryMetricsTest {
+    @Test
+    @DisplayName("Should estimate percentiles from bucket upper bounds")
+    void shouldEstimatePercentiles() {
+        LatencyHistogram latencyHistogram = new LatencyHistogram();
+        for (int i = 0; i < 90; i++) {
+            latencyHistogram.record(800_000L);       // 0.8ms -> 1ms bucket
+        }
+        for (int i = 0; i < 10; i++) {
+            latencyHistogram.record(40_000_000L);    // 40ms -> 50ms bucket
+        }
+
+        assertThat(latencyHistogram.count()).isEqualTo(100);
+        assertThat(latencyHistogram.percentileNanos(50)).isEqualTo(1_000_000L);
+        assertThat(latencyHistogram.percentileNanos(95)).isEqualTo(40_000_000L); // capped at the observed max
+        assertThat(latencyHistogram.maxNanos()).isEqualTo(40_000_000L);
+        assertThat(latencyHistogram.sumNanos()).isEqualTo(90 * 800_000L + 10 * 40_000_000L);
+    }
+
+    @Test
+    @DisplayName("Should count values above the last bound in the overflow bucket")
+    void shouldCountOverflow() {
+        LatencyHistogram latencyHistogram = new LatencyHistogram();
+        latencyHistogram.record(120_000_000_000L);
+
+        long[] bucketCounts = latencyHistogram.bucketCounts();
+        assertThat(bucketCounts).hasSize(LatencyHistogram.bucketBoundsNanos().length + 1);
+        assertThat(bucketCounts[bucketCounts.length - 1]).isEqualTo(1);
+        assertThat(latencyHistogram.percentileNanos(99)).isEqualTo(120_000_000_000L);
+    }
+
+    @Test
+    @DisplayName("Should record phases only into the timer bound to the current thread")
+    void shouldRecordIntoBoundTimer() {
+        PhaseTimer phaseTimer = new PhaseTimer();
+        PhaseTimer.record(Phase.EXECUTE, System.nanoTime() - 1_000);
+        assertThat(phaseTimer.get(Phase.EXECUTE)).isZero();
+
+        try (var ignored = phaseTimer.bind()) {
+            assertThat(PhaseTimer.current()).isSameAs(phaseTimer);
+            PhaseTimer.record(Phase.EXECUTE, System.nanoTime() - 1_000);
+        }
+
+        assertThat(PhaseTimer.current()).isNull();
+        assertThat(phaseTimer.get(Phase.EXECUTE)).isGreaterThanOrEqualTo(1_000);
+    }
+
+    @Test
+    @DisplayName("Should aggregate SQL tool calls and skip other requests and unentered phases")
+    void shouldAggregateOnlySqlCalls() {
+        QueryMetrics queryMetrics = new QueryMetrics();
+
+        PhaseTimer otherRequest = new PhaseTimer();
+        otherRequest.add(Phase.SERIALIZE, 5_000);
+        queryMetrics.record(otherRequest);
+
+        PhaseTimer sqlRequest = new PhaseTimer();
+        sqlRequest.markSqlCall();
+        sqlRequest.add(Phase.EXECUTE, 2_000_000);
+        queryMetrics.record(sqlRequest);
+
+        assertThat(queryMetrics.histogram(Phase.SERIALIZE).count()).isZero();
+        assertThat(queryMetrics.histogram(Phase.EXECUTE).count()).isEqualTo(1);
+        assertThat(queryMetrics.histogram(Phase.FETCH).count()).isZero();
+        assertThat(queryMetrics.histogram(Phase.TOTAL).count()).isEqualTo(1);
+    }
+}
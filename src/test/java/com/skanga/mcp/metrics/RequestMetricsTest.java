@@ -0,0 +1,39 @@
+package com.skanga.mcp.metrics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+
+class RequestMetricsTest {
+    @Test
+    @DisplayName("Should count requests and errors per method, folding unknown methods into other")
+    void shouldCountPerMethod() {
+        RequestMetrics requestMetrics = new RequestMetrics(Set.of("ping", "tools/call"), Set.of("run_sql"));
+
+        requestMetrics.recordRequest("ping", 1_000, false);
+        requestMetrics.recordRequest("tools/call", 5_000_000, true);
+        requestMetrics.recordRequest("made/up", 1_000, true);
+        requestMetrics.recordRequest("also/made/up", 1_000, false);
+
+        assertThat(requestMetrics.methodLatencies()).containsOnlyKeys("ping", "tools/call", RequestMetrics.OTHER_LABEL);
+        assertThat(requestMetrics.methodLatencies().get(RequestMetrics.OTHER_LABEL).count()).isEqualTo(2);
+        assertThat(requestMetrics.methodErrors("tools/call")).isEqualTo(1);
+        assertThat(requestMetrics.methodErrors("ping")).isZero();
+    }
+
+    @Test
+    @DisplayName("Should count tool calls and tool errors")
+    void shouldCountToolCalls() {
+        RequestMetrics requestMetrics = new RequestMetrics(Set.of(), Set.of("run_sql"));
+
+        requestMetrics.recordToolCall("run_sql", false);
+        requestMetrics.recordToolCall("run_sql", true);
+        requestMetrics.recordToolCall("no_such_tool", true);
+
+        assertThat(requestMetrics.toolCalls()).containsEntry("run_sql", 2L).containsEntry(RequestMetrics.OTHER_LABEL, 1L);
+        assertThat(requestMetrics.toolErrors()).containsEntry("run_sql", 1L);
+    }
+}
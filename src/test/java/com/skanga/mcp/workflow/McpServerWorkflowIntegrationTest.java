@@ -58,7 +58,7 @@ class McpServerWorkflowIntegrationTest {
         
         JsonNode tools = result.get("tools");
         assertThat(tools.isArray()).isTrue();
-        assertThat(tools.size()).isEqualTo(6);
+        assertThat(tools.size()).isEqualTo(8);
         
         // Verify workflow tools are present
         boolean hasStartWorkflow = false;